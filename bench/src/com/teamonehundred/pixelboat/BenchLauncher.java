@@ -0,0 +1,25 @@
+package com.teamonehundred.pixelboat;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so each result is reported as ops/s alongside the bytes allocated for
+ * each op, which is the "gc.alloc.rate.norm" line under it.
+ * <p>
+ * Takes the usual JMH options, so "CastRay -p boatCount=8" runs just the ray casts with eight boats, and "-rf json"
+ * saves the results to compare against later.
+ */
+public class BenchLauncher {
+    public static void main(String[] arg) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(arg);
+        new Runner(new OptionsBuilder()
+                .parent(options)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.teamonehundred.pixelboat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks making each kind of object's collision bounds, and checking a boat's bounds against an obstacle's
+ * <p>
+ * The race does both for every obstacle near a boat on every tick, so they're measured on rotated objects, as they
+ * are on the course.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundsBenchmark {
+    private static final float ROTATION = 30.0f;
+
+    @State(Scope.Benchmark)
+    public static class GameObjects {
+        private final RaceClock clock = new RaceClock();
+
+        GameObject powerup;
+        AIBoat boat;
+        ObstacleBranch branch;
+        ObstacleDuck duck;
+        // Bounds of obstacles on top of the boat, and just beside it
+        CollisionBounds boatBounds;
+        CollisionBounds overlapping;
+        CollisionBounds apart;
+
+        @Setup
+        public void setup() {
+            CourseState.startHeadless();
+            powerup = new Powerup(500, 1000, Powerup.Type.Boost);
+            boat = new AIBoat(500.0f, 1000.0f, 0.8f);
+            boat.getSprite().setRotation(ROTATION);
+            branch = new ObstacleBranch(500.0f, 1000.0f);
+            branch.getSprite().setRotation(-ROTATION);
+            duck = new ObstacleDuck(500.0f, 1000.0f, clock);
+            duck.setTransform(500.0f, 1000.0f, ROTATION);
+
+            boatBounds = boat.getBounds();
+            overlapping = duck.getBounds();
+            ObstacleDuck nearby = new ObstacleDuck(500.0f + boat.getSprite().getWidth(), 1000.0f, clock);
+            nearby.setTransform(500.0f + boat.getSprite().getWidth(), 1000.0f, ROTATION);
+            apart = nearby.getBounds();
+        }
+    }
+
+    @Benchmark
+    public CollisionBounds gameObjectBounds(GameObjects objects) {
+        return objects.powerup.getBounds();
+    }
+
+    @Benchmark
+    public CollisionBounds boatBounds(GameObjects objects) {
+        return objects.boat.getBounds();
+    }
+
+    @Benchmark
+    public CollisionBounds branchBounds(GameObjects objects) {
+        return objects.branch.getBounds();
+    }
+
+    @Benchmark
+    public CollisionBounds duckBounds(GameObjects objects) {
+        return objects.duck.getBounds();
+    }
+
+    /** A collision is found from the first pair of rectangles that overlap **/
+    @Benchmark
+    public boolean isCollidingOverlapping(GameObjects objects) {
+        return objects.boatBounds.isColliding(objects.overlapping);
+    }
+
+    /** Every pair of rectangles is checked before there's found to be no collision **/
+    @Benchmark
+    public boolean isCollidingApart(GameObjects objects) {
+        return objects.boatBounds.isColliding(objects.apart);
+    }
+}
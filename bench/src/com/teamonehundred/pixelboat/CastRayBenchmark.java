@@ -0,0 +1,44 @@
+package com.teamonehundred.pixelboat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the rays AI boats cast to look for obstacles ahead of them
+ * <p>
+ * Each call is one ray from one of the boats on the course, taking turns between the boats and between the
+ * forward, left and right rays, as each boat casts all three on every tick.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CastRayBenchmark {
+    private static final float[] RAY_ANGLES = {0.0f, -15.0f, 15.0f};
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int ray = 0;
+    }
+
+    @Benchmark
+    public float castRay(CourseState course, Cursor cursor) {
+        int ray = cursor.ray++;
+        if (cursor.ray == course.boatCount * RAY_ANGLES.length) cursor.ray = 0;
+        AIBoat boat = course.boats.get(ray / RAY_ANGLES.length);
+        float startX = boat.getSprite().getX() + boat.getSprite().getWidth() * 0.5f;
+        float startY = boat.getSprite().getY() + boat.getSprite().getHeight();
+        return boat.castRay(startX, startY, -boat.getSprite().getRotation() + RAY_ANGLES[ray % RAY_ANGLES.length],
+                course.collisionTree);
+    }
+}
@@ -0,0 +1,103 @@
+package com.teamonehundred.pixelboat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks adding to, removing from and looking up the collision tree a race's obstacles are kept in
+ * <p>
+ * Objects are added and removed in pairs, so the tree stays the size it was set up at.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionTreeBenchmark {
+    // Far enough for a moving object to cross into the next node now and then
+    private static final float MOVE_DISTANCE = 40.0f;
+    private static final int POINTS = 1024;
+
+    /** Where to look things up and what to add, cycled through so every call isn't the same **/
+    @State(Scope.Thread)
+    public static class Cursor {
+        final float[] x = new float[POINTS];
+        final float[] y = new float[POINTS];
+        final GameObject[] spare = new GameObject[POINTS];
+        // Whether each obstacle is currently moved away from where it was added
+        boolean[] moved;
+        int point = 0;
+        int obstacle = 0;
+
+        @Setup
+        public void setup(CourseState course) {
+            SplittableRandom random = new SplittableRandom(POINTS);
+            for (int i = 0; i < POINTS; ++i) {
+                x[i] = course.randomX(random);
+                y[i] = course.randomY(random);
+                spare[i] = course.createObstacle(random, i);
+            }
+            moved = new boolean[course.obstacles.size()];
+        }
+
+        int nextPoint() {
+            point = (point + 1) & (POINTS - 1);
+            return point;
+        }
+
+        int nextObstacle() {
+            if (++obstacle >= moved.length) obstacle = 0;
+            return obstacle;
+        }
+    }
+
+    @Benchmark
+    public Set<CollisionObject> get(CourseState course, Cursor cursor) {
+        int i = cursor.nextPoint();
+        return course.collisionTree.get(cursor.x[i], cursor.y[i]);
+    }
+
+    @Benchmark
+    public void addThenRemove(CourseState course, Cursor cursor) {
+        int i = cursor.nextPoint();
+        CollisionObject object = (CollisionObject) cursor.spare[i];
+        course.collisionTree.add(cursor.x[i], cursor.y[i], object);
+        course.collisionTree.remove(cursor.x[i], cursor.y[i], object);
+    }
+
+    /** Adds and removes over the area an object sweeps, as floating branches are kept in the tree **/
+    @Benchmark
+    public void addThenRemoveArea(CourseState course, Cursor cursor) {
+        int i = cursor.nextPoint();
+        CollisionObject object = (CollisionObject) cursor.spare[i];
+        float minX = cursor.x[i];
+        float minY = cursor.y[i];
+        course.collisionTree.add(minX, minY, minX + MOVE_DISTANCE, minY + MOVE_DISTANCE * 8.0f, object);
+        course.collisionTree.remove(minX, minY, minX + MOVE_DISTANCE, minY + MOVE_DISTANCE * 8.0f, object);
+    }
+
+    /** Moves an obstacle already in the tree, as the race does with every obstacle that's been updated **/
+    @Benchmark
+    public void move(CourseState course, Cursor cursor) {
+        int i = cursor.nextObstacle();
+        CollisionObject object = (CollisionObject) course.obstacles.get(i);
+        float x = course.obstacleX[i];
+        float y = course.obstacleY[i];
+        float offset = cursor.moved[i] ? MOVE_DISTANCE : 0.0f;
+        cursor.moved[i] = !cursor.moved[i];
+        course.collisionTree.remove(x, y + offset, object);
+        course.collisionTree.add(x, y + MOVE_DISTANCE - offset, object);
+    }
+}
@@ -0,0 +1,127 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.teamonehundred.pixelboat.util.CollisionTree;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A course laid out like a race's, shared by the benchmarks that need one
+ * <p>
+ * The collision tree covers the same area as {@link RaceCourse}'s does for the number of boats, and is filled with a
+ * mix of branches, ducks and power-ups at random. The same seed is used every time, so runs can be compared.
+ */
+@State(Scope.Benchmark)
+public class CourseState {
+    private static final long SEED = 20210301L;
+    // The obstacles are spread over the whole leg, as they are once every chunk has been generated
+    private static final float COURSE_LENGTH = BoatRace.END_Y - BoatRace.START_Y;
+
+    /** Obstacles in each lane for every thousand units of the course **/
+    @Param({"1", "4", "16"})
+    public int density;
+
+    /** Boats in the race, one to a lane **/
+    @Param({"4", "8", "16"})
+    public int boatCount;
+
+    CollisionTree collisionTree;
+    final List<GameObject> obstacles = new ArrayList<>();
+    final List<AIBoat> boats = new ArrayList<>();
+    // Where each obstacle was added to the tree, as the race adds them
+    float[] obstacleX;
+    float[] obstacleY;
+    float left;
+    float width;
+
+    private final RaceClock clock = new RaceClock();
+
+    @Setup
+    public void setup() {
+        startHeadless();
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        left = BoatRace.getLaneCentre(0) - (BoatRace.LANE_WIDTH * 0.5f);
+        width = boatCount * BoatRace.LANE_WIDTH;
+        collisionTree = new CollisionTree(width, BoatRace.END_Y + CollisionTree.MIN_HEIGHT * 0.5f,
+                left, BoatRace.START_Y);
+
+        int obstacleCount = (int) (density * boatCount * COURSE_LENGTH / 1000.0f);
+        obstacleX = new float[obstacleCount];
+        obstacleY = new float[obstacleCount];
+        for (int i = 0; i < obstacleCount; ++i) {
+            GameObject obstacle = createObstacle(random, i);
+            obstacles.add(obstacle);
+            obstacleX[i] = obstacle.getSprite().getX();
+            obstacleY[i] = obstacle.getSprite().getY();
+            collisionTree.add(obstacleX[i], obstacleY[i], (CollisionObject) obstacle);
+        }
+
+        // Each boat is somewhere along its lane, facing roughly up the course
+        for (int i = 0; i < boatCount; ++i) {
+            AIBoat boat = new AIBoat(BoatRace.getLaneCentre(i), randomY(random), 0.8f);
+            boat.getSprite().setRotation((float) random.nextDouble(-30.0, 30.0));
+            boats.add(boat);
+        }
+    }
+
+    /** Make an obstacle of the next kind somewhere on the course **/
+    GameObject createObstacle(SplittableRandom random, int index) {
+        float x = randomX(random);
+        float y = randomY(random);
+        float rotation = (float) random.nextDouble(360.0);
+        switch (index % 3) {
+            case 0:
+                ObstacleBranch branch = new ObstacleBranch(x, y);
+                branch.getSprite().setRotation(rotation);
+                return branch;
+            case 1:
+                ObstacleDuck duck = new ObstacleDuck(x, y, clock);
+                duck.setTransform(x, y, rotation);
+                return duck;
+            default:
+                Powerup.Type[] types = Powerup.Type.values();
+                return new Powerup((int) x, (int) y, types[random.nextInt(types.length)]);
+        }
+    }
+
+    float randomX(SplittableRandom random) {
+        return left + (float) random.nextDouble(width);
+    }
+
+    float randomY(SplittableRandom random) {
+        return BoatRace.START_Y + (float) random.nextDouble(COURSE_LENGTH);
+    }
+
+    /**
+     * Start libGDX without a window, once for each forked JVM, so objects can load their textures
+     * <p>
+     * Nothing is drawn, so GL calls do nothing, as they do when replays are played back headlessly.
+     */
+    static synchronized void startHeadless() {
+        if (Gdx.app != null) return;
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+        }, config);
+        Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+                (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    if (type == int.class) return 0;
+                    if (type == boolean.class) return false;
+                    if (type == float.class) return 0.0f;
+                    return null;
+                });
+    }
+}
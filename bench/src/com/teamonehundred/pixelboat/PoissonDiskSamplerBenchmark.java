@@ -0,0 +1,62 @@
+package com.teamonehundred.pixelboat;
+
+import com.teamonehundred.pixelboat.util.PoissonDiskSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks placing a whole leg's worth of objects with the Poisson-disk sampler
+ * <p>
+ * Each op fills a sixteen lane leg from empty, so it includes making the sampler's grid. At the highest counts and
+ * widest spacing the leg fills up, and the rest of the objects each use up every attempt before being skipped, which
+ * is the sampler's worst case.
+ * <p>
+ * Objects are spread across each lane by the course's lane density profile, so the dense middle of each lane fills up
+ * first, as it does on the course.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoissonDiskSamplerBenchmark {
+    private static final long SEED = 20210301L;
+    private static final int LANES = 16;
+    private static final float MIN_SPACING = 30.0f;
+
+    /** Objects placed over the leg **/
+    @Param({"1000", "10000", "50000"})
+    public int obstacleCount;
+
+    /** Distance kept between each object and any other **/
+    @Param({"30", "60", "120"})
+    public float radius;
+
+    @Benchmark
+    public int fillLeg() {
+        float left = RaceCourse.getWallX(0);
+        float right = RaceCourse.getWallX(LANES);
+        PoissonDiskSampler sampler = new PoissonDiskSampler(left, BoatRace.START_Y, right, BoatRace.END_Y,
+                MIN_SPACING, Math.max(MIN_SPACING, radius));
+        SplittableRandom random = new SplittableRandom(SEED);
+        // Shared out between the lanes, as the course does
+        for (int i = 0; i < obstacleCount; ++i) {
+            float laneLeft = RaceCourse.getWallX(i % LANES);
+            sampler.sample(random, laneLeft, BoatRace.START_Y, laneLeft + BoatRace.LANE_WIDTH, BoatRace.END_Y, radius,
+                    RaceCourse.LANE_DENSITY);
+        }
+        return sampler.size();
+    }
+}
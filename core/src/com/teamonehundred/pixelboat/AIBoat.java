@@ -3,6 +3,7 @@ package com.teamonehundred.pixelboat;
 import com.badlogic.gdx.math.Vector2;
 import com.teamonehundred.pixelboat.util.CollisionTree;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -57,6 +58,36 @@ public class AIBoat extends Boat {
         regen = false;
     }
 
+    /**
+     * Get the number of bytes {@link #writeState(ByteBuffer)} needs at most
+     **/
+    @Override
+    int getStateSize() {
+        return super.getStateSize() + 1;
+    }
+
+    /**
+     * Write everything about the boat that changes during a race, including whether it's stopped to regenerate
+     *
+     * @param out The buffer to write to, which must have {@link #getStateSize()} bytes remaining
+     */
+    @Override
+    void writeState(ByteBuffer out) {
+        super.writeState(out);
+        out.put((byte) (regen ? 1 : 0));
+    }
+
+    /**
+     * Read the state written by {@link #writeState(ByteBuffer)}
+     *
+     * @param in The buffer to read from
+     */
+    @Override
+    void readState(ByteBuffer in) {
+        super.readState(in);
+        regen = in.get() != 0;
+    }
+
     /** Helper checks whether or not the boat should accelerate **/
     private void checkAccelerate(float deltaTime) {
         // If the boat is not regenerating and below the target speed, accelerate
@@ -0,0 +1,150 @@
+package com.teamonehundred.pixelboat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes saves on a background thread, so the game never waits for the disk while it's being played.
+ * <p>
+ * Writes are done one at a time in the order they were queued, so the last write queued for a file is always the
+ * one left on disk. Anything queued must not be changed afterwards. The queue is bounded, and if the disk falls so
+ * far behind that it fills, further writes are dropped with a warning rather than holding up the game.
+ * <p>
+ * Anything reading a save should {@link #flush()} first, so it sees every write queued before it.
+ */
+class AutosaveService {
+
+    // The most writes waiting at once
+    private static final int QUEUE_CAPACITY = 32;
+    // Journal records appended before they're compacted into a checkpoint
+    private static final int COMPACT_AFTER = 4;
+    // How long flushing waits for the queued writes to finish
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+    /** A write done on the I/O thread **/
+    interface Write {
+        void run() throws IOException;
+    }
+
+    private static AutosaveService instance;
+
+    private final BlockingQueue<Write> queue;
+    // The number of records in the journal since it was last compacted, only used by the I/O thread
+    private int journalRecords = 0;
+
+    /* Singleton pattern */
+    // Set to private so there's only ever one I/O thread writing saves
+    private AutosaveService() {
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread thread = new Thread(this::run, "autosave");
+        // The game flushes the queue when it closes, so the thread doesn't need to keep it open
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static synchronized AutosaveService getInstance() {
+        if (instance == null) {
+            instance = new AutosaveService();
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a payload to be written to a file between a header and a checksum, replacing the file
+     *
+     * @param path    The file to write
+     * @param magic   The magic number identifying the kind of file
+     * @param version The version of the format the payload is in
+     * @param payload The payload, from its position to its limit
+     * @return True if it was queued, or false if it was dropped
+     */
+    boolean writeFramed(Path path, int magic, int version, ByteBuffer payload) {
+        return submit(() -> SaveManager.writeFramed(path, magic, version, payload));
+    }
+
+    /**
+     * Queue a save to be appended to a journal, compacting the journal into a checkpoint every few records
+     *
+     * @param journal    The journal to append to
+     * @param checkpoint The file the journal is compacted into
+     * @param payload    The save, as encoded by {@link SaveManager#encode(SaveManager.SaveData)}
+     * @return True if it was queued, or false if it was dropped
+     */
+    boolean appendJournal(Path journal, Path checkpoint, ByteBuffer payload) {
+        return submit(() -> {
+            // Appending reads the payload, so keep a view of it for the checkpoint
+            ByteBuffer latest = payload.duplicate();
+            SaveManager.appendJournal(journal, payload);
+            if (++journalRecords >= COMPACT_AFTER) {
+                SaveManager.compactJournal(journal, checkpoint, latest);
+                journalRecords = 0;
+            }
+        });
+    }
+
+    /**
+     * Queue a file to be deleted, if it exists
+     *
+     * @param path The file to delete
+     * @return True if it was queued, or false if it was dropped
+     */
+    boolean delete(Path path) {
+        return submit(() -> Files.deleteIfExists(path));
+    }
+
+    /**
+     * Wait for every write queued so far to finish
+     *
+     * @return True if they finished, or false if they took too long or the queue is full
+     */
+    boolean flush() {
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            if (!queue.offer(done::countDown, FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) return false;
+            return done.await(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Queue any write without waiting, dropping it if the queue is full
+     *
+     * @param write The write, done on the I/O thread after everything queued before it
+     * @return True if it was queued, or false if it was dropped
+     */
+    boolean submit(Write write) {
+        if (!queue.offer(write)) {
+            System.out.println("WARNING - Too many saves waiting to be written, one has been dropped");
+            return false;
+        }
+        return true;
+    }
+
+    /** The I/O thread's loop, doing queued writes until the game closes **/
+    private void run() {
+        while (true) {
+            Write write;
+            try {
+                write = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                write.run();
+            } catch (IOException e) {
+                System.out.println("WARNING - A save could not be written: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // Anything else going wrong mustn't stop the thread, or every save after it would be lost
+                System.out.println("WARNING - A save failed on the I/O thread: " + e);
+            }
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.teamonehundred.pixelboat;
 
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.teamonehundred.pixelboat.util.VarInts;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,6 +21,11 @@ public abstract class Boat extends MovableObject implements CollisionObject {
                    ATTRIBUTES
     // ################################### */
 
+    // Bits set in getTickCollisions() for each kind of thing the boat hit during a tick
+    public static final int COLLIDED_OBSTACLE = 1;
+    public static final int COLLIDED_BOAT = 1 << 1;
+    public static final int COLLIDED_WALL = 1 << 2;
+
     private final List<Integer> legTimes = new ArrayList<>();  // times for every previous leg
     // Accessible by derived classes as they may need to change these
     protected float durability = 1.f;  // from 0 to 1
@@ -39,6 +46,10 @@ public abstract class Boat extends MovableObject implements CollisionObject {
     private boolean hasFinishedLeg = false;
     private boolean hasStartedLeg = false;
 
+    // What the boat hit and picked up during the current tick, as COLLIDED_ bits and bits of power-up type ordinals
+    private int tickCollisions = 0;
+    private int tickPowerups = 0;
+
     /* ################################### //
                   CONSTRUCTORS
     // ################################### */
@@ -73,10 +84,11 @@ public abstract class Boat extends MovableObject implements CollisionObject {
         // Lane wall isn't most likely, but needs to be handled first otherwise it'll be handled as a regular obstacle
         //noinspection StatementWithEmptyBody (Make IntelliJ go away)
         if (other instanceof ObstacleLaneWall) {
-            // Do nothing
+            tickCollisions |= COLLIDED_WALL;
         }
         // Obstacle is most likely, so it goes at the top
         else if (other instanceof Obstacle) {
+            tickCollisions |= COLLIDED_OBSTACLE;
             changeDurability(-durabilityPerHit);
             changeMaxSpeed(-maxSpeedPerHit);
             changeSpeed(-2.0f * maxSpeedPerHit);
@@ -84,6 +96,7 @@ public abstract class Boat extends MovableObject implements CollisionObject {
         // Powerups are less common
         else if (other instanceof Powerup) {
             Powerup p = (Powerup) other;
+            tickPowerups |= 1 << p.getType().ordinal();
             switch (p.getType()) {
                 case Repair:
                     changeDurability(durabilityPerHit * 3.0f);
@@ -102,9 +115,10 @@ public abstract class Boat extends MovableObject implements CollisionObject {
                 case Teleport:
                     getSprite().translate(0.0f, 250.0f);
                     if (this instanceof PlayerBoat)
-                        ((PlayerBoat) this).getCamera().translate(0.0f, 250.0f);
+                        ((PlayerBoat) this).translateCamera(0.0f, 250.0f);
             }
         } else if (other instanceof Boat) {
+            tickCollisions |= COLLIDED_BOAT;
             changeDurability(-durabilityPerHit);
         }
 
@@ -321,6 +335,32 @@ public abstract class Boat extends MovableObject implements CollisionObject {
         this.stamina = 1.0f;
     }
 
+    /**
+     * Forget what the boat hit and picked up, ready for the next tick
+     **/
+    void clearTickEvents() {
+        tickCollisions = 0;
+        tickPowerups = 0;
+    }
+
+    /**
+     * Get what the boat has hit since the tick started
+     *
+     * @return int of COLLIDED_ bits
+     */
+    public int getTickCollisions() {
+        return tickCollisions;
+    }
+
+    /**
+     * Get the power-ups the boat has picked up since the tick started
+     *
+     * @return int with the bit (1 << type.ordinal()) set for each type of power-up
+     */
+    public int getTickPowerups() {
+        return tickPowerups;
+    }
+
     /**
      * Gets current best time for boat from its list of leg_times.
      *
@@ -367,6 +407,79 @@ public abstract class Boat extends MovableObject implements CollisionObject {
         return 1.0f;
     }
 
+    /**
+     * Get the number of bytes {@link #writeState(ByteBuffer)} needs at most
+     **/
+    int getStateSize() {
+        // Eight floats, a byte of flags, and varints at their longest
+        return 8 * 4 + 1 + 10 * (7 + legTimes.size());
+    }
+
+    /**
+     * Write everything about the boat that changes during a race, so it can be carried on later
+     *
+     * @param out The buffer to write to, which must have {@link #getStateSize()} bytes remaining
+     */
+    void writeState(ByteBuffer out) {
+        out.putFloat(getSprite().getX());
+        out.putFloat(getSprite().getY());
+        out.putFloat(getSprite().getRotation());
+        out.putFloat(speed);
+        out.putFloat(maxSpeed);
+        out.putFloat(acceleration);
+        out.putFloat(durability);
+        out.putFloat(stamina);
+        out.put((byte) ((hasStartedLeg ? 1 : 0) | (hasFinishedLeg ? 2 : 0)));
+        VarInts.putSigned(out, currentRaceTime);
+        VarInts.putSigned(out, timeToAdd);
+        VarInts.putSigned(out, framesToAnimate);
+        VarInts.putSigned(out, currentAnimationFrame);
+        VarInts.putSigned(out, framesElapsed);
+        VarInts.putSigned(out, getAnimationFrame());
+
+        // Leg times are all about the same, so each is written as the difference from the last
+        VarInts.putUnsigned(out, legTimes.size());
+        int previous = 0;
+        for (int time : legTimes) {
+            VarInts.putSigned(out, time - previous);
+            previous = time;
+        }
+    }
+
+    /**
+     * Read the state written by {@link #writeState(ByteBuffer)}, replacing the boat's leg times
+     *
+     * @param in The buffer to read from
+     */
+    void readState(ByteBuffer in) {
+        float x = in.getFloat();
+        float y = in.getFloat();
+        getSprite().setPosition(x, y);
+        getSprite().setRotation(in.getFloat());
+        speed = in.getFloat();
+        maxSpeed = in.getFloat();
+        acceleration = in.getFloat();
+        durability = in.getFloat();
+        stamina = in.getFloat();
+        byte flags = in.get();
+        hasStartedLeg = (flags & 1) != 0;
+        hasFinishedLeg = (flags & 2) != 0;
+        currentRaceTime = (int) VarInts.getSigned(in);
+        timeToAdd = (int) VarInts.getSigned(in);
+        framesToAnimate = (int) VarInts.getSigned(in);
+        currentAnimationFrame = (int) VarInts.getSigned(in);
+        framesElapsed = (int) VarInts.getSigned(in);
+        setAnimationFrame((int) VarInts.getSigned(in));
+
+        int legCount = VarInts.getCount(in, in.remaining());
+        legTimes.clear();
+        int previous = 0;
+        for (int i = 0; i < legCount; ++i) {
+            previous += (int) VarInts.getSigned(in);
+            legTimes.add(previous);
+        }
+    }
+
     /**
      * Adds an amount of time to the penalty time
      * @param time Time to add in ms (probably dt * 1000)
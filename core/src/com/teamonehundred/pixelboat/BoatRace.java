@@ -1,16 +1,23 @@
 package com.teamonehundred.pixelboat;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.teamonehundred.pixelboat.util.CollisionTree;
+import com.teamonehundred.pixelboat.util.FontRegistry;
+import com.teamonehundred.pixelboat.util.TextFormat;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
+import com.teamonehundred.pixelboat.util.VarInts;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
 /**
  * Represents a BoatRace. Call functionality for sprite objects such as boats and obstacles.
@@ -24,38 +31,77 @@ public class BoatRace {
     public static final float MAX_RACE_TIME = 150.0f;
     // The amount that the remaining distance is multiplied by when estimating finishing times
     private static final float BOAT_TIME_ESTIMATION_BIAS = 1.2f;
-    private static final int START_Y = 200;
-    private static final float LANE_WIDTH = 400.0f;
+    static final int START_Y = 200;
+    static final float LANE_WIDTH = 400.0f;
+    private static final String START_BANNER_PATH = "start_banner.png";
+    private static final String BLEACHERS_LEFT_PATH = "bleachers_l.png";
+    private static final String BLEACHERS_RIGHT_PATH = "bleachers_r.png";
+    private static final String FINISH_LINE_PATH = "object_placeholder.png";
+    private static final float BLEACHERS_START_Y = -1000.0f;
+    private static final float BLEACHERS_HEIGHT = 800.0f;
+    private static final float BLEACHERS_END_Y = END_Y + 1000.0f;
+    // Endless races move the origin down by this much whenever the player passes REBASE_HEIGHT. It's a whole number
+    // of course chunks and lane wall images, so the course and the baked scenery still line up afterwards
+    private static final int REBASE_DISTANCE = 4 * RaceCourse.CHUNK_LENGTH;
+    private static final float REBASE_HEIGHT = 12000.0f;
+    // Boats this far from the player in an endless race retire, so the course between them stays a bounded length
+    private static final float RETIRE_DISTANCE = 6000.0f;
 
     private final List<Boat> boats;
+    // Copies of the boats' sprites, moved to where a snapshot says the boats are when drawing
+    private final List<Sprite> boatSprites;
     private final PlayerBoat player;
+    // The best run so far of this leg, drawn but never simulated, so nothing collides with it
+    private GhostTrack ghost;
+    private Sprite ghostSprite;
+    // Records every boat on every tick, if races are being recorded
+    private RaceTelemetry telemetry;
     private final BitmapFont font; //TimingTest
-    private final Texture startBanner;
-    private final Texture bleachersLeft;
-    private final Texture bleachersRight;
+    // The time displays, which are only laid out again when the time they show changes
+    private final StringBuilder timeText;
+    private final GlyphLayout timeLayout;
+    private long timeShown = -1;
+    private final List<GlyphLayout> legTimeLayouts;
+    private final TextureRegion startBanner;
+    private final TextureRegion bleachersLeft;
+    private final TextureRegion bleachersRight;
+    private final TextureRegion finishLine;
+    // The course streams lane objects in and out as the boats move along it
+    private final RaceCourse course;
     private final List<CollisionObject> laneObjects;
     private final List<CollisionObject> laneObjectsUpdated;
+    private final RaceClock clock;
+    // The race's own random source, from the course, so the same seed gives the same outcomes
+    private final SplittableRandom random;
     private boolean isFinished = false;
-    private float totalTime = 0;
 
     private final CollisionTree collisionTree;
+    // Lane objects by height, sorted into drawing order
+    private final RenderQueue renderQueue;
+    // Held while lane objects change or are drawn, as the race is simulated on another thread to drawing
+    private final Object laneObjectLock = new Object();
+    private final SceneryCache scenery;
+    private final Rectangle viewBounds;
     private final float raceWidth;
 
     /**
      * Main constructor for a BoatRace.
      * <p>
-     * Initialises lists of boats and obstacles as well as the colour of the Time Elapsed Overlay.
+     * Initialises lists of boats and obstacles as well as the font of the Time Elapsed Overlay.
      *
-     * @param boats List of Boat A list of ai boats and the player boat.
+     * @param boats  List of Boat A list of ai boats and the player boat.
+     * @param course The obstacles, power-ups and lane walls, streamed from the pools as the race goes on
+     * @param pools  The pools the course came from, which its objects are returned to by {@link #free()}
      * @author William Walton
      * @author Umer Fakher
      * JavaDoc by Umer Fakher
      */
-    BoatRace(List<Boat> boats, PlayerBoat player, int leg) {
-        Texture laneSeparator = new Texture("lane_buoy.png");
-        startBanner = new Texture("start_banner.png");
-        bleachersLeft = new Texture("bleachers_l.png");
-        bleachersRight = new Texture("bleachers_r.png");
+    BoatRace(List<Boat> boats, PlayerBoat player, RaceCourse course, LaneObjectPools pools) {
+        final TextureRegistry textures = TextureRegistry.getInstance();
+        startBanner = textures.acquireRegion(START_BANNER_PATH);
+        bleachersLeft = textures.acquireRegion(BLEACHERS_LEFT_PATH);
+        bleachersRight = textures.acquireRegion(BLEACHERS_RIGHT_PATH);
+        finishLine = textures.acquireRegion(FINISH_LINE_PATH);
 
         this.boats = new ArrayList<>();
         this.boats.addAll(boats);
@@ -73,75 +119,115 @@ public class BoatRace {
 
         player.resetCameraPos();
 
-        laneObjects = new ArrayList<>();
-        laneObjectsUpdated = new ArrayList<>();
+        boatSprites = new ArrayList<>();
+        for (Boat boat : this.boats) {
+            boatSprites.add(new Sprite(boat.getSprite()));
+        }
 
-        // Make sure difficulty is initialised
-        final Difficulty difficulty = Difficulty.getInstance();
-
-        // Set the width
-        raceWidth = boats.size() * LANE_WIDTH;
-
-        // add some random obstacles
-        float compoundLegDifficulty = (float) Math.pow(difficulty.getLegObstacleModifier(), leg);
-        int obstacleCount = (int)(difficulty.getObstacleCount() * compoundLegDifficulty);
-        for (int i = 0; i < obstacleCount; i++) {
-            laneObjects.add(new ObstacleBranch(
-                    (int) (ThreadLocalRandom.current().nextFloat() * raceWidth),
-                    (int) (START_Y + 50 + Math.random() * (END_Y - START_Y - 50)))
-            );
-            laneObjects.add(new ObstacleFloatingBranch(
-                    (int) (ThreadLocalRandom.current().nextFloat() * raceWidth),
-                    (int) (START_Y + 50 + Math.random() * (END_Y - START_Y - 50)))
-            );
-            laneObjects.add(new ObstacleDuck(
-                    (int) (ThreadLocalRandom.current().nextFloat() * raceWidth),
-                    (int) (START_Y + 50 + Math.random() * (END_Y - START_Y - 50)))
-            );
-        }
-
-        // add some power-ups
-        for (int i = 0; i < difficulty.getPowerUpCount(); ++i)
-            laneObjects.add(new Powerup(
-                    (int) (-(LANE_WIDTH * this.boats.size() / 2) + Math.random() * (LANE_WIDTH * this.boats.size())),
-                    (int) (START_Y + 50 + Math.random() * (END_Y - START_Y - 50)),
-                    Powerup.Type.values()[(int) (Math.random() * Powerup.Type.values().length)])
-            );
-
-        // add the lane separators
+        // The race takes over the course, removing objects from it as they're hidden
+        this.course = course;
+        laneObjects = course.getLaneObjects();
+        laneObjectsUpdated = new ArrayList<>();
+        clock = pools.getClock();
+        clock.reset();
+
+        random = course.getRandom();
+        raceWidth = course.getRaceWidth();
+        collisionTree = course.getCollisionTree();
+        renderQueue = course.getRenderQueue();
+        viewBounds = new Rectangle();
+
+        // Bake the scenery, which never moves, for the whole leg, or the stretch an endless race stays within. Lane
+        // walls are streamed in with the course, so they're baked from where they'll be placed, looking like a
+        // resting wall borrowed from the pool. The scenery is baked later, so it keeps its own copy of the wall's image
+        scenery = new SceneryCache(BLEACHERS_START_Y, BLEACHERS_END_Y);
+        ObstacleLaneWall restingWall = pools.obtainLaneWall(0.0f, 0.0f);
+        Sprite wallSprite = restingWall.getSprite();
+        TextureRegion wall = new TextureRegion(wallSprite);
         for (int lane = 0; lane <= this.boats.size(); lane++) {
-            float laneCentre = getLaneCentre(lane);
             for (int height = 0; height <= END_Y; height += ObstacleLaneWall.TEXTURE_HEIGHT) {
-                laneObjects.add(new ObstacleLaneWall( laneCentre - LANE_WIDTH / 2, height, laneSeparator));
+                scenery.add(SceneryCache.UNDERLAY, wall, RaceCourse.getWallX(lane), height,
+                        wallSprite.getWidth(), wallSprite.getHeight());
+            }
+        }
+        for (float i = BLEACHERS_START_Y; i < BLEACHERS_END_Y; i += BLEACHERS_HEIGHT) {
+            scenery.add(SceneryCache.OVERLAY, bleachersRight, raceWidth + LANE_WIDTH, i, 400, BLEACHERS_HEIGHT);
+            scenery.add(SceneryCache.OVERLAY, bleachersLeft, -LANE_WIDTH, i, 400, BLEACHERS_HEIGHT);
+        }
+        // The scenery repeats in an endless race as the origin moves, so only a normal leg bakes the start and finish
+        if (!course.isEndless()) {
+            for (int i = 0; i < this.boats.size(); i++) {
+                scenery.add(SceneryCache.OVERLAY, startBanner,
+                        getLaneCentre(i) - (LANE_WIDTH * 0.5f), START_Y, LANE_WIDTH, LANE_WIDTH * 0.5f);
             }
+            scenery.add(SceneryCache.OVERLAY, finishLine, 0.0f, END_Y, raceWidth, 5);
         }
+        pools.free(restingWall);
 
-        // Start at the left side of the leftmost lane
-        float cTreeX = getLaneCentre(0) - (LANE_WIDTH * 0.5f);
-        // Start at the very bottom
-        float cTreeY = (float) START_Y;
-        // Height...
-        float raceHeight = END_Y + CollisionTree.MIN_HEIGHT * 0.5f;
+        font = FontRegistry.getInstance().getBuiltIn();
+        timeText = new StringBuilder();
+        timeLayout = new GlyphLayout();
+        legTimeLayouts = new ArrayList<>();
+    }
 
-        // Create the collision tree and add all objects to it
-        collisionTree = new CollisionTree(raceWidth, raceHeight, cTreeX, cTreeY);
-        for (CollisionObject obj : laneObjects) {
-            // Assume obj is a GameObject
-            GameObject go = (GameObject) obj;
-            float goX = go.getSprite().getX();
-            float goY = go.getSprite().getY();
-            collisionTree.add(goX, goY, obj);
+    /**
+     * Carry on a race written by {@link #writeState(ByteBuffer)}, with its course generated again from the pools
+     *
+     * @param boats  List of Boat The boats in the race, in the same order as when it was written
+     * @param player The player's boat, which must be one of the boats
+     * @param pools  The pools to take the course's obstacles and power-ups from
+     * @param in     The buffer to read the race from
+     * @return The race, as it was when it was written
+     * @throws IllegalArgumentException If the state doesn't describe a race with these boats
+     */
+    static BoatRace restore(List<Boat> boats, PlayerBoat player, LaneObjectPools pools, ByteBuffer in) {
+        BoatRace race = new BoatRace(boats, player, RaceCourse.restore(pools, in), pools);
+        try {
+            race.readState(in);
+        } catch (RuntimeException e) {
+            race.free();
+            throw e;
         }
-
-        // Initialise colour of Time Elapsed Overlay
-        font = new BitmapFont();
-        font.setColor(Color.RED);
+        return race;
     }
 
-    private float getLaneCentre(int index) {
+    static float getLaneCentre(int index) {
         return LANE_WIDTH * (index) + LANE_WIDTH + 0.5f;
     }
 
+    /**
+     * Advance the race by one tick of the simulation, ending it early if the player's boat breaks
+     * <p>
+     * Once the player has finished, the boats still racing are given estimated times rather than being simulated.
+     * The player's controls must be latched before each tick. What each boat hits is recorded for the tick, and
+     * every boat is recorded to the race's telemetry at the end of it.
+     *
+     * @return True if the player's boat broke this tick
+     */
+    boolean runTick() {
+        if (player.hasFinishedLeg()) {
+            // Generate times for boats rather than simulating the race properly
+            generateTimesForUnfinishedBoats();
+            return false;
+        }
+        for (int i = 0; i < boats.size(); i++) {
+            boats.get(i).clearTickEvents();
+        }
+        runStep(RaceSimulation.TICK);
+        if (telemetry != null) telemetry.record(boats);
+        // If the player runs out of health, end the race early
+        // Use an epsilon value to account for FP errors
+        if (player.getDurability() < 0.01f) {
+            generateTimesForUnfinishedBoats();
+            // An endless race is only ever ended this way, so the player keeps the time they lasted
+            if (!course.isEndless()) {
+                player.getLegTimes().set(player.getLegTimes().size() - 1, (int) (MAX_RACE_TIME * 1000.0f));
+            }
+            return true;
+        }
+        return false;
+    }
+
     /** Helper function updates the collision tree **/
     private void updateCollisionTree() {
         // Create a collision tree from all the lane objects
@@ -153,16 +239,23 @@ public class BoatRace {
             // Remove the object then add it back
             collisionTree.remove(goX, goY, obj);
             collisionTree.add(goX, goY, obj);
+            renderQueue.remove(obj);
+            renderQueue.add(goY, goY + go.getSprite().getHeight(), obj);
+        }
+        if (!laneObjectsUpdated.isEmpty()) {
+            renderQueue.sort();
         }
         laneObjectsUpdated.clear();
     }
 
     /** Helper function updates lane objects **/
     private void updateLaneObjects(float deltaTime) {
-        for (Iterator<CollisionObject> iter = laneObjects.iterator(); iter.hasNext(); ) {
-            CollisionObject obj = iter.next();
+        // Indexed rather than iterated to avoid allocating an iterator every frame
+        for (int i = laneObjects.size() - 1; i >= 0; --i) {
+            CollisionObject obj = laneObjects.get(i);
             if (!obj.isShown()) {
-                iter.remove();
+                laneObjects.remove(i);
+                renderQueue.remove(obj);
             }
             else {
                 MovableObject go = (MovableObject) obj;
@@ -188,10 +281,10 @@ public class BoatRace {
      * @author Umer Fakher
      */
     public void runStep(float deltaTime) {
-        totalTime += deltaTime;
+        clock.advance(deltaTime);
 
-        // dnf after 5 minutes
-        if (totalTime > MAX_RACE_TIME) {
+        // dnf after 5 minutes, unless the race is endless
+        if (!course.isEndless() && clock.getTime() > MAX_RACE_TIME) {
             isFinished = true;
             for (Boat b : boats) {
                 if (!b.hasFinishedLeg()) {
@@ -202,12 +295,31 @@ public class BoatRace {
             return;
         }
 
-        updateLaneObjects(deltaTime);
-        updateCollisionTree();
+        // Find how far the course is needed either side of the boats still racing
+        float trailingY = Float.MAX_VALUE;
+        float leadingY = -Float.MAX_VALUE;
+        for (int i = 0; i < boats.size(); ++i) {
+            if (isRetired(boats.get(i))) continue;
+            float y = boats.get(i).getSprite().getY();
+            trailingY = Math.min(trailingY, y);
+            leadingY = Math.max(leadingY, y);
+        }
+
+        synchronized (laneObjectLock) {
+            updateLaneObjects(deltaTime);
+            updateCollisionTree();
+            course.update(trailingY, leadingY);
+        }
 
         for (Boat boat : boats) {
-            // check if any boats have finished
-            if (!boat.hasFinishedLeg() && boat.getSprite().getY() > END_Y) {
+            // boats far from the player retire from endless races, keeping the time they've raced
+            if (course.isEndless() && boat != player && !boat.hasFinishedLeg()
+                    && Math.abs(boat.getSprite().getY() - player.getSprite().getY()) > RETIRE_DISTANCE) {
+                boat.setLegTime();
+                boat.setHasFinishedLeg(true);
+            }
+            // check if any boats have finished, which they never do in an endless race
+            else if (!course.isEndless() && !boat.hasFinishedLeg() && boat.getSprite().getY() > END_Y) {
                 // store the leg time in the object
                 boat.setLegTime();
 
@@ -225,19 +337,28 @@ public class BoatRace {
         int i = 0;
 
         for (Boat b : boats) {
+            // retired boats are left where they are
+            if (isRetired(b)) {
+                ++i;
+                continue;
+            }
+
             // all boats
             if (!b.hasFinishedLeg()) notFinished = true;
 
-            // update boat (handles inputs if player, etc)
+            // update boat (handles inputs if player, etc). Drawing never reads lane objects' sprites as they're
+            // moved by the clock, so AI rays don't need lane objects locked
             if (b instanceof AIBoat) {
                 ((AIBoat) b).updatePosition(deltaTime, collisionTree);
             } else if (b instanceof PlayerBoat) {
                 b.update(deltaTime);
             }
 
-            // check for collisions
-            for (CollisionObject obstacle : collisionTree.get(b.getSprite().getX(), b.getSprite().getY())) {
-                boats.get(i).checkCollisions(obstacle);
+            // check for collisions, which can hide objects or change how they look while they're being drawn
+            synchronized (laneObjectLock) {
+                for (CollisionObject obstacle : collisionTree.get(b.getSprite().getX(), b.getSprite().getY())) {
+                    boats.get(i).checkCollisions(obstacle);
+                }
             }
 
             // check if out of lane
@@ -248,6 +369,51 @@ public class BoatRace {
             ++i;
         }
         isFinished = !notFinished;
+
+        // keep an endless race near the origin, so positions stay precise
+        if (course.isEndless() && player.getSprite().getY() > REBASE_HEIGHT) {
+            rebase();
+        }
+    }
+
+    /** Gets whether a boat has retired from an endless race **/
+    private boolean isRetired(Boat boat) {
+        return course.isEndless() && boat != player && boat.hasFinishedLeg();
+    }
+
+    /** Helper function moves the boats, the player's camera and the course down together by the rebase distance **/
+    private void rebase() {
+        for (Boat boat : boats) {
+            boat.getSprite().translateY(-REBASE_DISTANCE);
+        }
+        player.translateCamera(0.0f, -REBASE_DISTANCE);
+        synchronized (laneObjectLock) {
+            course.rebase(REBASE_DISTANCE);
+        }
+    }
+
+    /**
+     * Get how far a boat has travelled from the start line, including any distance the origin has been moved
+     *
+     * @param boat The boat, which must be in the race
+     * @return The distance in world units
+     */
+    double getDistanceTravelled(Boat boat) {
+        return course.getOriginY() + (double) boat.getSprite().getY() - START_Y;
+    }
+
+    /**
+     * Get whether the race goes on until the player's boat breaks, rather than to a finish line
+     **/
+    boolean isEndless() {
+        return course.isEndless();
+    }
+
+    /**
+     * Get the number of boats in the race
+     **/
+    int getBoatCount() {
+        return boats.size();
     }
 
     public boolean isFinished() {
@@ -255,30 +421,106 @@ public class BoatRace {
     }
 
     /**
-     * Returns a list of all sprites in the PixelBoat game including boats and obstacles.
+     * Race against a ghost of an earlier run, drawn as a faded copy of the player's boat
+     * <p>
+     * The ghost isn't one of the race's boats, so it's never simulated or collided with. Must be called by the thread
+     * drawing the race, with the player's spec already set.
+     *
+     * @param ghost The run to race against, or null for none
+     */
+    void setGhost(GhostTrack ghost) {
+        this.ghost = ghost;
+        if (ghost != null) {
+            ghostSprite = new Sprite(player.getSprite());
+            ghostSprite.setRegion(player.getAnimationRegion(0));
+            ghostSprite.setAlpha(0.5f);
+        }
+    }
+
+    /**
+     * Record every boat at the end of every tick from now on
+     * <p>
+     * Must only be called while the race isn't being simulated.
      *
-     * @return List of Sprites A list of all sprites in the PixelBoat game.
-     * @author William Walton
-     * @author Umer Fakher
+     * @param telemetry The recorder, or null to stop recording
      */
-    public List<Sprite> getSprites() {
-        List<Sprite> sprites = new ArrayList<>();
-
-        for (CollisionObject obs : laneObjects) {
-            // All collision objects are game objects (so far)
-            if (obs.isShown()) {
-                GameObject go = (GameObject) obs;
-                sprites.add(go.getSprite());
-            }
+    void setTelemetry(RaceTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Capture the state of the race needed to draw it
+     *
+     * @param snapshot The snapshot to capture into
+     */
+    void capture(RaceSnapshot snapshot) {
+        snapshot.capture(boats, player);
+        snapshot.originY = course.getOriginY();
+        snapshot.clockTime = clock.getTime();
+    }
+
+    /**
+     * Get the number of bytes {@link #writeState(ByteBuffer)} needs at most
+     **/
+    int getStateSize() {
+        int size = course.getStateSize() + 8 + 1 + 10;
+        for (Boat boat : boats) {
+            size += boat.getStateSize();
         }
+        return size;
+    }
 
-        for (Boat b : boats) {
-            sprites.add(b.getSprite());
+    /**
+     * Write everything needed to carry on the race with {@link #restore(List, PlayerBoat, LaneObjectPools, ByteBuffer)}
+     * <p>
+     * Must only be called while the race isn't being simulated.
+     *
+     * @param out The buffer to write to, which must have {@link #getStateSize()} bytes remaining
+     */
+    void writeState(ByteBuffer out) {
+        course.writeState(out);
+        out.putDouble(clock.getPreciseTime());
+        out.put((byte) (isFinished ? 1 : 0));
+        VarInts.putUnsigned(out, boats.size());
+        for (Boat boat : boats) {
+            boat.writeState(out);
+        }
+    }
+
+    /** Helper function reads the state after the course, once the constructor has reset the clock and boats **/
+    private void readState(ByteBuffer in) {
+        clock.setTime(in.getDouble());
+        isFinished = in.get() != 0;
+        if (VarInts.getCount(in, boats.size()) != boats.size())
+            throw new IllegalArgumentException("The race had a different number of boats");
+        for (Boat boat : boats) {
+            boat.readState(in);
         }
+    }
 
-        sprites.addAll(player.getUISprites());
+    /**
+     * Returns every obstacle and power-up in the race to the pools it came from, and releases its scenery.
+     * <p>
+     * Should be called once the race is no longer needed, after which it must not be used.
+     */
+    public void free() {
+        laneObjectsUpdated.clear();
+        course.free();
+        scenery.dispose();
+
+        final TextureRegistry textures = TextureRegistry.getInstance();
+        textures.release(START_BANNER_PATH);
+        textures.release(BLEACHERS_LEFT_PATH);
+        textures.release(BLEACHERS_RIGHT_PATH);
+        textures.release(FINISH_LINE_PATH);
+    }
 
-        return sprites;
+    /** Helper function sets the view bounds to the area of the course the player's camera can see **/
+    private void updateViewBounds() {
+        OrthographicCamera camera = player.getCamera();
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        viewBounds.set(camera.position.x - width * 0.5f, camera.position.y - height * 0.5f, width, height);
     }
 
     /**
@@ -286,82 +528,117 @@ public class BoatRace {
      * <p>
      * The displayed time is updated in real-time and the position is consistent with the player hud (i.e. stamina
      * and durability bar positions).
+     * <p>
+     * Must be called between batch.begin() and batch.end(), but ends and restarts the batch to draw the scenery.
+     * Boats and the player's HUD are drawn as they are in the snapshot, so the race can be simulated meanwhile.
      *
      * @param batch The sprite batch to draw to
+     * @param state A snapshot of the race to draw
      * @author Umer Fakher
      */
-    public void draw(SpriteBatch batch) {
+    void draw(SpriteBatch batch, RaceSnapshot state) {
 
-        // Retrieves sprites and calls function recursively.
-        for (Sprite sp : getSprites())
-            sp.draw(batch);
+        updateViewBounds();
 
-        if (player.hasStartedLeg()) {
-            //Calculate time elapsed from the start in milliseconds
-            long i = player.getCurrentRaceTime();
-
-            //Displays and updates the time elapsed overlay and keeps position consistent with player's boat
-            drawTimeDisplay(batch, "", i, -player.getUiBarWidth() * 0.5f,
-                    500 + player.getSprite().getY());
+        // Lane walls are baked into the scenery beneath everything else on the water
+        batch.end();
+        scenery.draw(batch.getProjectionMatrix(), viewBounds, SceneryCache.UNDERLAY);
+        batch.begin();
 
-            //Draws a leg time display on the screen when the given boat has completed a leg of the race.
-            drawLegTimeDisplay(batch, player);
+        // Lane objects in view, then boats on top
+        synchronized (laneObjectLock) {
+            renderQueue.draw(batch, viewBounds, state.clockTime);
         }
-
-        Texture temp = new Texture("object_placeholder.png");
-
-        for (int i = -1000; i < END_Y + 1000; i += 800) {
-            batch.draw(bleachersRight, raceWidth + LANE_WIDTH, i, 400, 800);
+        for (int i = 0; i < state.boatCount; i++) {
+            Sprite sprite = boatSprites.get(i);
+            sprite.setRegion(boats.get(i).getAnimationRegion(state.frame[i]));
+            sprite.setPosition(state.x[i], state.y[i]);
+            sprite.setRotation(state.rotation[i]);
+            sprite.draw(batch);
         }
-        for (int i = -1000; i < END_Y + 1000; i += 800) {
-            batch.draw(bleachersLeft, -LANE_WIDTH , i, 400, 800);
+        // The ghost is looked up from the samples near the time drawn, reading on from where it last was
+        if (ghost != null && ghost.seek(state.clockTime)) {
+            ghostSprite.setPosition(ghost.getX(), ghost.getY());
+            ghostSprite.setRotation(ghost.getRotation());
+            ghostSprite.draw(batch);
         }
-        for (int i = 0; i < boats.size(); i++) {
-            batch.draw(startBanner, (getLaneCentre(i)) - (LANE_WIDTH * 0.5f), START_Y, LANE_WIDTH, LANE_WIDTH * 0.5f);
+
+        // Bleachers, start banners and the finish line go over the boats
+        batch.end();
+        scenery.draw(batch.getProjectionMatrix(), viewBounds, SceneryCache.OVERLAY);
+        batch.begin();
+        // An endless race's start banners aren't baked, as they'd repeat once the origin has moved
+        if (course.isEndless() && state.originY == 0) {
+            for (int i = 0; i < state.boatCount; i++) {
+                batch.draw(startBanner, getLaneCentre(i) - (LANE_WIDTH * 0.5f), START_Y, LANE_WIDTH, LANE_WIDTH * 0.5f);
+            }
+        }
+
+        List<Sprite> uiSprites = player.getUISprites(state);
+        for (int i = 0; i < uiSprites.size(); i++) {
+            uiSprites.get(i).draw(batch);
         }
-        batch.draw(temp, 0.0f, END_Y, raceWidth, 5);
 
-        temp.dispose();
+        if (state.hasStartedLeg) {
+            // Set the colour of the Time Elapsed Overlay, as the font is shared
+            font.setColor(Color.RED);
+
+            //Calculate time elapsed from the start in milliseconds
+            long i = state.raceTime;
+
+            //Displays and updates the time elapsed overlay and keeps position consistent with player's boat
+            drawTimeDisplay(batch, i, -player.getUiBarWidth() * 0.5f,
+                    500 + state.y[state.playerIndex]);
+
+            //Draws a leg time display on the screen when the player has completed a leg of the race.
+            drawLegTimeDisplay(batch, state);
+        }
     }
 
     /**
      * Draws the a time display on the screen.
+     * <p>
+     * The text is only laid out again when the whole seconds shown change.
      *
      * @param batch SpriteBatch instance
-     * @param text  label for text. If "" empty string passed in then default time display shown.
      * @param time  time to be shown in milliseconds
      * @param x     horizontal position of display
      * @param y     vertical position of display
      * @author Umer Fakher
      */
-    public void drawTimeDisplay(SpriteBatch batch, String text, long time, float x, float y) {
-        if (text.equals("")) {
-            text = "Time (min:sec) = %02d:%02d";
+    public void drawTimeDisplay(SpriteBatch batch, long time, float x, float y) {
+        long seconds = time / 1000;
+        if (seconds != timeShown) {
+            timeShown = seconds;
+            timeText.setLength(0);
+            TextFormat.appendMinutesSeconds(timeText.append("Time (min:sec) = "), time);
+            timeLayout.setText(font, timeText);
         }
-        font.draw(batch, String.format(text, time / 60000, time / 1000 % 60), x, y);
+        font.draw(batch, timeLayout, x, y);
     }
 
     /**
-     * Draws a leg time display on the screen when the given boat has completed a leg of the race.
+     * Draws a leg time display on the screen when the player has completed a leg of the race.
      * <p>
-     * This function gets the leg times list for the given boat instance, gets the last updated leg time
-     * and formats a leg time display string which shows which leg was completed and in what time.
-     * The function then passes on the drawing of this formatted leg time display to drawTimeDisplay.
+     * This function gets the player's leg times from the snapshot and draws a display for each leg
+     * which shows which leg was completed and in what time. Legs are only laid out the first time they're drawn.
      *
      * @param batch SpriteBatch instance
-     * @param b     Boat instance
+     * @param state The snapshot being drawn
      * @author Umer Fakher
      */
-    public void drawLegTimeDisplay(SpriteBatch batch, Boat b) {
-        if (b.getCurrentRaceTime() != 0) {
-            for (int l : b.getLegTimes()) {
-                String label = String.format("Leg Time %d (min:sec) = ", b.getLegTimes().indexOf(l) + 1) + "%02d:%02d";
-                drawTimeDisplay(
-                        batch, label, l, -((PlayerBoat) b).getUiBarWidth() * 0.5f,
-                        500 - ((b.getLegTimes().indexOf(l) + 1) * 20) + b.getSprite().getY()
-                );
+    void drawLegTimeDisplay(SpriteBatch batch, RaceSnapshot state) {
+        if (state.raceTime != 0) {
+            for (int leg = 0; leg < state.legCount; ++leg) {
+                if (leg == legTimeLayouts.size()) {
+                    timeText.setLength(0);
+                    timeText.append("Leg Time ").append(leg + 1).append(" (min:sec) = ");
+                    TextFormat.appendMinutesSeconds(timeText, state.legTimes[leg]);
+                    legTimeLayouts.add(new GlyphLayout(font, timeText));
+                }
+                font.draw(batch, legTimeLayouts.get(leg), -player.getUiBarWidth() * 0.5f,
+                        500 - ((leg + 1) * 20) + state.y[state.playerIndex]);
             }
-
         }
     }
 
@@ -375,13 +652,18 @@ public class BoatRace {
             if (!b.hasFinishedLeg()) {
                 // Set the boat as finished
                 b.setHasFinishedLeg(true);
+                // There's no distance left in an endless race, so boats keep the time they've raced
+                if (course.isEndless()) {
+                    b.setLegTime();
+                    continue;
+                }
                 // Calculate the distance to the end of the race
                 float boatY = b.getSprite().getY();
                 float distanceRemaining = END_Y - boatY;
                 // Generate a leg time based on the player's time and the target speed
                 int cT = b.getCurrentRaceTime();
                 float timeRemaining = distanceRemaining * BOAT_TIME_ESTIMATION_BIAS / Difficulty.getInstance().getBoatTargetSpeed();
-                float randomBiasedTimeRemaining = timeRemaining * (1.0f + ThreadLocalRandom.current().nextFloat() * 0.1f);
+                float randomBiasedTimeRemaining = timeRemaining * (1.0f + (float) random.nextDouble() * 0.1f);
                 b.setLegTime(
                        cT + (int) randomBiasedTimeRemaining
                 );
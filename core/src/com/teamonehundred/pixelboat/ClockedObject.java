@@ -0,0 +1,25 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.graphics.g2d.Sprite;
+
+/**
+ * Represents an object whose position is a function of the race clock rather than being integrated every frame.
+ */
+public interface ClockedObject {
+    /**
+     * Get the motion the object follows
+     *
+     * @return The object's motion
+     */
+    ConstantMotion getMotion();
+
+    /**
+     * Copy the object's sprite, moved to where the object is at a given race time, without moving the object
+     * <p>
+     * Lets the object be drawn at a different time to the one it's being simulated at, from another thread.
+     *
+     * @param time The race time, in seconds
+     * @param out  The sprite to copy into
+     */
+    void getSpriteAt(float time, Sprite out);
+}
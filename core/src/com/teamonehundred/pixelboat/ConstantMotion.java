@@ -0,0 +1,163 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Represents the motion of an object moving at a constant speed while turning at a constant rate.
+ * <p>
+ * A turn rate of zero gives a straight line and anything else gives a circle, so the position can be
+ * evaluated directly for any time rather than integrated frame by frame. Rotation follows the same
+ * convention as {@link MovableObject}: 0 degrees faces up and positive angles turn anticlockwise.
+ * <p>
+ * Times are race times, and the motion begins at its start time, which is the start of the race unless it's set.
+ */
+public class ConstantMotion {
+
+    private final float speed;
+    private final float turnRate;
+
+    private float startX;
+    private float startY;
+    private float startRotation;
+    private float startTime = 0.0f;
+
+    /**
+     * Construct a new motion, starting at the origin facing up
+     *
+     * @param speed    The speed of the object in units per second
+     * @param turnRate The rate the object turns at in degrees per second
+     */
+    public ConstantMotion(float speed, float turnRate) {
+        this.speed = speed;
+        this.turnRate = turnRate;
+    }
+
+    /**
+     * Set the state of the object at time zero
+     *
+     * @param x        The x position of the object
+     * @param y        The y position of the object
+     * @param rotation The rotation of the object in degrees
+     */
+    public void setStart(float x, float y, float rotation) {
+        startX = x;
+        startY = y;
+        startRotation = rotation;
+    }
+
+    /**
+     * Set the race time the motion begins at, when the object is at its start position
+     *
+     * @param time The start time, in seconds
+     */
+    public void setStartTime(float time) {
+        startTime = time;
+    }
+
+    /**
+     * Get the race time the motion begins at
+     **/
+    public float getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get the x position of the object at the start time
+     **/
+    public float getStartX() {
+        return startX;
+    }
+
+    /**
+     * Get the y position of the object at the start time
+     **/
+    public float getStartY() {
+        return startY;
+    }
+
+    /**
+     * Get the rotation of the object at the start time
+     **/
+    public float getStartRotation() {
+        return startRotation;
+    }
+
+    /**
+     * Get the rotation of the object at a given time
+     *
+     * @param time The race time, in seconds
+     * @return The rotation in degrees
+     */
+    public float getRotation(float time) {
+        return startRotation + turnRate * (time - startTime);
+    }
+
+    /**
+     * Get the x position of the object at a given time
+     *
+     * @param time The race time, in seconds
+     * @return The x position
+     */
+    public float getX(float time) {
+        double theta0 = Math.toRadians(startRotation);
+        if (turnRate == 0.0f)
+            return startX - (float) (Math.sin(theta0) * speed * (time - startTime));
+        double theta = Math.toRadians(getRotation(time));
+        return startX + (float) (getRadius() * (Math.cos(theta) - Math.cos(theta0)));
+    }
+
+    /**
+     * Get the y position of the object at a given time
+     *
+     * @param time The race time, in seconds
+     * @return The y position
+     */
+    public float getY(float time) {
+        double theta0 = Math.toRadians(startRotation);
+        if (turnRate == 0.0f)
+            return startY + (float) (Math.cos(theta0) * speed * (time - startTime));
+        double theta = Math.toRadians(getRotation(time));
+        return startY + (float) (getRadius() * (Math.sin(theta) - Math.sin(theta0)));
+    }
+
+    /**
+     * Moves and rotates a sprite to where the object is at a given time
+     *
+     * @param sprite The sprite to update
+     * @param time   The race time, in seconds
+     */
+    public void apply(Sprite sprite, float time) {
+        sprite.setPosition(getX(time), getY(time));
+        sprite.setRotation(getRotation(time));
+    }
+
+    /**
+     * Get a rectangle containing every position the object passes through in a given time from its start time
+     *
+     * @param duration The length of time to cover, in seconds
+     * @return A rectangle in world coordinates
+     */
+    public Rectangle getSweptBounds(float duration) {
+        if (turnRate == 0.0f) {
+            float endX = getX(startTime + duration);
+            float endY = getY(startTime + duration);
+            return new Rectangle(
+                    Math.min(startX, endX), Math.min(startY, endY),
+                    Math.abs(endX - startX), Math.abs(endY - startY));
+        }
+        // Use the bounds of the whole circle, which is never smaller than the arc
+        double theta0 = Math.toRadians(startRotation);
+        float radius = (float) Math.abs(getRadius());
+        float centreX = startX - (float) (getRadius() * Math.cos(theta0));
+        float centreY = startY - (float) (getRadius() * Math.sin(theta0));
+        return new Rectangle(centreX - radius, centreY - radius, radius * 2.0f, radius * 2.0f);
+    }
+
+    /**
+     * Get the signed radius of the circle travelled along
+     **/
+    private double getRadius() {
+        return speed / Math.toRadians(turnRate);
+    }
+}
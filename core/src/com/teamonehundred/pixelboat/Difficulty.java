@@ -11,6 +11,8 @@ public class Difficulty {
     private static final float[] LEG_OBSTACLE_MODIFIER = { 1.1892f, 1.3161f, 1.4142f };
     private static Difficulty instance;
     private DifficultyLevel difficultyLevel;
+    // Whether races go on until the player's boat breaks, rather than being legs to a finish line
+    private boolean endless = false;
 
     /* Singleton pattern */
     // Set to private so difficulty can only be obtained as a singleton instance
@@ -87,6 +89,20 @@ public class Difficulty {
         this.difficultyLevel = difficultyLevel;
     }
 
+    /**
+     * Gets whether new games are endless races
+     **/
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Set whether new games are endless races, which only go on until the player's boat breaks
+     **/
+    public void setEndless(boolean endless) {
+        this.endless = endless;
+    }
+
     /**
      * Get the difficulty level as a string
      **/
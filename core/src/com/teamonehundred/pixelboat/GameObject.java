@@ -4,6 +4,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
 
 /**
  * Represents a game object.
@@ -25,9 +26,13 @@ public abstract class GameObject {
     // width, height, x, y, and rotation are stored in sprite
 
     /**
-     * Stores the image rendered when the object is shown.
+     * Stores the image rendered when the object is shown, usually a region of the packed sprite atlas.
      */
-    private final Texture texture;
+    private final TextureRegion region;
+    /**
+     * The path the region was acquired from the texture registry with, or null if a texture was given directly
+     */
+    private final String texturePath;
     /**
      * Stores the texture of the object and positional information (x and y coordinates, width and height, rotation)
      */
@@ -36,6 +41,10 @@ public abstract class GameObject {
      * The array of frames used for animations, stored as TextureRegion s
      */
     protected TextureRegion[] animationRegions;
+    /**
+     * The index of the animation frame currently shown
+     */
+    private int animationFrame = 0;
 
     // set to null if not animated
     /**
@@ -57,12 +66,13 @@ public abstract class GameObject {
      * @param texturePath String of object's file path
      */
     public GameObject(float x, float y, int w, int h, final String texturePath) {
-        texture = new Texture(texturePath);
+        region = TextureRegistry.getInstance().acquireRegion(texturePath);
+        this.texturePath = texturePath;
         isShown = true;
 
         animationRegions = null;
 
-        sprite = new Sprite(texture);
+        sprite = new Sprite(region);
         sprite.setPosition(x, y);
         sprite.setSize(w, h);
         sprite.setOriginCenter();
@@ -81,14 +91,11 @@ public abstract class GameObject {
      * @param frameCount  int frame count
      */
     public GameObject(float x, float y, int w, int h, final String texturePath, int frameCount) {
-        texture = new Texture(texturePath);
+        region = TextureRegistry.getInstance().acquireRegion(texturePath);
+        this.texturePath = texturePath;
         isShown = true;
 
-        animationRegions = new TextureRegion[frameCount];
-        float textureWidth = 1f / (frameCount);
-        for (int i = 0; i < frameCount; i++) {
-            animationRegions[i] = new TextureRegion(texture, i * textureWidth, 0f, (i + 1) * textureWidth, 1f);
-        }
+        animationRegions = splitFrames(region, frameCount);
 
         sprite = new Sprite(animationRegions[0]);
         sprite.setPosition(x, y);
@@ -103,18 +110,15 @@ public abstract class GameObject {
      * @param y          int for vertical position of object
      * @param w          int for width of object
      * @param h          int for height of object
-     * @param texture    Direct Texture
+     * @param texture    Direct Texture, which remains owned by the caller
      * @param frameCount int frame count
      */
     public GameObject(float x, float y, int w, int h, Texture texture, int frameCount) {
-        this.texture = texture;
+        this.region = new TextureRegion(texture);
+        this.texturePath = null;
         isShown = true;
 
-        animationRegions = new TextureRegion[frameCount];
-        float textureWidth = 1f / (frameCount);
-        for (int i = 0; i < frameCount; i++) {
-            animationRegions[i] = new TextureRegion(texture, i * textureWidth, 0f, (i + 1) * textureWidth, 1f);
-        }
+        animationRegions = splitFrames(region, frameCount);
 
         sprite = new Sprite(animationRegions[0]);
         sprite.setPosition(x, y);
@@ -123,16 +127,33 @@ public abstract class GameObject {
     }
 
     /**
-     * Destructor disposes of this texture once it is no longer referenced.
+     * Destructor releases this object's use of a registry texture once it is no longer referenced.
      */
     protected void finalize() {
-        texture.dispose();
+        if (texturePath != null)
+            TextureRegistry.getInstance().release(texturePath);
     }
 
     /* ################################### //
                     METHODS
     // ################################### */
 
+    /**
+     * Splits a horizontal strip of animation frames into one region per frame.
+     *
+     * @param strip      TextureRegion containing the frames side by side
+     * @param frameCount int frame count
+     * @return TextureRegion array of frames
+     */
+    private static TextureRegion[] splitFrames(TextureRegion strip, int frameCount) {
+        TextureRegion[] frames = new TextureRegion[frameCount];
+        int frameWidth = strip.getRegionWidth() / frameCount;
+        for (int i = 0; i < frameCount; i++) {
+            frames[i] = new TextureRegion(strip, i * frameWidth, 0, frameWidth, strip.getRegionHeight());
+        }
+        return frames;
+    }
+
     /**
      * Returns true if GameObject should be shown otherwise false.
      *
@@ -160,6 +181,39 @@ public abstract class GameObject {
         return sprite;
     }
 
+    /**
+     * Gets the layer the object is drawn on, where lower layers are drawn first.
+     *
+     * @return int layer
+     */
+    public int getRenderLayer() {
+        return 1;
+    }
+
+    /**
+     * Returns true if the object currently looks exactly as it was baked into the static scenery, so doesn't need
+     * drawing itself.
+     *
+     * @return boolean
+     */
+    public boolean isStaticScenery() {
+        return false;
+    }
+
+    /**
+     * Moves the object to a new position and rotation.
+     * <p>
+     * Used when an object is reused rather than being reconstructed.
+     *
+     * @param x        float for horizontal position of object
+     * @param y        float for vertical position of object
+     * @param rotation float for rotation of object in degrees
+     */
+    public void setTransform(float x, float y, float rotation) {
+        sprite.setPosition(x, y);
+        sprite.setRotation(rotation);
+    }
+
     /**
      * Returns a new collision bounds object for the GameObject.
      * <p>
@@ -185,7 +239,29 @@ public abstract class GameObject {
      * @param i int
      */
     public void setAnimationFrame(int i) {
-        if (animationRegions != null)
-            sprite.setRegion(animationRegions[i % animationRegions.length]);
+        if (animationRegions != null) {
+            animationFrame = i % animationRegions.length;
+            sprite.setRegion(animationRegions[animationFrame]);
+        }
+    }
+
+    /**
+     * Gets the index of the animation frame currently shown, which is 0 if the object isn't animated.
+     *
+     * @return int frame index
+     */
+    public int getAnimationFrame() {
+        return animationFrame;
+    }
+
+    /**
+     * Gets the image shown for an animation frame, or the whole image if the object isn't animated.
+     *
+     * @param i int frame index
+     * @return TextureRegion of the frame
+     */
+    public TextureRegion getAnimationRegion(int i) {
+        if (animationRegions == null) return region;
+        return animationRegions[i % animationRegions.length];
     }
 }
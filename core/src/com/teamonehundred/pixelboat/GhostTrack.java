@@ -0,0 +1,255 @@
+package com.teamonehundred.pixelboat;
+
+import com.teamonehundred.pixelboat.util.VarInts;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/*
+ * Ghost File Structure (version 1):
+ * Framed the same way as a save, with the magic "PBGH" and its own version
+ *
+ * Payload: ticks between samples, the run's finish time in milliseconds and the number of samples (varints),
+ *          then each sample's x, y and rotation, quantized to whole steps and written as the signed difference
+ *          from the sample before (varints), starting from 0
+ */
+
+/**
+ * The path of the player's boat through a leg, sampled at a fixed rate, so it can be raced against as a ghost
+ * <p>
+ * Positions are quantized to a quarter of a unit and rotations to an eighth of a degree, then each sample is written
+ * as the difference from the last, so most take a few bytes. The samples are read in order as the race goes on,
+ * only ever holding the two either side of the time being drawn, so a track can be read straight from a memory
+ * mapped file without copying it onto the heap.
+ * <p>
+ * A track is read by the thread drawing the race, and recorded by the thread simulating it.
+ */
+public class GhostTrack {
+
+    /**
+     * The first 4 bytes of a ghost, "PBGH"
+     */
+    public static final int MAGIC = 0x50424748;
+    /**
+     * The version of the format ghosts are written in
+     */
+    public static final int FORMAT_VERSION = 1;
+    /**
+     * The number of ticks between samples
+     */
+    public static final int SAMPLE_TICKS = 6;
+
+    private static final float POSITION_STEPS = 4.0f;
+    private static final float ROTATION_STEPS = 8.0f;
+    private static final int FULL_TURN = (int) (360 * ROTATION_STEPS);
+    private static final float SAMPLE_PERIOD = SAMPLE_TICKS * RaceSimulation.TICK;
+
+    private final int finishTime;
+    private final int sampleCount;
+    // The samples, which are only ever read forwards from the position of the cursor
+    private final ByteBuffer samples;
+    private final ByteBuffer cursor;
+    // The index of the later of the two samples decoded, and both samples in quantized steps
+    private int toIndex = -1;
+    private int fromX, fromY, fromRotation;
+    private int toX, toY, toRotation;
+    // Where the ghost is at the time last looked up
+    private float x, y, rotation;
+
+    /** Construct a track over a buffer of samples **/
+    private GhostTrack(int finishTime, int sampleCount, ByteBuffer samples) {
+        this.finishTime = finishTime;
+        this.sampleCount = sampleCount;
+        this.samples = samples;
+        cursor = samples.duplicate();
+    }
+
+    /**
+     * Open a track from the payload of a ghost file, without copying its samples
+     *
+     * @param payload The payload, which may be a memory mapped file
+     * @return The track
+     * @throws IOException If the payload isn't a valid track
+     */
+    public static GhostTrack open(ByteBuffer payload) throws IOException {
+        try {
+            if (VarInts.getUnsigned(payload) != SAMPLE_TICKS)
+                throw new IOException("Ghost was sampled at a different rate");
+            int finishTime = VarInts.getCount(payload, Integer.MAX_VALUE);
+            // Every sample takes at least three bytes
+            int sampleCount = VarInts.getCount(payload, payload.remaining() / 3);
+            if (sampleCount == 0) throw new IOException("Ghost has no samples");
+            return new GhostTrack(finishTime, sampleCount, payload.slice());
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Ghost is corrupt", e);
+        }
+    }
+
+    /**
+     * Find where the ghost is at a time in the race, ready to be read from {@link #getX()}, {@link #getY()} and
+     * {@link #getRotation()}
+     * <p>
+     * Going forwards only decodes the samples passed since the last time, and doesn't allocate.
+     *
+     * @param time The time since the start of the race, in seconds
+     * @return True if the ghost is still racing at that time, or false once its samples have run out
+     */
+    public boolean seek(float time) {
+        float position = Math.max(0.0f, time / SAMPLE_PERIOD);
+        int index = (int) position;
+        if (index + 1 >= sampleCount) return false;
+
+        // Going backwards starts again from the first sample
+        if (index + 1 < toIndex) rewind();
+        try {
+            while (toIndex < index + 1) {
+                step();
+            }
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // A track that was valid when opened can only fail here if its file changed, so the ghost just stops
+            return false;
+        }
+
+        float alpha = position - index;
+        x = (fromX + (toX - fromX) * alpha) / POSITION_STEPS;
+        y = (fromY + (toY - fromY) * alpha) / POSITION_STEPS;
+        // Turn the short way round, so going from 359 to 1 degree doesn't spin the ghost backwards
+        int turn = Math.floorMod(toRotation - fromRotation + FULL_TURN / 2, FULL_TURN) - FULL_TURN / 2;
+        rotation = (fromRotation + turn * alpha) / ROTATION_STEPS;
+        return true;
+    }
+
+    /** Decodes the next sample, making the later sample the earlier one **/
+    private void step() {
+        fromX = toX;
+        fromY = toY;
+        fromRotation = toRotation;
+        toX += (int) VarInts.getSigned(cursor);
+        toY += (int) VarInts.getSigned(cursor);
+        toRotation += (int) VarInts.getSigned(cursor);
+        if (toIndex < 0) {
+            // The first sample is both ends, so there's something to blend from
+            fromX = toX;
+            fromY = toY;
+            fromRotation = toRotation;
+        }
+        ++toIndex;
+    }
+
+    /** Goes back to before the first sample **/
+    private void rewind() {
+        cursor.position(samples.position());
+        toIndex = -1;
+        toX = toY = toRotation = 0;
+    }
+
+    /**
+     * Get the x position of the ghost at the time last sought
+     **/
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * Get the y position of the ghost at the time last sought
+     **/
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Get the rotation of the ghost at the time last sought, in degrees
+     **/
+    public float getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get the time the run finished in, in milliseconds
+     **/
+    public int getFinishTime() {
+        return finishTime;
+    }
+
+    /**
+     * Get the number of samples in the track
+     **/
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Records the path of a boat into a track, one sample every {@link #SAMPLE_TICKS} ticks
+     * <p>
+     * Its buffer is allocated once, big enough for the longest leg, so recording doesn't allocate. It can be reused
+     * for every race.
+     */
+    public static final class Recorder {
+        // A normal leg can't last longer than the race time limit, so this many samples always fit
+        private static final int MAX_SAMPLES = (int) (BoatRace.MAX_RACE_TIME / SAMPLE_PERIOD) + 2;
+        // x, y and rotation as varints of an int at their longest
+        private static final int MAX_SAMPLE_SIZE = 3 * 5;
+
+        private final ByteBuffer samples = ByteBuffer.allocate(MAX_SAMPLES * MAX_SAMPLE_SIZE);
+        private int ticks = 0;
+        private int sampleCount = 0;
+        private int lastX, lastY, lastRotation;
+
+        /**
+         * Forget everything recorded, ready to record a new race
+         **/
+        public void reset() {
+            samples.clear();
+            ticks = 0;
+            sampleCount = 0;
+            lastX = lastY = lastRotation = 0;
+        }
+
+        /**
+         * Record one tick of the boat's path, taking a sample if one is due
+         * <p>
+         * Called before each tick is simulated, so the first sample is where the boat starts.
+         *
+         * @param x        The boat's x position
+         * @param y        The boat's y position
+         * @param rotation The boat's rotation in degrees
+         */
+        public void tick(float x, float y, float rotation) {
+            if (ticks++ % SAMPLE_TICKS != 0 || sampleCount == MAX_SAMPLES) return;
+            int qx = Math.round(x * POSITION_STEPS);
+            int qy = Math.round(y * POSITION_STEPS);
+            int qRotation = Math.round(rotation * ROTATION_STEPS);
+            VarInts.putSigned(samples, qx - lastX);
+            VarInts.putSigned(samples, qy - lastY);
+            VarInts.putSigned(samples, qRotation - lastRotation);
+            lastX = qx;
+            lastY = qy;
+            lastRotation = qRotation;
+            ++sampleCount;
+        }
+
+        /**
+         * Get the number of samples recorded
+         **/
+        public int getSampleCount() {
+            return sampleCount;
+        }
+
+        /**
+         * Encode what's been recorded as the payload of a ghost file
+         *
+         * @param finishTime The time the run finished in, in milliseconds
+         * @return The payload, from the buffer's position to its limit
+         */
+        public ByteBuffer encode(int finishTime) {
+            ByteBuffer out = ByteBuffer.allocate(3 * 10 + samples.position());
+            VarInts.putUnsigned(out, SAMPLE_TICKS);
+            VarInts.putUnsigned(out, finishTime);
+            VarInts.putUnsigned(out, sampleCount);
+            out.put(samples.array(), 0, samples.position());
+            out.flip();
+            return out;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.EnumMap;
+
+/**
+ * Holds typed pools of the obstacles and power-ups placed on the course.
+ * <p>
+ * Races obtain their lane objects from here and free them when they end, so the objects are reset
+ * in place and reused for the next leg rather than being reallocated every time.
+ * <p>
+ * Every pool is given one object when the pools are made, which must be on the rendering thread. Pooled objects are
+ * never thrown away, so each type's texture stays loaded, and objects made later on other threads, such as while a
+ * course is generated in the background, only share it rather than creating textures away from OpenGL.
+ */
+class LaneObjectPools {
+
+    private final RaceClock clock;
+
+    private final Pool<ObstacleBranch> branches;
+    private final Pool<ObstacleFloatingBranch> floatingBranches;
+    private final Pool<ObstacleDuck> ducks;
+    private final Pool<ObstacleLaneWall> laneWalls;
+    private final EnumMap<Powerup.Type, Pool<Powerup>> powerups;
+
+    /**
+     * Construct a new set of pools, each holding one object, on the rendering thread
+     *
+     * @param clock The race clock that pooled objects moving over time follow
+     */
+    LaneObjectPools(final RaceClock clock) {
+        this.clock = clock;
+
+        branches = new Pool<ObstacleBranch>() {
+            @Override
+            protected ObstacleBranch newObject() {
+                return new ObstacleBranch(0, 0);
+            }
+        };
+        floatingBranches = new Pool<ObstacleFloatingBranch>() {
+            @Override
+            protected ObstacleFloatingBranch newObject() {
+                return new ObstacleFloatingBranch(0, 0, clock);
+            }
+        };
+        ducks = new Pool<ObstacleDuck>() {
+            @Override
+            protected ObstacleDuck newObject() {
+                return new ObstacleDuck(0, 0, clock);
+            }
+        };
+        laneWalls = new Pool<ObstacleLaneWall>() {
+            @Override
+            protected ObstacleLaneWall newObject() {
+                return new ObstacleLaneWall(0, 0);
+            }
+        };
+
+        powerups = new EnumMap<>(Powerup.Type.class);
+        for (final Powerup.Type type : Powerup.Type.values()) {
+            powerups.put(type, new Pool<Powerup>() {
+                @Override
+                protected Powerup newObject() {
+                    return new Powerup(0, 0, type);
+                }
+            });
+        }
+
+        // Load every type's texture now, while on the rendering thread
+        branches.free(branches.obtain());
+        floatingBranches.free(floatingBranches.obtain());
+        ducks.free(ducks.obtain());
+        laneWalls.free(laneWalls.obtain());
+        for (Pool<Powerup> pool : powerups.values()) {
+            pool.free(pool.obtain());
+        }
+    }
+
+    /**
+     * Get the clock that pooled objects moving over time follow
+     **/
+    RaceClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Get a branch from the pool
+     *
+     * @param x        The x position of the branch
+     * @param y        The y position of the branch
+     * @param rotation The rotation of the branch in degrees
+     * @return A branch that is shown and in place
+     */
+    ObstacleBranch obtainBranch(float x, float y, float rotation) {
+        ObstacleBranch branch = branches.obtain();
+        branch.setTransform(x, y, rotation);
+        return branch;
+    }
+
+    /**
+     * Get a floating branch from the pool
+     *
+     * @param x The x position of the branch at the start of the race
+     * @param y The y position of the branch at the start of the race
+     * @return A floating branch that is shown and in place
+     */
+    ObstacleFloatingBranch obtainFloatingBranch(float x, float y) {
+        ObstacleFloatingBranch branch = floatingBranches.obtain();
+        branch.setTransform(x, y, ObstacleFloatingBranch.DOWNSTREAM);
+        return branch;
+    }
+
+    /**
+     * Get a duck from the pool
+     *
+     * @param x        The x position of the duck at the start of the race
+     * @param y        The y position of the duck at the start of the race
+     * @param rotation The rotation of the duck at the start of the race
+     * @return A duck that is shown and in place
+     */
+    ObstacleDuck obtainDuck(float x, float y, float rotation) {
+        ObstacleDuck duck = ducks.obtain();
+        duck.setTransform(x, y, rotation);
+        return duck;
+    }
+
+    /**
+     * Get a lane wall from the pool
+     *
+     * @param x The x position of the wall
+     * @param y The y position of the wall
+     * @return A lane wall that is shown and in place
+     */
+    ObstacleLaneWall obtainLaneWall(float x, float y) {
+        ObstacleLaneWall wall = laneWalls.obtain();
+        wall.setTransform(x, y, 0.0f);
+        return wall;
+    }
+
+    /**
+     * Get a power-up from the pool for its type
+     *
+     * @param x    The x position of the power-up
+     * @param y    The y position of the power-up
+     * @param type The type of power-up
+     * @return A power-up that is shown and in place
+     */
+    Powerup obtainPowerup(float x, float y, Powerup.Type type) {
+        Powerup powerup = powerups.get(type).obtain();
+        powerup.setTransform(x, y, 0.0f);
+        return powerup;
+    }
+
+    /**
+     * Return a lane object to its pool, resetting it
+     *
+     * @param obj The object to return, which must have come from these pools
+     */
+    void free(CollisionObject obj) {
+        // Check subclasses before their parents
+        if (obj instanceof ObstacleFloatingBranch) {
+            floatingBranches.free((ObstacleFloatingBranch) obj);
+        } else if (obj instanceof ObstacleBranch) {
+            branches.free((ObstacleBranch) obj);
+        } else if (obj instanceof ObstacleDuck) {
+            ducks.free((ObstacleDuck) obj);
+        } else if (obj instanceof ObstacleLaneWall) {
+            laneWalls.free((ObstacleLaneWall) obj);
+        } else if (obj instanceof Powerup) {
+            Powerup powerup = (Powerup) obj;
+            powerups.get(powerup.getType()).free(powerup);
+        }
+    }
+
+    /**
+     * Throw away every pooled object, so their textures are released once they're collected
+     * <p>
+     * Must only be called once nothing obtained from the pools is in use.
+     */
+    void clear() {
+        branches.clear();
+        floatingBranches.clear();
+        ducks.clear();
+        laneWalls.clear();
+        for (Pool<Powerup> pool : powerups.values()) {
+            pool.clear();
+        }
+    }
+}
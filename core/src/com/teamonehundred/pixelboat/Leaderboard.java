@@ -0,0 +1,664 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.Gdx;
+import com.teamonehundred.pixelboat.util.VarInts;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/*
+ * Leaderboard Index Structure (version 1):
+ * Framed the same way as a save, with the magic "PBLB" and its own version
+ *
+ * Payload: the generation of the first log not in the index, then the number of boards (varints),
+ *          then each board's difficulty level, spec, leg and number of times (varints), its times fastest first,
+ *          each as the difference from the one before (varints), then the time each was set in milliseconds since
+ *          the epoch, each as the signed difference from the one before (varints)
+ *
+ * Log Structure:
+ * Records appended since the index was written, in files named by their generation. Each record is the board
+ * (4 bytes, the difficulty level, spec and leg packed into a byte, a byte and 2 bytes), the time in milliseconds
+ * (4 bytes), the time it was set (8 bytes) and the CRC32 of those 16 bytes (4 bytes). A log ends at its first
+ * broken record, as it was being written when the game closed.
+ */
+
+/**
+ * Every time the player has set, on a board for each difficulty, boat spec and leg, with the whole game as leg 0
+ * <p>
+ * Each board keeps its times sorted, so the fastest few and where a time ranks are found without looking through
+ * the rest. New times are appended to a log in the background, and once the log has grown to a quarter of the size
+ * of the boards, they're compacted into an index in the background too, and a new log started. Opening the
+ * leaderboard reads the index and only the logs since.
+ * <p>
+ * The game's leaderboard is read on the I/O thread when the game starts, and used through
+ * {@link #whenLoaded(Consumer)}, so the game never waits for it to load.
+ * <p>
+ * Only used by the game's thread, apart from writes and loading, which the {@link AutosaveService} does.
+ */
+public class Leaderboard {
+
+    /**
+     * The first 4 bytes of the index, "PBLB"
+     */
+    public static final int INDEX_MAGIC = 0x50424C42;
+    /**
+     * The version of the format the index is written in
+     */
+    public static final int INDEX_FORMAT_VERSION = 1;
+    /**
+     * The leg number of the board for whole games
+     */
+    public static final int WHOLE_GAME = 0;
+
+    // The directory the leaderboard is kept in
+    private static final String DIRECTORY_NAME = "leaderboard";
+    private static final String INDEX_NAME = "index.dat";
+    private static final String LOG_PREFIX = "records-";
+    private static final String LOG_SUFFIX = ".log";
+    // board + time + timestamp + CRC32
+    private static final int RECORD_SIZE = 20;
+    // Far bigger than the index of any real leaderboard, so a corrupt length can't allocate a huge buffer
+    private static final int MAX_INDEX_SIZE = 1 << 28;
+    // The log is never compacted before it has this many records, however small the boards are
+    private static final int MIN_COMPACT_RECORDS = 256;
+
+    private static Leaderboard instance;
+    // Whether the game's leaderboard is being read, and what's waiting for it, only used by the game's thread
+    private static boolean loading = false;
+    private static final List<Consumer<Leaderboard>> waiting = new ArrayList<>();
+
+    private final Path directory;
+    private final Map<Integer, Board> boards = new HashMap<>();
+    private int size = 0;
+    // The log being appended to, and how many records the logs since the index hold
+    private int generation;
+    private int logRecords = 0;
+    // Records waiting to be appended to the log, and whether an append is queued to take them
+    private ByteBuffer unwritten = ByteBuffer.allocate(RECORD_SIZE * 16);
+    private boolean appendQueued = false;
+
+    /* Singleton pattern */
+    // Set to private so there's only ever one copy of the boards being changed
+    private Leaderboard(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Start reading the game's leaderboard on the I/O thread, unless it's loaded or loading already
+     * <p>
+     * Must be called by the game's thread.
+     */
+    static void load() {
+        if (instance != null || loading) return;
+        Path directory = Paths.get(DIRECTORY_NAME);
+        // Read after every write queued before it, so there's nothing to flush
+        loading = AutosaveService.getInstance().submit(() -> {
+            Leaderboard leaderboard;
+            try {
+                leaderboard = read(directory);
+            } catch (RuntimeException e) {
+                // Anything waiting keeps waiting, and loading is tried again the next time the leaderboard is wanted
+                System.out.println("WARNING - Leaderboard could not be loaded: " + e);
+                Gdx.app.postRunnable(() -> loading = false);
+                return;
+            }
+            Gdx.app.postRunnable(() -> loaded(leaderboard));
+        });
+    }
+
+    /**
+     * Use the game's leaderboard once it's loaded, starting to load it if it isn't already
+     * <p>
+     * Must be called by the game's thread, which the action is run on. Actions waiting for the leaderboard are run
+     * in the order they were given once it's loaded.
+     *
+     * @param action What to do with the leaderboard, straight away if it's loaded
+     */
+    static void whenLoaded(Consumer<Leaderboard> action) {
+        if (instance != null) {
+            action.accept(instance);
+            return;
+        }
+        waiting.add(action);
+        load();
+    }
+
+    /** Hands the game's leaderboard to everything waiting for it, on the game's thread **/
+    private static void loaded(Leaderboard leaderboard) {
+        instance = leaderboard;
+        loading = false;
+        for (Consumer<Leaderboard> action : waiting) {
+            action.accept(leaderboard);
+        }
+        waiting.clear();
+    }
+
+    /**
+     * Open the leaderboard in a directory, reading its index and the logs since
+     * <p>
+     * A directory with no index has empty boards. If the index can't be read, every log left is read instead.
+     *
+     * @param directory The directory the leaderboard is kept in
+     * @return The leaderboard
+     */
+    public static Leaderboard open(Path directory) {
+        // Make sure anything still being written is on disk
+        AutosaveService.getInstance().flush();
+        return read(directory);
+    }
+
+    /** Reads the leaderboard in a directory, once anything being written to it is on disk **/
+    private static Leaderboard read(Path directory) {
+        Leaderboard leaderboard = new Leaderboard(directory);
+        int firstLog = 0;
+        Path index = directory.resolve(INDEX_NAME);
+        if (Files.exists(index)) {
+            try {
+                firstLog = leaderboard.decodeIndex(SaveManager.readFramed(index, INDEX_MAGIC, INDEX_FORMAT_VERSION,
+                        MAX_INDEX_SIZE));
+            } catch (IOException | IllegalArgumentException | BufferUnderflowException e) {
+                System.out.println("WARNING - Leaderboard index could not be read, only its logs are: "
+                        + e.getMessage());
+                leaderboard.boards.clear();
+                leaderboard.size = 0;
+            }
+        }
+
+        // Logs before the index were compacted into it, but were left behind by the game closing
+        int lastLog = firstLog - 1;
+        for (int log : listLogs(directory)) {
+            Path path = leaderboard.getLogPath(log);
+            if (log < firstLog) {
+                deleteQuietly(path);
+                continue;
+            }
+            try {
+                leaderboard.readLog(path);
+            } catch (IOException e) {
+                System.out.println("WARNING - Leaderboard log could not be read: " + e.getMessage());
+            }
+            lastLog = Math.max(lastLog, log);
+        }
+        // A new log is started, as the last one may end in a broken record
+        leaderboard.generation = lastLog + 1;
+        return leaderboard;
+    }
+
+    /**
+     * Add a time to a board, appending it to the log in the background
+     *
+     * @param difficulty The difficulty the time was set at
+     * @param spec       The player's boat spec
+     * @param leg        The leg the time was set on, or {@link #WHOLE_GAME}
+     * @param time       The time in milliseconds
+     * @param timestamp  When the time was set, in milliseconds since the epoch
+     * @throws IllegalArgumentException If the spec, leg or time is out of range
+     */
+    public void add(Difficulty.DifficultyLevel difficulty, int spec, int leg, int time, long timestamp) {
+        int key = getKey(difficulty, spec, leg);
+        if (time < 0) throw new IllegalArgumentException("Time out of range: " + time);
+        getBoard(key).add(time, timestamp);
+        ++size;
+        ++logRecords;
+
+        synchronized (this) {
+            if (unwritten.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(unwritten.capacity() * 2);
+                unwritten.flip();
+                grown.put(unwritten);
+                unwritten = grown;
+            }
+            int start = unwritten.position();
+            unwritten.putInt(key).putInt(time).putLong(timestamp);
+            unwritten.putInt(checksum(unwritten, start));
+        }
+
+        if (logRecords >= Math.max(MIN_COMPACT_RECORDS, size / 4)) {
+            compact();
+        } else {
+            queueAppend();
+        }
+    }
+
+    /**
+     * Get the fastest times on a board
+     *
+     * @param difficulty The difficulty of the board
+     * @param spec       The boat spec of the board
+     * @param leg        The leg of the board, or {@link #WHOLE_GAME}
+     * @param count      The most times to get
+     * @return The times, fastest first, with the earliest first among equal times
+     * @throws IllegalArgumentException If the spec or leg is out of range
+     */
+    public List<Entry> getTop(Difficulty.DifficultyLevel difficulty, int spec, int leg, int count) {
+        Board board = boards.get(getKey(difficulty, spec, leg));
+        List<Entry> top = new ArrayList<>();
+        if (board != null) board.getTop(count, top);
+        return top;
+    }
+
+    /**
+     * Get where a time would rank on a board
+     *
+     * @param difficulty The difficulty of the board
+     * @param spec       The boat spec of the board
+     * @param leg        The leg of the board, or {@link #WHOLE_GAME}
+     * @param time       The time in milliseconds
+     * @return 1 plus the number of faster times on the board
+     * @throws IllegalArgumentException If the spec or leg is out of range
+     */
+    public int getRank(Difficulty.DifficultyLevel difficulty, int spec, int leg, int time) {
+        Board board = boards.get(getKey(difficulty, spec, leg));
+        return board == null ? 1 : board.countFaster(time) + 1;
+    }
+
+    /**
+     * Get the number of times on a board
+     *
+     * @param difficulty The difficulty of the board
+     * @param spec       The boat spec of the board
+     * @param leg        The leg of the board, or {@link #WHOLE_GAME}
+     * @return The number of times
+     * @throws IllegalArgumentException If the spec or leg is out of range
+     */
+    public int getCount(Difficulty.DifficultyLevel difficulty, int spec, int leg) {
+        Board board = boards.get(getKey(difficulty, spec, leg));
+        return board == null ? 0 : board.size + board.recentSize;
+    }
+
+    /**
+     * Get the number of times on every board
+     **/
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Wait for every time added so far to be written
+     *
+     * @return True if they were written, or false if it took too long
+     */
+    public boolean flush() {
+        queueAppend();
+        return AutosaveService.getInstance().flush();
+    }
+
+    /** Packs a board's difficulty, spec and leg into its key **/
+    private static int getKey(Difficulty.DifficultyLevel difficulty, int spec, int leg) {
+        if (spec < 0 || spec > 0xFF) throw new IllegalArgumentException("Spec out of range: " + spec);
+        if (leg < 0 || leg > 0xFFFF) throw new IllegalArgumentException("Leg out of range: " + leg);
+        return (difficulty.ordinal() << 24) | (spec << 16) | leg;
+    }
+
+    /** Gets a board, making it if it doesn't exist yet **/
+    private Board getBoard(int key) {
+        Board board = boards.get(key);
+        if (board == null) {
+            board = new Board();
+            boards.put(key, board);
+        }
+        return board;
+    }
+
+    /** Queues the records waiting to be appended to the log, unless an append is queued already **/
+    private void queueAppend() {
+        synchronized (this) {
+            if (appendQueued || unwritten.position() == 0) return;
+            appendQueued = true;
+        }
+        if (!AutosaveService.getInstance().submit(this::appendUnwritten)) {
+            // Left to be taken by the next append
+            synchronized (this) {
+                appendQueued = false;
+            }
+        }
+    }
+
+    /** Appends the records waiting to the current log, run by the I/O thread **/
+    private void appendUnwritten() throws IOException {
+        ByteBuffer records;
+        Path log;
+        synchronized (this) {
+            appendQueued = false;
+            records = takeUnwritten();
+            log = getLogPath(generation);
+        }
+        appendRecords(log, records);
+    }
+
+    /** Copies the records waiting to be appended, leaving none waiting, while synchronized **/
+    private ByteBuffer takeUnwritten() {
+        unwritten.flip();
+        ByteBuffer records = ByteBuffer.allocate(unwritten.remaining());
+        records.put(unwritten).flip();
+        unwritten.clear();
+        return records;
+    }
+
+    /** Appends records to a log and waits for them to reach the disk, run by the I/O thread **/
+    private void appendRecords(Path log, ByteBuffer records) throws IOException {
+        if (!records.hasRemaining()) return;
+
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes the boards to the index in the background, and starts a new log
+     * <p>
+     * Snapshots of the boards are taken here, so they match exactly the records logged so far, then merged, encoded
+     * and written on the I/O thread. A snapshot shares the board's merged times, which are never changed in place,
+     * so taking one only copies the few recent times. The records still waiting are appended to the current log before the index is written, so they're
+     * always on disk in one or the other, and the older logs are only deleted once the index is on disk.
+     */
+    private void compact() {
+        List<Integer> keys = new ArrayList<>(boards.keySet());
+        List<Board> snapshots = new ArrayList<>(keys.size());
+        for (Integer key : keys) {
+            snapshots.add(boards.get(key).snapshot());
+        }
+        int nextGeneration = generation + 1;
+
+        synchronized (this) {
+            Path log = getLogPath(generation);
+            ByteBuffer records = takeUnwritten();
+            boolean queued = AutosaveService.getInstance().submit(() -> {
+                appendRecords(log, records);
+                for (Board snapshot : snapshots) {
+                    snapshot.merge();
+                }
+                SaveManager.writeFramed(directory.resolve(INDEX_NAME), INDEX_MAGIC, INDEX_FORMAT_VERSION,
+                        encodeIndex(nextGeneration, keys, snapshots), MAX_INDEX_SIZE);
+                for (int old : listLogs(directory)) {
+                    if (old < nextGeneration) deleteQuietly(getLogPath(old));
+                }
+            });
+            if (!queued) {
+                // The records stay waiting for the log, to be compacted next time
+                unwritten.put(records);
+                return;
+            }
+            // Anything added from now on goes to the new log
+            generation = nextGeneration;
+        }
+        logRecords = 0;
+    }
+
+    /** Encodes the index payload from merged snapshots of the boards **/
+    private static ByteBuffer encodeIndex(int firstLog, List<Integer> keys, List<Board> snapshots) {
+        int capacity = 10 * 2;
+        for (Board board : snapshots) {
+            capacity += 10 * 4 + board.size * (5 + 10);
+        }
+        ByteBuffer out = ByteBuffer.allocate(capacity);
+        VarInts.putUnsigned(out, firstLog);
+        VarInts.putUnsigned(out, keys.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            int key = keys.get(i);
+            Board board = snapshots.get(i);
+            VarInts.putUnsigned(out, key >>> 24);
+            VarInts.putUnsigned(out, (key >>> 16) & 0xFF);
+            VarInts.putUnsigned(out, key & 0xFFFF);
+            VarInts.putUnsigned(out, board.size);
+            int lastTime = 0;
+            for (int j = 0; j < board.size; ++j) {
+                VarInts.putUnsigned(out, (long) board.times[j] - lastTime);
+                lastTime = board.times[j];
+            }
+            long lastTimestamp = 0;
+            for (int j = 0; j < board.size; ++j) {
+                VarInts.putSigned(out, board.timestamps[j] - lastTimestamp);
+                lastTimestamp = board.timestamps[j];
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Decodes the boards from the index payload
+     *
+     * @return The generation of the first log not in the index
+     */
+    private int decodeIndex(ByteBuffer in) throws IOException {
+        Difficulty.DifficultyLevel[] levels = Difficulty.DifficultyLevel.values();
+        int firstLog = VarInts.getCount(in, Integer.MAX_VALUE);
+        int count = VarInts.getCount(in, in.remaining() / 4);
+        for (int i = 0; i < count; ++i) {
+            int level = VarInts.getCount(in, levels.length - 1);
+            int key = getKey(levels[level], VarInts.getCount(in, 0xFF), VarInts.getCount(in, 0xFFFF));
+            if (boards.containsKey(key)) throw new IOException("Leaderboard index has a board twice");
+            // Every time takes at least two bytes
+            int times = VarInts.getCount(in, in.remaining() / 2);
+
+            Board board = new Board();
+            board.times = new int[times];
+            board.timestamps = new long[times];
+            long time = 0;
+            for (int j = 0; j < times; ++j) {
+                time += VarInts.getUnsigned(in);
+                if (time > Integer.MAX_VALUE) throw new IOException("Leaderboard index has a time out of range");
+                board.times[j] = (int) time;
+            }
+            long timestamp = 0;
+            for (int j = 0; j < times; ++j) {
+                timestamp += VarInts.getSigned(in);
+                board.timestamps[j] = timestamp;
+            }
+            board.size = times;
+            boards.put(key, board);
+            size += times;
+        }
+        if (in.hasRemaining()) throw new IOException("Leaderboard index has unexpected data");
+        return firstLog;
+    }
+
+    /** Adds every intact record in a log to the boards, stopping at the first broken one **/
+    private void readLog(Path path) throws IOException {
+        Difficulty.DifficultyLevel[] levels = Difficulty.DifficultyLevel.values();
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (in.remaining() >= RECORD_SIZE) {
+            int start = in.position();
+            int key = in.getInt();
+            int time = in.getInt();
+            long timestamp = in.getLong();
+            if (in.getInt() != checksum(in, start) || (key >>> 24) >= levels.length || time < 0) {
+                System.out.println("WARNING - Leaderboard log " + path.getFileName() + " ends in a broken record");
+                return;
+            }
+            getBoard(key).add(time, timestamp);
+            ++size;
+            ++logRecords;
+        }
+    }
+
+    /** Gets the CRC32 of the 16 bytes of a record before its checksum, from where the record starts **/
+    private static int checksum(ByteBuffer buffer, int start) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(start + RECORD_SIZE - 4).position(start);
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    /** Gets the path of a log from its generation **/
+    private Path getLogPath(int log) {
+        return directory.resolve(LOG_PREFIX + log + LOG_SUFFIX);
+    }
+
+    /** Lists the generations of the logs in a directory, oldest first **/
+    private static int[] listLogs(Path directory) {
+        if (!Files.isDirectory(directory)) return new int[0];
+        List<Integer> logs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    logs.add(Integer.parseInt(name.substring(LOG_PREFIX.length(),
+                            name.length() - LOG_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // Not a log this game wrote
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING - Leaderboard logs could not be listed: " + e.getMessage());
+        }
+        int[] sorted = new int[logs.size()];
+        for (int i = 0; i < sorted.length; ++i) {
+            sorted[i] = logs.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /** Deletes a file if it can, as one left behind is only tidied up later **/
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * A time on a board
+     */
+    public static final class Entry {
+        // The time in milliseconds
+        public final int time;
+        // When the time was set, in milliseconds since the epoch
+        public final long timestamp;
+
+        private Entry(int time, long timestamp) {
+            this.time = time;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * The times on one board, fastest first
+     * <p>
+     * New times go into a small sorted buffer, which is merged with the rest into new arrays once it's full, so adding
+     * a time only copies the whole board now and then. The merged arrays are never changed once they're made, so a
+     * snapshot can share them and be read on another thread while the board carries on changing.
+     */
+    private static final class Board {
+        private static final int RECENT_CAPACITY = 64;
+
+        int[] times = new int[0];
+        long[] timestamps = new long[0];
+        int size = 0;
+        final int[] recentTimes = new int[RECENT_CAPACITY];
+        final long[] recentTimestamps = new long[RECENT_CAPACITY];
+        int recentSize = 0;
+
+        /** Adds a time after any equal ones **/
+        void add(int time, long timestamp) {
+            int i = upperBound(recentTimes, recentSize, time);
+            System.arraycopy(recentTimes, i, recentTimes, i + 1, recentSize - i);
+            System.arraycopy(recentTimestamps, i, recentTimestamps, i + 1, recentSize - i);
+            recentTimes[i] = time;
+            recentTimestamps[i] = timestamp;
+            if (++recentSize == RECENT_CAPACITY) merge();
+        }
+
+        /** Merges the recent times and the rest into new arrays, leaving the old ones as they were **/
+        void merge() {
+            int total = size + recentSize;
+            int[] mergedTimes = new int[total];
+            long[] mergedTimestamps = new long[total];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < total; ++k) {
+                // Recent times go after equal older ones
+                if (j >= recentSize || (i < size && times[i] <= recentTimes[j])) {
+                    mergedTimes[k] = times[i];
+                    mergedTimestamps[k] = timestamps[i++];
+                } else {
+                    mergedTimes[k] = recentTimes[j];
+                    mergedTimestamps[k] = recentTimestamps[j++];
+                }
+            }
+            times = mergedTimes;
+            timestamps = mergedTimestamps;
+            size = total;
+            recentSize = 0;
+        }
+
+        /** Counts the times faster than a time **/
+        int countFaster(int time) {
+            return lowerBound(times, size, time) + lowerBound(recentTimes, recentSize, time);
+        }
+
+        /** Adds the fastest times to a list, taking from both the rest and the recent times in order **/
+        void getTop(int count, List<Entry> out) {
+            int i = 0;
+            int j = 0;
+            while (out.size() < count && (i < size || j < recentSize)) {
+                if (j >= recentSize || (i < size && times[i] <= recentTimes[j])) {
+                    out.add(new Entry(times[i], timestamps[i++]));
+                } else {
+                    out.add(new Entry(recentTimes[j], recentTimestamps[j++]));
+                }
+            }
+        }
+
+        /**
+         * Makes a snapshot of the board, to be merged and written on another thread while this one carries on
+         * changing, sharing the merged times and copying only the recent ones
+         **/
+        Board snapshot() {
+            Board snapshot = new Board();
+            snapshot.times = times;
+            snapshot.timestamps = timestamps;
+            snapshot.size = size;
+            System.arraycopy(recentTimes, 0, snapshot.recentTimes, 0, recentSize);
+            System.arraycopy(recentTimestamps, 0, snapshot.recentTimestamps, 0, recentSize);
+            snapshot.recentSize = recentSize;
+            return snapshot;
+        }
+
+        /** Finds the first index holding a time no faster than a time **/
+        private static int lowerBound(int[] sorted, int length, int time) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < time) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+
+        /** Finds the first index holding a time slower than a time **/
+        private static int upperBound(int[] sorted, int length, int time) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] <= time) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+}
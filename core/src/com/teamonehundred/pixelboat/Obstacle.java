@@ -1,6 +1,7 @@
 package com.teamonehundred.pixelboat;
 
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * Represents the obstacle as an abstract class that extends from movable object
@@ -10,7 +11,7 @@ import com.badlogic.gdx.graphics.Texture;
  * @author William Walton
  * JavaDoc by Umer Fakher
  */
-public abstract class Obstacle extends MovableObject implements CollisionObject {
+public abstract class Obstacle extends MovableObject implements CollisionObject, Pool.Poolable {
     /* ################################### //
                   CONSTRUCTORS
     // ################################### */
@@ -28,6 +29,19 @@ public abstract class Obstacle extends MovableObject implements CollisionObject
         super(x, y, w, h, texturePath);
     }
 
+    /**
+     * A constructor for an Obstacle taking its position (x and y) and width and height.
+     * <p>
+     * <p>
+     * Accepts Texture indirectly through file path. Integer for frame count needed.
+     *
+     * @author James Frost
+     * @author William Walton
+     */
+    Obstacle(float x, float y, int w, int h, String texturePath, int frameCount) {
+        super(x, y, w, h, texturePath, frameCount);
+    }
+
     /**
      * A constructor for an Obstacle taking its position (x and y) and width and height.
      * <p>
@@ -56,6 +70,16 @@ public abstract class Obstacle extends MovableObject implements CollisionObject
         setIsShown(false);
     }
 
+    /**
+     * Resets the obstacle so it can be reused from a pool, showing it again and stopping any movement.
+     */
+    @Override
+    public void reset() {
+        setIsShown(true);
+        speed = 0.0f;
+        setAnimationFrame(0);
+    }
+
     /**
      * Get the value of colliding with this object
      * 1.0 is normal (avoid), -1.0 and below is bad (very avoid), and anything above 1.0 is good (aim to get)
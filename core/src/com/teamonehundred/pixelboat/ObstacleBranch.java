@@ -18,14 +18,13 @@ public class ObstacleBranch extends Obstacle {
      * <p>
      * <p>
      * Branch image is taken by default from C:\...\ENG1-Team-12\Implementation\core\assets.
-     * Random rotation is set.
+     * The branch starts unrotated, and is turned when placed on the course.
      *
      * @author James Frost
      * @author William Walton
      */
     public ObstacleBranch(float x, float y) {
         super(x, y, 60, 60, "obstacle_branch.png");
-        getSprite().setRotation(-90 + (float) Math.random() * 180);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.teamonehundred.pixelboat;
 
+import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
@@ -10,37 +11,95 @@ import com.badlogic.gdx.math.Vector2;
  * @author William Walton
  * JavaDoc by Umer Fakher
  */
-public class ObstacleDuck extends Obstacle {
+public class ObstacleDuck extends Obstacle implements ClockedObject {
+    // Ducks were tuned at 0.2 units per frame at 60fps, turning 1 degree per second
+    private static final float SPEED = 12.0f;
+    private static final float TURN_RATE = 1.0f;
+
+    private final ConstantMotion motion;
+    private final RaceClock clock;
+    private float evaluatedTime = -1.0f;
 
     /**
      * A constructor for an Obstacle taking its position (x and y).
      * <p>
      * <p>
      * Duck image is taken by default from C:\...\ENG1-Team-12\Implementation\core\assets.
-     * Random rotation is set.
+     * The duck starts facing up, and is turned when placed on the course.
      *
+     * @param clock The race clock the duck's position is evaluated from
      * @author James Frost
      * @author William Walton
      */
-    ObstacleDuck(float x, float y) {
+    ObstacleDuck(float x, float y, RaceClock clock) {
         super(x, y, 30, 30, "obstacle_duck.png");
-        // give each duck a random rotation
         getSprite().setOriginCenter();
-        getSprite().setRotation((float) Math.random() * 360);
-        // have the duck move at a constant speed
-        drag = 0;
-        speed = .2f;
-        rotationSpeed = .2f;
+        // have the duck move at a constant speed while turning, which is a circle
+        motion = new ConstantMotion(SPEED, TURN_RATE);
+        motion.setStart(x, y, 0.0f);
+        this.clock = clock;
     }
 
     /**
-     * Updates position of duck obstacle and turns by 1 point.
+     * The duck's position is evaluated from the race clock when it's needed, so there's nothing to integrate.
+     *
+     * @return False, as the duck is never moved by an update
      */
     @Override
     public boolean update(float deltaTime) {
-        turn(deltaTime, 5.0f);
-        super.update(deltaTime);
-        return true;
+        return false;
+    }
+
+    /**
+     * Moves the duck to a new starting position and rotation for the start of the race.
+     *
+     * @param x        float for horizontal position at the start of the race
+     * @param y        float for vertical position at the start of the race
+     * @param rotation float for rotation at the start of the race in degrees
+     */
+    @Override
+    public void setTransform(float x, float y, float rotation) {
+        motion.setStart(x, y, rotation);
+        // Force the sprite to be moved the next time it's read
+        evaluatedTime = -1.0f;
+    }
+
+    /**
+     * Getter for the duck's sprite, moved to where the duck is at the current race time.
+     *
+     * @return Sprite
+     */
+    @Override
+    public Sprite getSprite() {
+        Sprite sprite = super.getSprite();
+        // The clock isn't set yet while the super constructors run
+        if (clock != null && clock.getTime() != evaluatedTime) {
+            evaluatedTime = clock.getTime();
+            motion.apply(sprite, evaluatedTime);
+        }
+        return sprite;
+    }
+
+    /**
+     * Copy the duck's sprite, moved to where the duck is at a given race time, leaving the duck where it is.
+     *
+     * @param time The race time, in seconds
+     * @param out  The sprite to copy into
+     */
+    @Override
+    public void getSpriteAt(float time, Sprite out) {
+        out.set(super.getSprite());
+        motion.apply(out, time);
+    }
+
+    /**
+     * Get the motion the duck follows
+     *
+     * @return The duck's motion
+     */
+    @Override
+    public ConstantMotion getMotion() {
+        return motion;
     }
 
     /**
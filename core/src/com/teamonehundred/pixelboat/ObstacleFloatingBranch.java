@@ -1,5 +1,7 @@
 package com.teamonehundred.pixelboat;
 
+import com.badlogic.gdx.graphics.g2d.Sprite;
+
 /**
  * Represents a floating branch obstacle.
  *
@@ -7,22 +9,100 @@ package com.teamonehundred.pixelboat;
  * @author William Walton
  * JavaDoc by Umer Fakher
  */
-public class ObstacleFloatingBranch extends ObstacleBranch {
+public class ObstacleFloatingBranch extends ObstacleBranch implements ClockedObject {
+    // Floating branches always face (and so move) downstream
+    static final float DOWNSTREAM = -180.0f;
+    // Floating branches were tuned at 0.3 units per frame at 60fps
+    static final float SPEED = 18.0f;
+
+    private final ConstantMotion motion;
+    private final RaceClock clock;
+    private float evaluatedTime = -1.0f;
+
     /**
      * A constructor for a floating branch obstacle taking its position (x and y).
      * <p>
      * <p>
      * Branch image is taken by default from C:\...\ENG1-Team-12\Implementation\core\assets.
-     * Random rotation is set.
+     * The branch always floats downstream.
      *
+     * @param clock The race clock the branch's position is evaluated from
      * @author James Frost
      * @author William Walton
      */
-    ObstacleFloatingBranch(float x, float y) {
+    ObstacleFloatingBranch(float x, float y, RaceClock clock) {
         super(x, y);
-        // have the branch move at a constant speed
-        drag = 0;
-        speed = 0.3f;
-        getSprite().setRotation(-180);
+        // have the branch move downstream in a straight line at a constant speed
+        motion = new ConstantMotion(SPEED, 0.0f);
+        motion.setStart(x, y, DOWNSTREAM);
+        this.clock = clock;
+    }
+
+    /**
+     * The branch's position is evaluated from the race clock when it's needed, so there's nothing to integrate.
+     *
+     * @return False, as the branch is never moved by an update
+     */
+    @Override
+    public boolean update(float deltaTime) {
+        return false;
+    }
+
+    /**
+     * Moves the branch to a new starting position and rotation for the start of the race.
+     *
+     * @param x        float for horizontal position at the start of the race
+     * @param y        float for vertical position at the start of the race
+     * @param rotation float for rotation at the start of the race in degrees
+     */
+    @Override
+    public void setTransform(float x, float y, float rotation) {
+        motion.setStart(x, y, rotation);
+        // Force the sprite to be moved the next time it's read
+        evaluatedTime = -1.0f;
+    }
+
+    /**
+     * Getter for the branch's sprite, moved to where the branch is at the current race time.
+     *
+     * @return Sprite
+     */
+    @Override
+    public Sprite getSprite() {
+        Sprite sprite = super.getSprite();
+        // The clock isn't set yet while the super constructors run
+        if (clock != null && clock.getTime() != evaluatedTime) {
+            evaluatedTime = clock.getTime();
+            motion.apply(sprite, getDriftTime(evaluatedTime));
+        }
+        return sprite;
+    }
+
+    /**
+     * Copy the branch's sprite, moved to where the branch is at a given race time, leaving the branch where it is.
+     *
+     * @param time The race time, in seconds
+     * @param out  The sprite to copy into
+     */
+    @Override
+    public void getSpriteAt(float time, Sprite out) {
+        out.set(super.getSprite());
+        motion.apply(out, getDriftTime(time));
+    }
+
+    /** Gets the time to evaluate the motion at for a race time **/
+    private float getDriftTime(float time) {
+        // Branches run aground after a race's length of drifting, staying inside where they're indexed
+        return Math.min(time, motion.getStartTime() + BoatRace.MAX_RACE_TIME);
+    }
+
+    /**
+     * Get the motion the branch follows
+     *
+     * @return The branch's motion
+     */
+    @Override
+    public ConstantMotion getMotion() {
+        return motion;
     }
 }
@@ -1,7 +1,5 @@
 package com.teamonehundred.pixelboat;
 
-import com.badlogic.gdx.graphics.Texture;
-
 /**
  * Represents a lane wall obstacle.
  *
@@ -13,6 +11,9 @@ public class ObstacleLaneWall extends Obstacle {
     // Class attributes shared by all instances
     public static final int TEXTURE_HEIGHT = 64;
 
+    // The resting frame is baked into the race scenery, so the wall only needs drawing while it's been hit
+    private boolean isResting = true;
+
     /**
      * A constructor for an lane wall obstacle taking its position (x and y).
      * <p>
@@ -22,13 +23,14 @@ public class ObstacleLaneWall extends Obstacle {
      * @author James Frost
      * @author William Walton
      */
-    ObstacleLaneWall(float x, float y, Texture t) {
-        super(x, y, 32, TEXTURE_HEIGHT, t, 2);
+    ObstacleLaneWall(float x, float y) {
+        super(x, y, 32, TEXTURE_HEIGHT, "lane_buoy.png", 2);
         setAnimationFrame(0);
     }
 
     public void setAnimationFrame(int i) {
         super.setAnimationFrame(i);
+        isResting = (i == 0);
     }
 
     @Override
@@ -36,6 +38,22 @@ public class ObstacleLaneWall extends Obstacle {
         setAnimationFrame(1);
     }
 
+    /**
+     * Lane walls are drawn beneath everything else on the water
+     **/
+    @Override
+    public int getRenderLayer() {
+        return 0;
+    }
+
+    /**
+     * Lane walls are baked into the race scenery while they're showing their resting frame
+     **/
+    @Override
+    public boolean isStaticScenery() {
+        return isResting;
+    }
+
     /**
      * Get the value of colliding with this object
      * 1.0 is normal (avoid), -1.0 and below is bad (very avoid), and anything above 1.0 is good (aim to get)
@@ -2,7 +2,16 @@ package com.teamonehundred.pixelboat;
 
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.teamonehundred.pixelboat.util.FontRegistry;
+import com.teamonehundred.pixelboat.util.TextFormat;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
+
+import java.util.function.Consumer;
 
 /**
  * Main class for the PixelBoat game.
@@ -15,50 +24,128 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
  * JavaDoc by Umer Fakher
  */
 public class PixelBoat extends ApplicationAdapter {
+    // How long each frame can spend loading textures in the background, and while waiting on a scene
+    private static final int PRELOAD_MILLIS = 4;
+    private static final int LOADING_MILLIS = 15;
+    // Returned in place of a scene ID when no scene is waiting to load
+    private static final int NO_SCENE = Integer.MIN_VALUE;
+
     private SpriteBatch batch;  // thing that draws the sprites
 
-    private SceneStartScreen startScreen;
-    private SceneMainGame mainGame;
-    private SceneOptionsMenu optionsMenu;
-    private SceneTutorial tutorial;
-    private SceneResultsScreen resultsScreen;
-    private ScenePreRace preRace;
-    private SceneEndScreen endScreen;
+    private SceneRegistry scenes;
 
     private Scene currentScene;
     private Scene nextScene;
 
-    private SaveManager saveManager;
+    // The scene ID returned by the current scene while the scene it switches to is still loading
+    private int waitingSceneID = NO_SCENE;
+    // Whether a save is being loaded on the I/O thread, and the scene to go to once it has, or NO_SCENE until then
+    private boolean loadingSave = false;
+    private int loadedSceneID = NO_SCENE;
+    private final StringBuilder loadingText = new StringBuilder();
+    private final Matrix4 loadingProjection = new Matrix4();
 
     /**
      * Create method runs when the game starts.
      * <p>
-     * Runs every scene in Game.
+     * Registers every scene in Game, but only builds the start screen. The rest are built when first used,
+     * and their textures load in the background meanwhile.
      */
     @Override
     public void create() {
-        startScreen = new SceneStartScreen();
-        mainGame = new SceneMainGame();
-        optionsMenu = new SceneOptionsMenu();
-        tutorial = new SceneTutorial();
-        resultsScreen = new SceneResultsScreen();
-        preRace = new ScenePreRace();
-        endScreen = new SceneEndScreen();
+        scenes = new SceneRegistry();
+        scenes.register(0, SceneStartScreen.ASSETS, SceneStartScreen::new);
+        scenes.register(5, ScenePreRace.ASSETS, ScenePreRace::new);
+        scenes.register(3, SceneTutorial.ASSETS, SceneTutorial::new);
+        scenes.register(1, SceneMainGame.ASSETS, SceneMainGame::new);
+        scenes.register(4, SceneResultsScreen.ASSETS, SceneResultsScreen::new);
+        scenes.register(2, SceneOptionsMenu.ASSETS, SceneOptionsMenu::new);
+        scenes.register(6, SceneEndScreen.ASSETS, SceneEndScreen::new);
 
-        saveManager = new SaveManager(mainGame);
-
-        currentScene = nextScene = startScreen;
+        currentScene = nextScene = scenes.get(0);
 
         batch = new SpriteBatch();
 
         // Instantiate difficulty
         Difficulty.getInstance();
+
+        // Read in the background, so it's ready by the end of the first leg
+        Leaderboard.load();
+    }
+
+    /** Gets the main game, building it if needed **/
+    private SceneMainGame getMainGame() {
+        return (SceneMainGame) scenes.get(1);
+    }
+
+    /** Throws away the main game, freeing its race first, so a fresh game is built the next time it's used **/
+    private void discardMainGame() {
+        if (!scenes.isBuilt(1)) return;
+        getMainGame().dispose();
+        scenes.discard(1);
+    }
+
+    /** Starts loading the save picked, or else the latest game, and picks the scene to go to once it's loaded **/
+    private void loadSave() {
+        loadingSave = true;
+        // A save picked from its slot is loaded as it is
+        SaveSlots.Slot slot = scenes.isScene(5, currentScene)
+                ? ((ScenePreRace) currentScene).getSelectedSlot() : null;
+        Consumer<Boolean> toResults = loaded -> loadedSceneID = loaded ? 4 : 0;
+        if (slot != null) {
+            // The main game reads the difficulty when it's built, so it's built again at the slot's difficulty, and
+            // put back as it was if the slot can't be loaded
+            Difficulty.DifficultyLevel previous = Difficulty.getInstance().getDifficultyLevel();
+            Difficulty.getInstance().setDifficultyLevel(slot.difficulty);
+            discardMainGame();
+            new SaveManager(getMainGame()).loadSlot(slot, loaded -> {
+                if (!loaded) {
+                    Difficulty.getInstance().setDifficultyLevel(previous);
+                    discardMainGame();
+                }
+                toResults.accept(loaded);
+            });
+            return;
+        }
+        SaveManager saveManager = new SaveManager(getMainGame());
+        // Otherwise a suspended race is carried on where it was left, or the latest save is loaded if there isn't one
+        saveManager.loadRace(resumed -> {
+            if (resumed) {
+                loadedSceneID = 1;
+            } else {
+                saveManager.loadState(toResults);
+            }
+        });
+    }
+
+    /** Gets the results screen, building it if needed **/
+    private SceneResultsScreen getResultsScreen() {
+        return (SceneResultsScreen) scenes.get(4);
+    }
+
+    /** Checks whether every scene needed to handle a scene ID returned by update is ready **/
+    private boolean isReadyFor(int sceneID) {
+        switch (sceneID) {
+            case 4:
+            case 6:
+                return scenes.isReady(1) && scenes.isReady(sceneID);
+            case -1:
+                // A save being loaded is waited for like a scene
+                return scenes.isReady(0) && scenes.isReady(1) && scenes.isReady(4)
+                        && (!loadingSave || loadedSceneID != NO_SCENE);
+            case -2:
+            case -3:
+                return scenes.isReady(0) && scenes.isReady(1) && scenes.isReady(4);
+            default:
+                return scenes.isReady(sceneID);
+        }
     }
 
     /**
      * Render function runs every frame.
      * <p>
-     * Controls functionality of frame switching.
+     * Controls functionality of frame switching. If a scene is switched to before its textures have loaded,
+     * a loading indicator is shown until they have.
      */
     @Override
     public void render() {
@@ -69,8 +156,19 @@ public class PixelBoat extends ApplicationAdapter {
         // Set the current scene to the next scene
         currentScene = nextScene;
 
-        // Update the current scene
-        int nextSceneID = currentScene.update(deltaTime);
+        // Update the current scene, unless it's already asked to switch to a scene which is loading
+        int nextSceneID = waitingSceneID != NO_SCENE ? waitingSceneID : currentScene.update(deltaTime);
+
+        // Keep loading in the background, and put everything into loading while a scene is waited on
+        final TextureRegistry textures = TextureRegistry.getInstance();
+        if (!isReadyFor(nextSceneID)) {
+            waitingSceneID = nextSceneID;
+            textures.update(LOADING_MILLIS);
+            drawLoading(textures.getProgress());
+            return;
+        }
+        waitingSceneID = NO_SCENE;
+        textures.update(PRELOAD_MILLIS);
 
         // Check against the return value of the update function
         switch (nextSceneID) {
@@ -81,9 +179,9 @@ public class PixelBoat extends ApplicationAdapter {
                 If we're coming from the end screen, reset the game
                 (Just make a new one)
                 */
-                nextScene = startScreen;
-                if (currentScene == endScreen) {
-                    mainGame = new SceneMainGame();
+                nextScene = scenes.get(0);
+                if (scenes.isScene(6, currentScene)) {
+                    discardMainGame();
                 }
                 break;
             }
@@ -92,9 +190,9 @@ public class PixelBoat extends ApplicationAdapter {
                 If 1, go to the main game (unless the current scene is tutorial
                 which in that case also set the player spec)
                 */
-                nextScene = mainGame;
-                if (currentScene == tutorial) {
-                    mainGame.setPlayerSpec(preRace.getSpecID());
+                nextScene = getMainGame();
+                if (scenes.isScene(3, currentScene)) {
+                    getMainGame().setPlayerSpec(((ScenePreRace) scenes.get(5)).getSpecID());
                 }
                 break;
             }
@@ -103,14 +201,14 @@ public class PixelBoat extends ApplicationAdapter {
                 /*
                 If 2, go to the options screen
                 */
-                nextScene = optionsMenu;
+                nextScene = scenes.get(2);
                 break;
             }
             case 3: {
                 /*
                 If 3, go to the tutorial
                 */
-                nextScene = tutorial;
+                nextScene = scenes.get(3);
                 break;
             }
             case 4: {
@@ -118,9 +216,9 @@ public class PixelBoat extends ApplicationAdapter {
                 If 4, go to the results screen.
                 If the currentScene is not the results screen, also give the boats to the results screen
                  */
-                nextScene = resultsScreen;
+                nextScene = getResultsScreen();
                 if (currentScene != nextScene) {
-                    resultsScreen.setBoats(mainGame.getAllBoats());
+                    getResultsScreen().setBoats(getMainGame().getAllBoats());
                 }
                 break;
             }
@@ -128,7 +226,7 @@ public class PixelBoat extends ApplicationAdapter {
                 /*
                 If 5, go to the pre-race screen
                  */
-                nextScene = preRace;
+                nextScene = scenes.get(5);
                 break;
             }
             case 6: {
@@ -136,36 +234,61 @@ public class PixelBoat extends ApplicationAdapter {
                 If 6, go to the pre-race screen
                 If the current scene is the game screen, also give it the boats to calculate the results with
                  */
+                SceneEndScreen endScreen = (SceneEndScreen) scenes.get(6);
                 nextScene = endScreen;
-                if (currentScene == mainGame) {
-                    endScreen.updateScreen(mainGame.getAllBoats(), mainGame.getPlayer());
+                if (scenes.isScene(1, currentScene)) {
+                    if (getMainGame().isEndless()) {
+                        endScreen.updateScreenEndless(getMainGame().getDistanceTravelled());
+                    } else {
+                        endScreen.updateScreen(getMainGame().getAllBoats(), getMainGame().getPlayer());
+                    }
                 }
                 break;
             }
             case -1: {
-                // Special case for handling loading a game
-                boolean result = saveManager.loadState();
-                // If the save was loaded successfully, go to the results screen
-                if (result) {
-                    resultsScreen.setBoats(mainGame.getAllBoats());
-                    nextScene = resultsScreen;
+                // Special case for handling loading a game, which is read on the I/O thread while loading is shown
+                if (!loadingSave) {
+                    loadSave();
+                    waitingSceneID = -1;
+                    break;
+                }
+                loadingSave = false;
+                if (loadedSceneID == 4) {
+                    // If the save was loaded successfully, go to the results screen
+                    getResultsScreen().setBoats(getMainGame().getAllBoats());
+                } else if (loadedSceneID == 0) {
                     // If not, exit to the main menu
-                } else {
                     System.out.println("Could not load save");
-                    nextScene = startScreen;
                 }
+                nextScene = scenes.get(loadedSceneID);
+                loadedSceneID = NO_SCENE;
                 break;
             }
             case -2: {
                 // Special case for handling saving a game
-                boolean result = saveManager.saveState();
+                boolean result = new SaveManager(getMainGame()).saveState();
                 // If the game saved successfully, go to the main menu
                 if (result)
-                    nextScene = startScreen;
+                    nextScene = scenes.get(0);
                     // If not, stay on the results screen
                 else {
                     System.out.println("Could not save game");
-                    nextScene = resultsScreen;
+                    nextScene = getResultsScreen();
+                }
+                break;
+            }
+            case -3: {
+                // Special case for suspending a race part way through
+                boolean result = new SaveManager(getMainGame()).saveRace();
+                // If the race saved, go to the main menu and start a fresh game next time
+                if (result) {
+                    nextScene = scenes.get(0);
+                    discardMainGame();
+                }
+                // If not, carry on racing
+                else {
+                    System.out.println("Could not suspend race");
+                    nextScene = getMainGame();
                 }
                 break;
             }
@@ -181,6 +304,23 @@ public class PixelBoat extends ApplicationAdapter {
         currentScene.draw(batch);
     }
 
+    /** Draws the loading indicator over a blank screen **/
+    private void drawLoading(float progress) {
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        loadingText.setLength(0);
+        TextFormat.appendFixed(loadingText.append("Loading... "), TextFormat.toFixed(progress * 100.0f, 0), 0)
+                .append('%');
+
+        BitmapFont font = FontRegistry.getInstance().getBuiltIn();
+        font.setColor(Color.WHITE);
+        batch.setProjectionMatrix(loadingProjection.setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight()));
+        batch.begin();
+        font.draw(batch, loadingText, 32.0f, 48.0f);
+        batch.end();
+    }
+
     /**
      * Disposes unneeded SpriteBatch and exits application.
      * <p>
@@ -188,7 +328,11 @@ public class PixelBoat extends ApplicationAdapter {
      */
     @Override
     public void dispose() {
+        // Finish writing any saves still queued before the game exits
+        AutosaveService.getInstance().flush();
         batch.dispose();
+        FontRegistry.getInstance().dispose();
+        TextureRegistry.getInstance().dispose();
 
         Gdx.app.exit();
         System.exit(0);
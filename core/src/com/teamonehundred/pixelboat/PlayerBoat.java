@@ -4,9 +4,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
+import com.teamonehundred.pixelboat.util.VarInts;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,18 +26,40 @@ public class PlayerBoat extends Boat {
                    ATTRIBUTES
     // ################################### */
 
+    /**
+     * Control bit for rowing forwards
+     */
+    public final static int CONTROL_FORWARD = 1;
+    /**
+     * Control bit for turning left
+     */
+    public final static int CONTROL_LEFT = 2;
+    /**
+     * Control bit for turning right
+     */
+    public final static int CONTROL_RIGHT = 4;
+
     private final static int UI_BAR_WIDTH = 500;
     private final static float FORWARD_LOCK_TIME = 1.0f;
+    private final static String STAMINA_TEXTURE_PATH = "stamina_texture.png";
+    private final static String DURABILITY_TEXTURE_PATH = "durability_texture.png";
     private final OrthographicCamera camera;
-    private final Texture staminaTexture;
-    private final Texture durabilityTexture;
+    // Where the camera should be looking, moved by the simulation and copied to the camera when drawing
+    private final Vector2 cameraFocus;
+    private final TextureRegion staminaTexture;
+    private final TextureRegion durabilityTexture;
     private final Sprite staminaBar;
     private final Sprite durabilityBar;
+    private final List<Sprite> uiSprites;
     private int specID;
     // Used to stop the player mashing W to game the acceleration system
     private float accelerationCooldown;
     private boolean forwardPressed;
     private boolean forwardLocked;
+    // The controls held, set from the keyboard on the render thread and read by the simulation
+    private volatile int controls;
+    // The controls latched for the current tick, only used by the simulation
+    private int tickControls;
 
     /* ################################### //
                   CONSTRUCTORS
@@ -53,11 +79,14 @@ public class PlayerBoat extends Boat {
         forwardPressed = false;
         forwardLocked = false;
 
-        staminaTexture = new Texture("stamina_texture.png");
-        durabilityTexture = new Texture("durability_texture.png");
+        staminaTexture = TextureRegistry.getInstance().acquireRegion(STAMINA_TEXTURE_PATH);
+        durabilityTexture = TextureRegistry.getInstance().acquireRegion(DURABILITY_TEXTURE_PATH);
 
         staminaBar = new Sprite(staminaTexture);
         durabilityBar = new Sprite(durabilityTexture);
+        uiSprites = new ArrayList<>();
+        uiSprites.add(staminaBar);
+        uiSprites.add(durabilityBar);
 
         staminaBar.setSize(UI_BAR_WIDTH, 10);
         durabilityBar.setSize(UI_BAR_WIDTH, 10);
@@ -69,15 +98,16 @@ public class PlayerBoat extends Boat {
         camera = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         camera.position.set(0, Gdx.graphics.getHeight() / 3.0f, 0);
         camera.update();
+        cameraFocus = new Vector2(camera.position.x, camera.position.y);
     }
 
     /**
-     * Destructor disposes of this texture once it is no longer referenced.
+     * Destructor releases the bar textures once this is no longer referenced.
      */
     protected void finalize() {
         super.finalize();
-        staminaTexture.dispose();
-        durabilityTexture.dispose();
+        TextureRegistry.getInstance().release(STAMINA_TEXTURE_PATH);
+        TextureRegistry.getInstance().release(DURABILITY_TEXTURE_PATH);
     }
 
     /* ################################### //
@@ -124,21 +154,57 @@ public class PlayerBoat extends Boat {
     }
 
     /**
-     * Updates the position based on the user's input.
+     * Reads the controls held on the keyboard.
      * <p>
      * 'W' key accelerates the boat.
      * 'A' Turns the boat to the left
      * 'D' Turns the boat to the right
+     *
+     * @return int of CONTROL_ bits
+     */
+    public static int readKeyboard() {
+        int held = 0;
+        if (Gdx.input.isKeyPressed(Input.Keys.W)) held |= CONTROL_FORWARD;
+        if (Gdx.input.isKeyPressed(Input.Keys.A)) held |= CONTROL_LEFT;
+        if (Gdx.input.isKeyPressed(Input.Keys.D)) held |= CONTROL_RIGHT;
+        return held;
+    }
+
+    /**
+     * Sets the controls held, which are used from the next time they're latched.
+     *
+     * @param controls int of CONTROL_ bits
+     */
+    public void setControls(int controls) {
+        this.controls = controls;
+    }
+
+    /**
+     * Latches the controls held for the next update, so a tick uses exactly the controls returned
+     * even if they're changed on another thread while it runs.
+     *
+     * @return int of CONTROL_ bits
+     */
+    int latchControls() {
+        tickControls = controls;
+        return tickControls;
+    }
+
+    /**
+     * Updates the position based on the controls held.
      * <p>
      * Updates the x and y position of the sprite with new x and y according to which input has been requested.
      * The camera will follow the player's boat
      */
     @Override
     public boolean update(float deltaTime) {
+        // Latched once per tick, so the whole update uses the same controls
+        int held = tickControls;
+
         // If movement is unlocked or the forward key is held down...
         if (!forwardLocked || forwardPressed) {
             // If the key is still held, accelerate and lock forward
-            if (Gdx.input.isKeyPressed(Input.Keys.W)) {
+            if ((held & CONTROL_FORWARD) != 0) {
                 accelerate(deltaTime);
                 forwardPressed = true;
                 forwardLocked = true;
@@ -160,9 +226,9 @@ public class PlayerBoat extends Boat {
         }
 
         // If A or D are pressed, turn left or right respectively
-        if (Gdx.input.isKeyPressed(Input.Keys.A)) {
+        if ((held & CONTROL_LEFT) != 0) {
             this.turn(deltaTime, 15.0f);
-        } else if (Gdx.input.isKeyPressed(Input.Keys.D)) {
+        } else if ((held & CONTROL_RIGHT) != 0) {
             this.turn(deltaTime, -15.0f);
         }
 
@@ -176,28 +242,27 @@ public class PlayerBoat extends Boat {
         float dy = getSprite().getY() - oldY;
 
         // move camera to follow player
-        camera.translate(dx, dy, 0);
+        translateCamera(dx, dy);
         return true;
     }
 
     /**
-     * Returns the all sprites for PlayerBoat UI.
+     * Returns the all sprites for PlayerBoat UI, positioned for a snapshot of the race.
      * <p>
-     * This includes the stamina bar and durability bar.
+     * This includes the stamina bar and durability bar. The same list is returned every time.
      *
+     * @param state The snapshot being drawn
      * @return List of Sprites
      */
-    public List<Sprite> getUISprites() {
-        updateUISprites();
-
-        List<Sprite> ret = new ArrayList<>();
-        ret.add(staminaBar);
-        ret.add(durabilityBar);
-        return ret;
+    List<Sprite> getUISprites(RaceSnapshot state) {
+        updateUISprites(state);
+        return uiSprites;
     }
 
     /**
      * Getter for PlayerBoat Camera.
+     * <p>
+     * The camera is only used for drawing, and is moved to a snapshot of the {@link #getCameraFocus()} each frame.
      *
      * @return OrthographicCamera
      */
@@ -205,6 +270,34 @@ public class PlayerBoat extends Boat {
         return camera;
     }
 
+    /**
+     * Gets where the camera should be looking, which follows the boat as it's updated.
+     *
+     * @return Vector2 of the camera's position
+     */
+    public Vector2 getCameraFocus() {
+        return cameraFocus;
+    }
+
+    /**
+     * Moves where the camera is looking.
+     *
+     * @param dx float horizontal distance
+     * @param dy float vertical distance
+     */
+    public void translateCamera(float dx, float dy) {
+        cameraFocus.add(dx, dy);
+    }
+
+    /**
+     * Returns whether rowing forwards is locked until the cooldown has passed.
+     *
+     * @return boolean
+     */
+    public boolean isForwardLocked() {
+        return forwardLocked;
+    }
+
     /**
      * Get the width of the UI bar
      *
@@ -220,6 +313,7 @@ public class PlayerBoat extends Boat {
     public void resetCameraPos() {
         camera.position.set(getSprite().getX(), Gdx.graphics.getHeight() / 3.0f, 0);
         camera.update();
+        cameraFocus.set(camera.position.x, camera.position.y);
     }
 
     /**
@@ -233,21 +327,65 @@ public class PlayerBoat extends Boat {
         forwardPressed = false;
     }
 
+    /**
+     * Get the number of bytes {@link #writeState(ByteBuffer)} needs at most
+     **/
+    @Override
+    int getStateSize() {
+        return super.getStateSize() + 10 + 3 * 4 + 1;
+    }
+
+    /**
+     * Write everything about the boat that changes during a race, including the spec and where the camera is looking
+     *
+     * @param out The buffer to write to, which must have {@link #getStateSize()} bytes remaining
+     */
+    @Override
+    void writeState(ByteBuffer out) {
+        // The spec comes first, as setting it changes the stats the rest of the state overrides
+        VarInts.putSigned(out, specID);
+        super.writeState(out);
+        out.putFloat(accelerationCooldown);
+        out.put((byte) ((forwardPressed ? 1 : 0) | (forwardLocked ? 2 : 0)));
+        out.putFloat(cameraFocus.x);
+        out.putFloat(cameraFocus.y);
+    }
+
+    /**
+     * Read the state written by {@link #writeState(ByteBuffer)}
+     *
+     * @param in The buffer to read from
+     */
+    @Override
+    void readState(ByteBuffer in) {
+        setSpec((int) VarInts.getSigned(in));
+        super.readState(in);
+        accelerationCooldown = in.getFloat();
+        byte flags = in.get();
+        forwardPressed = (flags & 1) != 0;
+        forwardLocked = (flags & 2) != 0;
+        float x = in.getFloat();
+        float y = in.getFloat();
+        cameraFocus.set(x, y);
+    }
+
     /**
      * Update the position and size of the UI elements (e.g. stamina bar and durability bar) according to their values.
      * <p>
      * The stamina decreases as player requests the boat to row and move. It increases when this is not the case.
      * Durability decreases according to the collisions with other obstacles.
      * Dynamically updates the size of the stamina bar and durability bar
-     * based on the PlayerBoat attributes as they change.
+     * based on the PlayerBoat attributes in the snapshot.
      */
-    private void updateUISprites() {
-        staminaBar.setPosition(-UI_BAR_WIDTH / 2.0f + getSprite().getX() + getSprite().getWidth() / 2, -50 + getSprite().getY());
-        durabilityBar.setPosition(-UI_BAR_WIDTH / 2.0f + getSprite().getX() + getSprite().getWidth() / 2, -35 + getSprite().getY());
+    private void updateUISprites(RaceSnapshot state) {
+        float x = state.x[state.playerIndex];
+        float y = state.y[state.playerIndex];
+        staminaBar.setPosition(-UI_BAR_WIDTH / 2.0f + x + getSprite().getWidth() / 2, -50 + y);
+        durabilityBar.setPosition(-UI_BAR_WIDTH / 2.0f + x + getSprite().getWidth() / 2, -35 + y);
 
-        staminaBar.setSize(UI_BAR_WIDTH * stamina, 10.0f);
-        if (forwardLocked) staminaBar.setColor(Color.RED);
+        staminaBar.setSize(UI_BAR_WIDTH * state.stamina, 10.0f);
+        if (state.forwardLocked) staminaBar.setColor(Color.RED);
         else staminaBar.setColor(Color.YELLOW);
-        durabilityBar.setSize(UI_BAR_WIDTH * durability, 10.0f);
+        durabilityBar.setSize(UI_BAR_WIDTH * state.durability, 10.0f);
     }
 }
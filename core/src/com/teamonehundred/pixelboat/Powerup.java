@@ -1,11 +1,12 @@
 package com.teamonehundred.pixelboat;
 
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * Represents a power-up.
  * Behaviours are implemented by an object receiving it by reading the type
  */
-public class Powerup extends MovableObject implements CollisionObject {
+public class Powerup extends MovableObject implements CollisionObject, Pool.Poolable {
 
 
     private final Type powerupType;
@@ -55,6 +56,14 @@ public class Powerup extends MovableObject implements CollisionObject {
         setIsShown(false);
     }
 
+    /**
+     * Resets the powerup so it can be reused from a pool, showing it again
+     */
+    @Override
+    public void reset() {
+        setIsShown(true);
+    }
+
     /**
      * Get the powerup type
      *
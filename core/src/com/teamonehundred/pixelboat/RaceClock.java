@@ -0,0 +1,56 @@
+package com.teamonehundred.pixelboat;
+
+/**
+ * Represents the elapsed time of a race.
+ * <p>
+ * Shared by the race and any object whose state is a function of race time, so that it can be
+ * evaluated on demand rather than updated every frame.
+ */
+public class RaceClock {
+
+    // Added up in double precision, so the clock keeps time through long endless races
+    private double time = 0.0;
+
+    /**
+     * Get the time elapsed since the race began
+     *
+     * @return The elapsed time in seconds
+     */
+    public float getTime() {
+        return (float) time;
+    }
+
+    /**
+     * Get the time elapsed since the race began, at the precision it's kept
+     *
+     * @return The elapsed time in seconds
+     */
+    public double getPreciseTime() {
+        return time;
+    }
+
+    /**
+     * Set the time elapsed, to carry on a race from part way through
+     *
+     * @param time The elapsed time in seconds
+     */
+    public void setTime(double time) {
+        this.time = time;
+    }
+
+    /**
+     * Move the clock forwards
+     *
+     * @param deltaTime The time to advance by, in seconds
+     */
+    public void advance(float deltaTime) {
+        time += deltaTime;
+    }
+
+    /**
+     * Set the clock back to the start of the race
+     **/
+    public void reset() {
+        time = 0.0;
+    }
+}
@@ -0,0 +1,641 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
+import com.teamonehundred.pixelboat.util.CollisionTree;
+import com.teamonehundred.pixelboat.util.PoissonDiskSampler;
+import com.teamonehundred.pixelboat.util.VarInts;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The obstacles, power-ups and lane walls of a leg, placed and indexed for collisions and drawing.
+ * <p>
+ * The course is split into chunks of a fixed length, which are generated as the leading boat approaches them and
+ * returned to the pools once the trailing boat has left them behind. Only the chunks between the boats are ever
+ * live, so the number of objects doesn't grow with the length of the course.
+ * <p>
+ * Generating chunks only takes objects from the pools and works out where they go. When a pool runs out it makes
+ * another object, but {@link LaneObjectPools} keeps every texture they use loaded, so that never loads a texture or
+ * touches OpenGL. The start of the next leg can therefore be generated on a background thread while the results are
+ * shown. The pools must not be used by anything else until generation has finished.
+ * <p>
+ * Each course has its own random source made from a seed, so the same seed always gives the same course. Chunks are
+ * always generated in order, each placing its objects with the next split of the source, so a chunk is the same
+ * however far the boats are apart when it's generated. The rest is left for the race to use.
+ * <p>
+ * Objects are placed with a {@link PoissonDiskSampler}, so each type keeps its own distance from everything else, and
+ * are shared out between the lanes so every boat faces the same number of them. Across each lane they're placed by
+ * the same density profile, {@link #LANE_DENSITY}.
+ * <p>
+ * An endless course has no finish line and generates chunks for as long as the boats keep going, at the density of
+ * a normal leg. Positions on it are kept near the origin by {@link #rebase(int)}, which moves the whole course down
+ * while remembering how far it's been moved, so coordinates stay as precise however far the boats travel.
+ * <p>
+ * Since chunks are generated the same every time, a course's state is written as how to generate its live chunks
+ * again, plus which of their objects have been hidden, so it stays small however many objects are live.
+ */
+class RaceCourse {
+
+    // Generates courses one at a time on a daemon thread, so it never keeps the game open
+    private static final ExecutorService GENERATOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "course-generation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The length of course generated at a time
+     */
+    static final int CHUNK_LENGTH = 2000;
+    // How far past the leading boat chunks are generated, and behind the trailing boat they're kept
+    private static final float GENERATE_AHEAD = 2000.0f;
+    private static final float RELEASE_BEHIND = 1000.0f;
+    // The furthest a moving object gets from where it's placed during a race, which is a floating branch drifting
+    private static final float MAX_DRIFT = ObstacleFloatingBranch.SPEED * BoatRace.MAX_RACE_TIME;
+
+    // The stretch of each lane objects are placed in, clear of the start line
+    private static final float MIN_Y = BoatRace.START_Y + 50;
+    private static final float MAX_Y = BoatRace.END_Y;
+    // The distance kept between each type of object and any other object
+    private static final float BRANCH_SPACING = 90.0f;
+    private static final float FLOATING_BRANCH_SPACING = 90.0f;
+    private static final float DUCK_SPACING = 60.0f;
+    private static final float POWERUP_SPACING = 120.0f;
+    /**
+     * How densely obstacles are placed across the width of each lane, from left to right. Every lane is the same, so
+     * each boat still faces the same course, but fewer obstacles sit against the walls where they can't be steered
+     * around, and more sit in the middle of the lane, in the way of a boat going straight.
+     */
+    static final float[] LANE_DENSITY = {0.5f, 1.0f, 1.5f, 1.0f, 0.5f};
+
+    /** The objects generated for one chunk of the course **/
+    private static class Chunk {
+        final long index;
+        // The race time the chunk's moving objects started moving at
+        final float startTime;
+        final List<CollisionObject> objects = new ArrayList<>();
+
+        Chunk(long index, float startTime) {
+            this.index = index;
+            this.startTime = startTime;
+        }
+    }
+
+    private final long seed;
+    private final SplittableRandom random;
+    private final SplittableRandom placement;
+    private final int boatCount;
+    private final LaneObjectPools pools;
+    private final float raceWidth;
+    private final int obstacleCount;
+    private final int powerUpCount;
+    private final boolean endless;
+    private final long chunkCount;
+    // The chunks generated and not yet released, lowest first
+    private final ArrayDeque<Chunk> chunks;
+    private long nextChunk = 0;
+    // What the last chunk generated sampled near its top, and the origin it was sampled at, or null before any
+    private PoissonDiskSampler topEdge = null;
+    private long topEdgeOriginY = 0;
+    // How far the course has been moved down to keep it near the origin, so a height of y is originY + y along it
+    private long originY = 0;
+    private final List<CollisionObject> laneObjects;
+    private final CollisionTree collisionTree;
+    private final RenderQueue renderQueue;
+
+    /**
+     * Start a course, generating the chunks needed at the start line from the pools
+     *
+     * @param boatCount The number of boats, which sets the number of lanes
+     * @param leg       The leg number, starting from 0, which makes later legs harder
+     * @param pools     The pools to take obstacles and power-ups from
+     * @param seed      The seed for the race's random source
+     * @param endless   Whether the course goes on forever rather than ending at the finish line
+     */
+    RaceCourse(int boatCount, int leg, LaneObjectPools pools, long seed, boolean endless) {
+        this(boatCount, pools, seed, endless, getObstacleCount(leg), Difficulty.getInstance().getPowerUpCount());
+
+        // Boats start just below the start line
+        update(0.0f, 0.0f);
+    }
+
+    /**
+     * Construct a course without generating any chunks
+     *
+     * @param boatCount     The number of boats, which sets the number of lanes
+     * @param pools         The pools to take obstacles and power-ups from
+     * @param seed          The seed for the race's random source
+     * @param endless       Whether the course goes on forever rather than ending at the finish line
+     * @param obstacleCount The number of each obstacle type placed over a leg's length
+     * @param powerUpCount  The number of power-ups placed over a leg's length
+     */
+    private RaceCourse(int boatCount, LaneObjectPools pools, long seed, boolean endless, int obstacleCount,
+                       int powerUpCount) {
+        this.seed = seed;
+        this.endless = endless;
+        this.boatCount = boatCount;
+        this.pools = pools;
+        random = new SplittableRandom(seed);
+        placement = random.split();
+        laneObjects = new ArrayList<>();
+        chunks = new ArrayDeque<>();
+
+        // Set the width
+        raceWidth = boatCount * BoatRace.LANE_WIDTH;
+
+        // Shared out over the chunks as they're generated
+        this.obstacleCount = obstacleCount;
+        this.powerUpCount = powerUpCount;
+        chunkCount = endless ? Long.MAX_VALUE : (BoatRace.END_Y + CHUNK_LENGTH - 1) / CHUNK_LENGTH;
+
+        // Start at the left side of the leftmost lane
+        float cTreeX = BoatRace.getLaneCentre(0) - (BoatRace.LANE_WIDTH * 0.5f);
+        // Start at the very bottom
+        float cTreeY = (float) BoatRace.START_Y;
+        // Height...
+        float raceHeight = BoatRace.END_Y + CollisionTree.MIN_HEIGHT * 0.5f;
+
+        // Create the collision tree, which chunks add their objects to
+        collisionTree = new CollisionTree(raceWidth, raceHeight, cTreeX, cTreeY);
+        renderQueue = new RenderQueue(0.0f, BoatRace.END_Y);
+    }
+
+    /**
+     * Rebuild a course written by {@link #writeState(ByteBuffer)}, generating its live chunks again from the pools
+     *
+     * @param pools The pools to take obstacles and power-ups from
+     * @param in    The buffer to read the course from
+     * @return The course, as it was when it was written
+     * @throws IllegalArgumentException If the state doesn't describe a course that can be generated
+     */
+    static RaceCourse restore(LaneObjectPools pools, ByteBuffer in) {
+        int boatCount = VarInts.getCount(in, 64);
+        long seed = in.getLong();
+        boolean endless = in.get() != 0;
+        int obstacleCount = VarInts.getCount(in, Integer.MAX_VALUE);
+        int powerUpCount = VarInts.getCount(in, Integer.MAX_VALUE);
+        if (boatCount == 0) throw new IllegalArgumentException("A course needs at least one lane");
+        RaceCourse course = new RaceCourse(boatCount, pools, seed, endless, obstacleCount, powerUpCount);
+
+        // Anything already generated goes back to the pools if the rest of the state is wrong
+        try {
+            course.originY = VarInts.getUnsigned(in);
+            long firstChunk = VarInts.getUnsigned(in);
+            int liveChunks = VarInts.getCount(in, in.remaining() + 1);
+            if (firstChunk > course.chunkCount - liveChunks)
+                throw new IllegalArgumentException("The course doesn't have that many chunks");
+            // Each chunk places its objects with the next split, so skip the splits the released chunks used, except
+            // the last, which is sampled again to find where the first live chunk keeps clear of
+            for (long i = 0; i < firstChunk - 1; ++i) {
+                course.placement.split();
+            }
+            if (firstChunk > 0) course.generateChunk(firstChunk - 1, 0.0f, false);
+            course.nextChunk = firstChunk;
+            for (int i = 0; i < liveChunks; ++i) {
+                float startTime = endless ? in.getFloat() : 0.0f;
+                course.chunks.addLast(course.generateChunk(course.nextChunk++, startTime, true));
+            }
+            course.renderQueue.sort();
+
+            // Hide the objects that were hidden, which the race then removes as it does any other hidden object
+            int objectCount = VarInts.getCount(in, Integer.MAX_VALUE);
+            byte[] bits = new byte[VarInts.getCount(in, in.remaining())];
+            in.get(bits);
+            BitSet hidden = BitSet.valueOf(bits);
+            int i = 0;
+            for (Chunk chunk : course.chunks) {
+                for (CollisionObject obj : chunk.objects) {
+                    if (hidden.get(i++)) ((GameObject) obj).setIsShown(false);
+                }
+            }
+            if (i != objectCount) throw new IllegalArgumentException("The course generated different objects");
+        } catch (RuntimeException e) {
+            course.free();
+            throw e;
+        }
+        return course;
+    }
+
+    /**
+     * Start generating a course on the background thread
+     *
+     * @param boatCount The number of boats, which sets the number of lanes
+     * @param leg       The leg number, starting from 0
+     * @param pools     The pools to take obstacles and power-ups from, which mustn't be used until it's done
+     * @param seed      The seed for the race's random source
+     * @param endless   Whether the course goes on forever rather than ending at the finish line
+     * @return The course once the chunks needed at the start line are generated
+     */
+    static Future<RaceCourse> generateInBackground(int boatCount, int leg, LaneObjectPools pools, long seed,
+                                                   boolean endless) {
+        return GENERATOR.submit(() -> new RaceCourse(boatCount, leg, pools, seed, endless));
+    }
+
+    /**
+     * Get the x position of a lane wall
+     *
+     * @param wall The index of the wall, from 0 on the left of the first lane to the number of lanes on the right
+     * @return The x position of the wall's left side
+     */
+    static float getWallX(int wall) {
+        return BoatRace.getLaneCentre(wall) - BoatRace.LANE_WIDTH / 2;
+    }
+
+    /**
+     * Write what's needed to {@link #restore(LaneObjectPools, ByteBuffer)} the course as it is now
+     * <p>
+     * Must only be called by the thread running the race, or while it's stopped.
+     *
+     * @param out The buffer to write to, which must have {@link #getStateSize()} bytes remaining
+     */
+    void writeState(ByteBuffer out) {
+        VarInts.putUnsigned(out, boatCount);
+        out.putLong(seed);
+        out.put((byte) (endless ? 1 : 0));
+        VarInts.putUnsigned(out, obstacleCount);
+        VarInts.putUnsigned(out, powerUpCount);
+
+        VarInts.putUnsigned(out, originY);
+        // Live chunks are always consecutive, so the first index and how many there are is enough
+        VarInts.putUnsigned(out, chunks.isEmpty() ? nextChunk : chunks.peekFirst().index);
+        VarInts.putUnsigned(out, chunks.size());
+        if (endless) {
+            for (Chunk chunk : chunks) {
+                out.putFloat(chunk.startTime);
+            }
+        }
+
+        BitSet hidden = new BitSet();
+        int i = 0;
+        for (Chunk chunk : chunks) {
+            for (CollisionObject obj : chunk.objects) {
+                if (!obj.isShown()) hidden.set(i);
+                ++i;
+            }
+        }
+        byte[] bits = hidden.toByteArray();
+        VarInts.putUnsigned(out, i);
+        VarInts.putUnsigned(out, bits.length);
+        out.put(bits);
+    }
+
+    /**
+     * Get the number of bytes {@link #writeState(ByteBuffer)} needs at most
+     **/
+    int getStateSize() {
+        int objectCount = 0;
+        for (Chunk chunk : chunks) {
+            objectCount += chunk.objects.size();
+        }
+        // Fixed size fields and varints at their longest, one float per chunk, and one bit per object
+        return 8 + 1 + 8 * 10 + 4 * chunks.size() + (objectCount + 7) / 8;
+    }
+
+    /**
+     * Generate the chunks the leading boat is approaching, and release those the trailing boat has left behind
+     * <p>
+     * Must only be called by the thread running the race, while nothing is drawing the render queue. Objects which
+     * have moved must be indexed again before chunks are released, so they're removed from where they are.
+     *
+     * @param trailingY The height of the boat furthest behind
+     * @param leadingY  The height of the boat furthest ahead
+     */
+    void update(float trailingY, float leadingY) {
+        // Moving objects can drift out of their chunk, so keep that much extra either side of the boats
+        boolean generated = false;
+        while (nextChunk < chunkCount && toLocal(getChunkMinY(nextChunk)) - MAX_DRIFT <= leadingY + GENERATE_AHEAD) {
+            // Objects on an endless course start moving when they're generated, so they never drift far from the boats
+            chunks.addLast(generateChunk(nextChunk++, endless ? pools.getClock().getTime() : 0.0f, true));
+            generated = true;
+        }
+        if (generated) {
+            renderQueue.sort();
+        }
+
+        while (!chunks.isEmpty()
+                && toLocal(getChunkMaxY(chunks.peekFirst().index)) + MAX_DRIFT < trailingY - RELEASE_BEHIND) {
+            releaseChunk(chunks.removeFirst());
+        }
+    }
+
+    /**
+     * Move the whole course down, re-indexing everything on it, so the boats can be moved down with it
+     * <p>
+     * Must only be called by the thread running the race, while nothing is drawing the render queue.
+     *
+     * @param distance How far to move the course, which must be a whole number of chunks and lane wall images so the
+     *                 baked scenery still lines up
+     */
+    void rebase(int distance) {
+        originY += distance;
+        collisionTree.clear();
+        renderQueue.clear();
+        for (Chunk chunk : chunks) {
+            for (CollisionObject obj : chunk.objects) {
+                GameObject go = (GameObject) obj;
+                if (obj instanceof ClockedObject) {
+                    ConstantMotion motion = ((ClockedObject) obj).getMotion();
+                    go.setTransform(motion.getStartX(), motion.getStartY() - distance, motion.getStartRotation());
+                } else {
+                    Sprite sprite = go.getSprite();
+                    go.setTransform(sprite.getX(), sprite.getY() - distance, sprite.getRotation());
+                }
+                index(obj);
+            }
+        }
+        renderQueue.sort();
+    }
+
+    /**
+     * Get how far the course has been moved down by {@link #rebase(int)}
+     **/
+    long getOriginY() {
+        return originY;
+    }
+
+    /**
+     * Get whether the course goes on forever rather than ending at the finish line
+     **/
+    boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Return every object still on the course to the pools
+     * <p>
+     * Should be called once the race is no longer needed, after which the course must not be used.
+     */
+    void free() {
+        collisionTree.clear();
+        renderQueue.clear();
+        laneObjects.clear();
+        for (Chunk chunk : chunks) {
+            for (CollisionObject obj : chunk.objects) {
+                pools.free(obj);
+            }
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Get the seed the course was generated from
+     **/
+    long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the race's random source, for anything random that happens during the race
+     * <p>
+     * Only the thread simulating the race should use it.
+     **/
+    SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Get the width of the course covered by lanes
+     **/
+    float getRaceWidth() {
+        return raceWidth;
+    }
+
+    /**
+     * Get every obstacle, power-up and lane wall in the live chunks
+     * <p>
+     * The race removes objects from the list once they're hidden, and the course adds and removes objects as chunks
+     * are generated and released, keeping them in the order their chunks were generated.
+     **/
+    List<CollisionObject> getLaneObjects() {
+        return laneObjects;
+    }
+
+    /**
+     * Get the collision tree containing every object in the live chunks
+     **/
+    CollisionTree getCollisionTree() {
+        return collisionTree;
+    }
+
+    /**
+     * Get the render queue containing every object in the live chunks, already sorted
+     **/
+    RenderQueue getRenderQueue() {
+        return renderQueue;
+    }
+
+    /** Gets how many of each obstacle type are placed over a leg, with later legs having more **/
+    private static int getObstacleCount(int leg) {
+        final Difficulty difficulty = Difficulty.getInstance();
+        float compoundLegDifficulty = (float) Math.pow(difficulty.getLegObstacleModifier(), leg);
+        return (int) (difficulty.getObstacleCount() * compoundLegDifficulty);
+    }
+
+    /** Gets a distance along the course as a height from the current origin **/
+    private float toLocal(long y) {
+        return (float) (y - originY);
+    }
+
+    /** Gets the distance along the course of the bottom of a chunk **/
+    private long getChunkMinY(long chunk) {
+        return chunk * CHUNK_LENGTH;
+    }
+
+    /** Gets the distance along the course of the top of a chunk **/
+    private long getChunkMaxY(long chunk) {
+        long top = (chunk + 1) * CHUNK_LENGTH;
+        return endless ? top : Math.min(BoatRace.END_Y, top);
+    }
+
+    /**
+     * Gets how many objects are placed before a distance along the course, spreading a leg's worth evenly over a
+     * leg's length, and carrying on at that density on an endless course
+     **/
+    private long getShareBelow(int countPerLeg, long y) {
+        double clamped = Math.max(MIN_Y, endless ? y : Math.min(MAX_Y, y));
+        return (long) (countPerLeg * (clamped - MIN_Y) / (MAX_Y - MIN_Y));
+    }
+
+    /**
+     * Takes the objects for a chunk from the pools, places them and indexes them
+     * <p>
+     * Each chunk samples its whole length without looking at its neighbours, then leaves out anything too close to
+     * where the chunk below sampled near its top. The chunk below is sampled the same way whatever's above it, so
+     * objects are spaced out across the join, and a chunk only ever depends on the one below it.
+     *
+     * @param index        The index of the chunk, which must be the one after the last generated
+     * @param startTime    The race time the chunk's moving objects start moving at
+     * @param placeObjects Whether to take and place the objects, or just sample where they'd go, to find where the
+     *                     chunk after this one has to keep clear of
+     * @return The chunk, which has no objects if none were placed
+     */
+    private Chunk generateChunk(long index, float startTime, boolean placeObjects) {
+        Chunk chunk = new Chunk(index, startTime);
+        final SplittableRandom chunkPlacement = placement.split();
+        float bottom = toLocal(Math.max((long) MIN_Y, getChunkMinY(index)));
+        float top = index == chunkCount - 1 ? toLocal((long) MAX_Y) : toLocal(getChunkMaxY(index));
+
+        PoissonDiskSampler sampler = new PoissonDiskSampler(
+                getWallX(0), toLocal(getChunkMinY(index)), getWallX(boatCount), toLocal(getChunkMaxY(index)),
+                DUCK_SPACING, POWERUP_SPACING);
+
+        // add some power-ups, first as they need most room, numbering objects over the whole course to pick lanes
+        long firstPowerUp = getShareBelow(powerUpCount, getChunkMinY(index));
+        long lastPowerUp = getShareBelow(powerUpCount, getChunkMaxY(index));
+        for (long i = firstPowerUp; i < lastPowerUp; ++i) {
+            Powerup.Type type = Powerup.Type.values()[chunkPlacement.nextInt(Powerup.Type.values().length)];
+            int point = place(sampler, chunkPlacement, (int) (i % boatCount), bottom, top, POWERUP_SPACING);
+            if (placeObjects && isClearOfChunkBelow(sampler, point))
+                chunk.objects.add(pools.obtainPowerup((int) sampler.getX(point), (int) sampler.getY(point), type));
+        }
+
+        // add some random obstacles
+        long firstObstacle = getShareBelow(obstacleCount, getChunkMinY(index));
+        long lastObstacle = getShareBelow(obstacleCount, getChunkMaxY(index));
+        for (long i = firstObstacle; i < lastObstacle; i++) {
+            int lane = (int) (i % boatCount);
+            int point = place(sampler, chunkPlacement, lane, bottom, top, BRANCH_SPACING);
+            if (point != -1) {
+                float rotation = -90 + (float) chunkPlacement.nextDouble() * 180;
+                if (placeObjects && isClearOfChunkBelow(sampler, point))
+                    chunk.objects.add(pools.obtainBranch((int) sampler.getX(point), (int) sampler.getY(point),
+                            rotation));
+            }
+            point = place(sampler, chunkPlacement, lane, bottom, top, FLOATING_BRANCH_SPACING);
+            if (placeObjects && isClearOfChunkBelow(sampler, point)) {
+                ObstacleFloatingBranch branch = pools.obtainFloatingBranch(
+                        (int) sampler.getX(point), (int) sampler.getY(point));
+                branch.getMotion().setStartTime(startTime);
+                chunk.objects.add(branch);
+            }
+            point = place(sampler, chunkPlacement, lane, bottom, top, DUCK_SPACING);
+            if (point != -1) {
+                float rotation = (float) chunkPlacement.nextDouble() * 360;
+                if (placeObjects && isClearOfChunkBelow(sampler, point)) {
+                    ObstacleDuck duck = pools.obtainDuck((int) sampler.getX(point), (int) sampler.getY(point),
+                            rotation);
+                    duck.getMotion().setStartTime(startTime);
+                    chunk.objects.add(duck);
+                }
+            }
+        }
+
+        // Remember what was sampled near the top, for the next chunk to keep clear of
+        float edge = toLocal(getChunkMaxY(index));
+        topEdge = new PoissonDiskSampler(getWallX(0), edge - POWERUP_SPACING, getWallX(boatCount),
+                edge + POWERUP_SPACING, DUCK_SPACING, POWERUP_SPACING);
+        topEdgeOriginY = originY;
+        for (int point = 0; point < sampler.size(); ++point) {
+            if (sampler.getY(point) >= edge - POWERUP_SPACING) {
+                topEdge.add(sampler.getX(point), sampler.getY(point), sampler.getSpacing(point));
+            }
+        }
+        if (!placeObjects) return chunk;
+
+        // add the lane separators, with the last chunk reaching the finish line
+        final long wallHeight = ObstacleLaneWall.TEXTURE_HEIGHT;
+        long firstWall = (getChunkMinY(index) + wallHeight - 1) / wallHeight * wallHeight;
+        long endHeight = index == chunkCount - 1 ? BoatRace.END_Y + 1 : getChunkMaxY(index);
+        for (int lane = 0; lane <= boatCount; lane++) {
+            for (long height = firstWall; height < endHeight; height += wallHeight) {
+                chunk.objects.add(pools.obtainLaneWall(getWallX(lane), toLocal(height)));
+            }
+        }
+
+        for (CollisionObject obj : chunk.objects) {
+            index(obj);
+        }
+        laneObjects.addAll(chunk.objects);
+        return chunk;
+    }
+
+    /**
+     * Adds an object to the collision tree and render queue where it is now
+     *
+     * @param obj The object to add
+     */
+    private void index(CollisionObject obj) {
+        // Assume obj is a GameObject
+        GameObject go = (GameObject) obj;
+        // Objects moved by the clock are added everywhere they can reach, so they never need re-adding
+        if (obj instanceof ClockedObject) {
+            Rectangle swept = ((ClockedObject) obj).getMotion().getSweptBounds(BoatRace.MAX_RACE_TIME);
+            collisionTree.add(swept.x, swept.y, swept.x + swept.width, swept.y + swept.height, obj);
+            renderQueue.add(swept.y, swept.y + swept.height + go.getSprite().getHeight(), obj);
+            return;
+        }
+        float goX = go.getSprite().getX();
+        float goY = go.getSprite().getY();
+        collisionTree.add(goX, goY, obj);
+        renderQueue.add(goY, goY + go.getSprite().getHeight(), obj);
+    }
+
+    /**
+     * Removes a chunk's objects from the course and its indexes, and returns them to the pools
+     *
+     * @param chunk The chunk to release, which must be the lowest generated
+     */
+    private void releaseChunk(Chunk chunk) {
+        for (CollisionObject obj : chunk.objects) {
+            GameObject go = (GameObject) obj;
+            // Remove objects from where they were last indexed, before they're reset by the pool
+            if (obj instanceof ClockedObject) {
+                Rectangle swept = ((ClockedObject) obj).getMotion().getSweptBounds(BoatRace.MAX_RACE_TIME);
+                collisionTree.remove(swept.x, swept.y, swept.x + swept.width, swept.y + swept.height, obj);
+                renderQueue.remove(swept.y, swept.y + swept.height + go.getSprite().getHeight(), obj);
+            } else {
+                float goX = go.getSprite().getX();
+                float goY = go.getSprite().getY();
+                collisionTree.remove(goX, goY, obj);
+                renderQueue.remove(goY, goY + go.getSprite().getHeight(), obj);
+            }
+        }
+        // Objects are never shared between chunks, so this removes exactly the chunk's objects still on the course
+        laneObjects.removeAll(new HashSet<>(chunk.objects));
+        for (CollisionObject obj : chunk.objects) {
+            pools.free(obj);
+        }
+    }
+
+    /**
+     * Check a point sampled for a chunk is far enough from everything the chunk below sampled near its top
+     *
+     * @param sampler The sampler holding everything sampled in the chunk so far
+     * @param point   The index of the point in the sampler, or -1 if none was placed
+     * @return true if the point was placed and keeps its distance from the chunk below
+     */
+    private boolean isClearOfChunkBelow(PoissonDiskSampler sampler, int point) {
+        if (point == -1) return false;
+        if (topEdge == null) return true;
+        // The chunk below's edge is kept where it was sampled, so move the point by however far the course has moved
+        return topEdge.isFree(sampler.getX(point), sampler.getY(point) + (originY - topEdgeOriginY),
+                sampler.getSpacing(point));
+    }
+
+    /**
+     * Place an object somewhere in a lane, away from everything placed so far, shaped by the lane density
+     *
+     * @param sampler The sampler holding everything placed in the chunk so far
+     * @param random  The random source to place the object with
+     * @param lane    The lane to place the object in
+     * @param minY    The lowest the object can be placed
+     * @param maxY    The highest the object can be placed
+     * @param spacing The distance to keep from other objects
+     * @return The index of the point in the sampler, or -1 if the lane is too crowded
+     */
+    private static int place(PoissonDiskSampler sampler, SplittableRandom random, int lane, float minY, float maxY,
+                             float spacing) {
+        float laneLeft = getWallX(lane);
+        return sampler.sample(random, laneLeft, minY, laneLeft + BoatRace.LANE_WIDTH, maxY, spacing, LANE_DENSITY);
+    }
+}
@@ -0,0 +1,385 @@
+package com.teamonehundred.pixelboat;
+
+import com.teamonehundred.pixelboat.util.VarInts;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Replay File Structure (version 1):
+ * Framed the same way as a save, with the magic "PBRP" and its own version
+ *
+ * Payload: leg number (varint), difficulty level (1 byte), endless flag (1 byte), AI target speed (float),
+ *          number of boats and the player's position among them (varints),
+ *          the race's state before its first tick as written by BoatRace.writeState, as a varint size then the bytes,
+ *          the number of ticks recorded (varint), then the inputs as a varint size then the bytes,
+ *          then the number of boats and each boat's finish time in milliseconds (varints)
+ *
+ * The inputs are run-length encoded, each run being a varint whose low 3 bits are the CONTROL_ bits held and the
+ * rest the number of ticks they were held for, so a leg takes a few hundred bytes however long it lasts.
+ */
+
+/**
+ * A recording of one leg of a race, from which it can be simulated again exactly
+ * <p>
+ * Races run at a fixed tick rate, and everything random comes from the course's seed, so the race is decided by its
+ * state at the start and the player's controls on each tick. Both are recorded, along with the times the boats
+ * finished in so a replay can be checked, and the {@link ReplayPlayer} simulates the race again from them.
+ * <p>
+ * Recording a tick doesn't allocate, except to grow the inputs now and then.
+ */
+public class RaceReplay {
+
+    /**
+     * The first 4 bytes of a replay, "PBRP"
+     */
+    public static final int MAGIC = 0x50425250;
+    /**
+     * The version of the format replays are written in
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    // The controls take the low bits of a run, and the length of the run the rest
+    private static final int CONTROL_BITS = 3;
+    private static final int CONTROL_MASK = (1 << CONTROL_BITS) - 1;
+    // The longest a varint run can be
+    private static final int MAX_RUN_SIZE = 10;
+    private static final int INITIAL_INPUT_SIZE = 256;
+
+    private final int legNumber;
+    private final Difficulty.DifficultyLevel difficulty;
+    private final boolean endless;
+    private final float aiTargetSpeed;
+    private final int boatCount;
+    private final int playerIndex;
+    // The race's state before its first tick
+    private final ByteBuffer start;
+    // The runs recorded so far, filled from the start to the position
+    private ByteBuffer inputs;
+    private int ticks = 0;
+    // The run being recorded, written to the inputs once the controls change
+    private int runControls = 0;
+    private int runLength = 0;
+    private int[] finishTimes = new int[0];
+
+    /** Construct a replay with no inputs yet **/
+    private RaceReplay(int legNumber, Difficulty.DifficultyLevel difficulty, boolean endless, float aiTargetSpeed,
+                       int boatCount, int playerIndex, ByteBuffer start) {
+        this.legNumber = legNumber;
+        this.difficulty = difficulty;
+        this.endless = endless;
+        this.aiTargetSpeed = aiTargetSpeed;
+        this.boatCount = boatCount;
+        this.playerIndex = playerIndex;
+        this.start = start;
+        inputs = ByteBuffer.allocate(INITIAL_INPUT_SIZE);
+    }
+
+    /**
+     * Start recording a race which hasn't been simulated yet
+     * <p>
+     * Must only be called by the thread simulating the race, or while it's stopped.
+     *
+     * @param race          The race to record
+     * @param playerIndex   The player's position among the race's boats
+     * @param legNumber     The leg the race is
+     * @param aiTargetSpeed The target speed the AI boats were made with, as a decimal percentage
+     * @return The replay, which each tick's controls are then recorded to
+     */
+    static RaceReplay start(BoatRace race, int playerIndex, int legNumber, float aiTargetSpeed) {
+        ByteBuffer state = ByteBuffer.allocate(race.getStateSize());
+        race.writeState(state);
+        state.flip();
+        return new RaceReplay(legNumber, Difficulty.getInstance().getDifficultyLevel(), race.isEndless(),
+                aiTargetSpeed, race.getBoatCount(), playerIndex, state);
+    }
+
+    /**
+     * Record the controls the player used on a tick
+     *
+     * @param controls int of CONTROL_ bits
+     */
+    void record(int controls) {
+        controls &= CONTROL_MASK;
+        if (runLength > 0 && controls == runControls) {
+            ++runLength;
+        } else {
+            writeRun();
+            runControls = controls;
+            runLength = 1;
+        }
+        ++ticks;
+    }
+
+    /**
+     * Finish recording, keeping the time each boat finished in
+     *
+     * @param boats The boats in the race, in the same order as the race
+     */
+    void finish(List<Boat> boats) {
+        writeRun();
+        finishTimes = getFinishTimes(boats);
+    }
+
+    /** Writes the run being recorded to the inputs, growing them if needed **/
+    private void writeRun() {
+        if (runLength == 0) return;
+        if (inputs.remaining() < MAX_RUN_SIZE) {
+            ByteBuffer grown = ByteBuffer.allocate(inputs.capacity() * 2);
+            inputs.flip();
+            grown.put(inputs);
+            inputs = grown;
+        }
+        VarInts.putUnsigned(inputs, ((long) runLength << CONTROL_BITS) | runControls);
+        runLength = 0;
+    }
+
+    /**
+     * Get the time each boat in a race finished its latest leg in
+     *
+     * @param boats The boats in the race
+     * @return The times in milliseconds, or -1 for a boat without one
+     */
+    static int[] getFinishTimes(List<Boat> boats) {
+        int[] times = new int[boats.size()];
+        for (int i = 0; i < times.length; ++i) {
+            List<Integer> legTimes = boats.get(i).getLegTimes();
+            times[i] = legTimes.isEmpty() ? -1 : legTimes.get(legTimes.size() - 1);
+        }
+        return times;
+    }
+
+    /**
+     * Encode the replay as the payload of a replay file
+     *
+     * @return The payload, from the buffer's position to its limit
+     */
+    public ByteBuffer encode() {
+        int inputSize = inputs.position();
+        ByteBuffer out = ByteBuffer.allocate(10 * 6 + 6 + start.remaining() + inputSize
+                + 10 * (1 + finishTimes.length));
+        VarInts.putUnsigned(out, legNumber);
+        out.put((byte) difficulty.ordinal());
+        out.put((byte) (endless ? 1 : 0));
+        out.putFloat(aiTargetSpeed);
+        VarInts.putUnsigned(out, boatCount);
+        VarInts.putUnsigned(out, playerIndex);
+        VarInts.putUnsigned(out, start.remaining());
+        out.put(start.duplicate());
+        VarInts.putUnsigned(out, ticks);
+        VarInts.putUnsigned(out, inputSize);
+        out.put(inputs.array(), 0, inputSize);
+        VarInts.putUnsigned(out, finishTimes.length);
+        for (int time : finishTimes) {
+            VarInts.putSigned(out, time);
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Decode a replay from the payload of a replay file
+     *
+     * @param in The payload
+     * @return The replay
+     * @throws IOException If the payload isn't a valid replay
+     */
+    public static RaceReplay decode(ByteBuffer in) throws IOException {
+        try {
+            int legNumber = VarInts.getCount(in, Integer.MAX_VALUE);
+            Difficulty.DifficultyLevel[] levels = Difficulty.DifficultyLevel.values();
+            int level = in.get();
+            if (level < 0 || level >= levels.length) throw new IOException("Replay has an unknown difficulty");
+            boolean endless = in.get() != 0;
+            float aiTargetSpeed = in.getFloat();
+            int boatCount = VarInts.getCount(in, in.remaining());
+            if (boatCount == 0) throw new IOException("Replay has no boats");
+            int playerIndex = VarInts.getCount(in, boatCount - 1);
+
+            ByteBuffer start = slice(in, VarInts.getCount(in, in.remaining()));
+            int ticks = VarInts.getCount(in, Integer.MAX_VALUE);
+            ByteBuffer runs = slice(in, VarInts.getCount(in, in.remaining()));
+
+            RaceReplay replay = new RaceReplay(legNumber, levels[level], endless, aiTargetSpeed, boatCount,
+                    playerIndex, start);
+            replay.inputs = ByteBuffer.allocate(runs.remaining());
+            replay.inputs.put(runs);
+            replay.ticks = ticks;
+            // Every run must be at least one tick, and together they must cover every tick recorded
+            if (replay.countTicks() != ticks) throw new IOException("Replay inputs don't match its length");
+
+            replay.finishTimes = new int[VarInts.getCount(in, in.remaining())];
+            for (int i = 0; i < replay.finishTimes.length; ++i) {
+                replay.finishTimes[i] = (int) VarInts.getSigned(in);
+            }
+            if (in.hasRemaining()) throw new IOException("Replay has unexpected data");
+            return replay;
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Replay is corrupt", e);
+        }
+    }
+
+    /** Takes the next bytes of a buffer as a buffer of their own **/
+    private static ByteBuffer slice(ByteBuffer in, int size) {
+        ByteBuffer slice = in.slice();
+        slice.limit(size);
+        in.position(in.position() + size);
+        return slice;
+    }
+
+    /** Counts the ticks covered by the inputs, failing if any run is empty **/
+    private long countTicks() throws IOException {
+        long total = 0;
+        ByteBuffer runs = getRuns();
+        while (runs.hasRemaining()) {
+            long length = VarInts.getUnsigned(runs) >>> CONTROL_BITS;
+            if (length == 0) throw new IOException("Replay has an empty run of inputs");
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Write the replay to a file, replacing the file in one step
+     *
+     * @param path The file to write
+     * @throws IOException If the file couldn't be written
+     */
+    public void write(Path path) throws IOException {
+        SaveManager.writeFramed(path, MAGIC, FORMAT_VERSION, encode());
+    }
+
+    /**
+     * Read a replay from a file
+     *
+     * @param path The file to read
+     * @return The replay
+     * @throws IOException If the file couldn't be read, or is corrupt
+     */
+    public static RaceReplay read(Path path) throws IOException {
+        return decode(SaveManager.readFramed(path, MAGIC, FORMAT_VERSION));
+    }
+
+    /** Gets a view of the runs recorded so far **/
+    private ByteBuffer getRuns() {
+        ByteBuffer runs = inputs.duplicate();
+        runs.flip();
+        return runs;
+    }
+
+    /**
+     * Get the controls recorded, one tick at a time
+     **/
+    Inputs getInputs() {
+        return new Inputs(getRuns());
+    }
+
+    /**
+     * Get a view of the race's state before its first tick
+     **/
+    ByteBuffer getStart() {
+        return start.duplicate();
+    }
+
+    /**
+     * Get the leg the race was
+     **/
+    public int getLegNumber() {
+        return legNumber;
+    }
+
+    /**
+     * Get the difficulty the race was played at
+     **/
+    public Difficulty.DifficultyLevel getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Get whether the race was endless
+     **/
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Get the target speed the AI boats were made with, as a decimal percentage
+     **/
+    public float getAiTargetSpeed() {
+        return aiTargetSpeed;
+    }
+
+    /**
+     * Get the number of boats in the race
+     **/
+    public int getBoatCount() {
+        return boatCount;
+    }
+
+    /**
+     * Get the player's position among the race's boats
+     **/
+    public int getPlayerIndex() {
+        return playerIndex;
+    }
+
+    /**
+     * Get the number of ticks the player raced for
+     **/
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Get the size of the recorded inputs in bytes
+     **/
+    public int getInputSize() {
+        return inputs.position();
+    }
+
+    /**
+     * Get the time each boat finished in, in milliseconds, or -1 for a boat without one
+     **/
+    public int[] getFinishTimes() {
+        return Arrays.copyOf(finishTimes, finishTimes.length);
+    }
+
+    /**
+     * Reads the recorded controls back one tick at a time
+     */
+    static final class Inputs {
+        private final ByteBuffer runs;
+        private int controls = 0;
+        private int remaining = 0;
+
+        private Inputs(ByteBuffer runs) {
+            this.runs = runs;
+        }
+
+        /**
+         * Check whether there are any ticks left
+         **/
+        boolean hasNext() {
+            return remaining > 0 || runs.hasRemaining();
+        }
+
+        /**
+         * Get the controls held on the next tick
+         *
+         * @return int of CONTROL_ bits
+         */
+        int next() {
+            if (remaining == 0) {
+                long run = VarInts.getUnsigned(runs);
+                controls = (int) (run & CONTROL_MASK);
+                remaining = (int) Math.min(Integer.MAX_VALUE, run >>> CONTROL_BITS);
+            }
+            --remaining;
+            return controls;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.teamonehundred.pixelboat;
+
+/**
+ * Runs a race on its own thread at a fixed tick rate, publishing a {@link RaceSnapshot} after every tick.
+ * <p>
+ * Drawing interpolates between the two latest snapshots, so frames stay smooth when a tick is slow and simulating
+ * never holds up presenting a frame. The simulation captures into a spare snapshot while the latest two are read,
+ * and the three are only swapped under a short lock.
+ * <p>
+ * The thread stops by itself once the race is finished. While it's running the race must only be read through
+ * snapshots; once {@link #isRunning()} returns false everything the simulation did is visible to the caller.
+ */
+class RaceSimulation implements Runnable {
+
+    /**
+     * The time simulated by each tick in seconds
+     */
+    static final float TICK = 1.0f / 60.0f;
+    private static final long TICK_NANOS = (long) (TICK * 1000000000L);
+    // If the simulation falls this many ticks behind it skips ahead rather than trying to catch up
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final Runnable step;
+    private final Object snapshotLock = new Object();
+    private RaceSnapshot previous = new RaceSnapshot();
+    private RaceSnapshot latest = new RaceSnapshot();
+    private RaceSnapshot spare = new RaceSnapshot();
+
+    private BoatRace race;
+    private Thread thread;
+    private volatile boolean running = false;
+    private volatile RuntimeException failure;
+
+    /**
+     * Construct a simulation which isn't running a race yet
+     *
+     * @param step Advances the race by one tick, called on the simulation thread
+     */
+    RaceSimulation(Runnable step) {
+        this.step = step;
+    }
+
+    /**
+     * Set the race to simulate, and show it as it is now until the simulation starts
+     * <p>
+     * Must only be called while the simulation isn't running.
+     *
+     * @param race The race to simulate
+     */
+    void reset(BoatRace race) {
+        this.race = race;
+        race.capture(previous);
+        previous.capturedAt = System.nanoTime();
+        latest.set(previous);
+    }
+
+    /**
+     * Start simulating on a new thread, unless the simulation is already running or the race is finished
+     **/
+    void start() {
+        if (isRunning() || race.isFinished()) return;
+        running = true;
+        thread = new Thread(this, "race-simulation");
+        // Don't keep the game open if it's closed mid-race
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop simulating, waiting for the current tick to finish
+     **/
+    void stop() {
+        running = false;
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Check whether the simulation thread is still running
+     * <p>
+     * If the simulation failed, the exception it threw is thrown again here.
+     *
+     * @return true until the race finishes or the simulation is stopped
+     */
+    boolean isRunning() {
+        if (failure != null) {
+            RuntimeException e = failure;
+            failure = null;
+            throw e;
+        }
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Set a snapshot to the state to draw now, between the two latest ticks
+     *
+     * @param out The snapshot to set
+     */
+    void interpolate(RaceSnapshot out) {
+        synchronized (snapshotLock) {
+            // Drawing runs up to one tick behind the simulation, blending towards the latest tick as time passes
+            float alpha = (System.nanoTime() - latest.capturedAt) / (float) TICK_NANOS;
+            out.interpolate(previous, latest, Math.max(0.0f, Math.min(1.0f, alpha)));
+        }
+    }
+
+    /**
+     * The simulation loop, which shouldn't be called directly
+     **/
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (running && !race.isFinished()) {
+                step.run();
+                publish();
+
+                nextTick += TICK_NANOS;
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                } else if (-wait > MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                    nextTick = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped while waiting for the next tick
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /** Captures the race into the spare snapshot, then makes it the latest **/
+    private void publish() {
+        race.capture(spare);
+        spare.capturedAt = System.nanoTime();
+        synchronized (snapshotLock) {
+            RaceSnapshot oldest = previous;
+            previous = latest;
+            latest = spare;
+            spare = oldest;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.math.Vector2;
+
+import java.util.List;
+
+/**
+ * The state of a race needed to draw it, captured by the {@link RaceSimulation} after every tick.
+ * <p>
+ * The race is drawn from snapshots rather than from the boats themselves, so it can be simulated on another thread
+ * while it's drawn. Snapshots are reused, and capturing one only allocates when a boat finishes a leg.
+ */
+class RaceSnapshot {
+    // When the snapshot was captured, from System.nanoTime()
+    long capturedAt;
+    // How far an endless race's origin had been moved along the course, which every height is relative to
+    long originY;
+    // The race clock, in seconds
+    float clockTime;
+
+    // Per boat, in the order the race holds them
+    int boatCount;
+    float[] x = new float[0];
+    float[] y = new float[0];
+    float[] rotation = new float[0];
+    int[] frame = new int[0];
+
+    // The player's boat and HUD
+    int playerIndex;
+    float cameraX;
+    float cameraY;
+    float speed;
+    float stamina;
+    float durability;
+    boolean forwardLocked;
+    boolean hasStartedLeg;
+    int raceTime;
+    int legCount;
+    int[] legTimes = new int[0];
+
+    /**
+     * Capture the current state of the race
+     *
+     * @param boats  The boats in the race
+     * @param player The player's boat, which must be one of the boats
+     */
+    void capture(List<Boat> boats, PlayerBoat player) {
+        resize(boats.size());
+        for (int i = 0; i < boatCount; ++i) {
+            Boat boat = boats.get(i);
+            x[i] = boat.getSprite().getX();
+            y[i] = boat.getSprite().getY();
+            rotation[i] = boat.getSprite().getRotation();
+            frame[i] = boat.getAnimationFrame();
+            if (boat == player) playerIndex = i;
+        }
+
+        Vector2 focus = player.getCameraFocus();
+        cameraX = focus.x;
+        cameraY = focus.y;
+        speed = player.getSpeed();
+        stamina = player.getStamina();
+        durability = player.getDurability();
+        forwardLocked = player.isForwardLocked();
+        hasStartedLeg = player.hasStartedLeg();
+        raceTime = player.getCurrentRaceTime();
+
+        List<Integer> times = player.getLegTimes();
+        if (legTimes.length < times.size()) legTimes = new int[times.size()];
+        legCount = times.size();
+        for (int i = 0; i < legCount; ++i) {
+            legTimes[i] = times.get(i);
+        }
+    }
+
+    /**
+     * Set this to a state between two snapshots of the same race
+     * <p>
+     * Positions, rotations and the HUD bars are blended, everything else is taken from the later snapshot. If the
+     * origin moved between the snapshots, the earlier heights are moved with it first so nothing jumps.
+     *
+     * @param from  The earlier snapshot
+     * @param to    The later snapshot
+     * @param alpha How far between the snapshots to be, from 0 (from) to 1 (to)
+     */
+    void interpolate(RaceSnapshot from, RaceSnapshot to, float alpha) {
+        resize(to.boatCount);
+        float originShift = (float) (from.originY - to.originY);
+        for (int i = 0; i < boatCount; ++i) {
+            x[i] = lerp(from.x[i], to.x[i], alpha);
+            y[i] = lerp(from.y[i] + originShift, to.y[i], alpha);
+            rotation[i] = lerpDegrees(from.rotation[i], to.rotation[i], alpha);
+            frame[i] = to.frame[i];
+        }
+
+        playerIndex = to.playerIndex;
+        originY = to.originY;
+        clockTime = lerp(from.clockTime, to.clockTime, alpha);
+        cameraX = lerp(from.cameraX, to.cameraX, alpha);
+        cameraY = lerp(from.cameraY + originShift, to.cameraY, alpha);
+        speed = lerp(from.speed, to.speed, alpha);
+        stamina = lerp(from.stamina, to.stamina, alpha);
+        durability = lerp(from.durability, to.durability, alpha);
+        forwardLocked = to.forwardLocked;
+        hasStartedLeg = to.hasStartedLeg;
+        raceTime = to.raceTime;
+
+        if (legTimes.length < to.legCount) legTimes = new int[to.legCount];
+        legCount = to.legCount;
+        System.arraycopy(to.legTimes, 0, legTimes, 0, legCount);
+    }
+
+    /**
+     * Set this to an exact copy of another snapshot
+     *
+     * @param other The snapshot to copy
+     */
+    void set(RaceSnapshot other) {
+        interpolate(other, other, 1.0f);
+        capturedAt = other.capturedAt;
+    }
+
+    /** Makes sure there's room for the given number of boats **/
+    private void resize(int count) {
+        if (x.length < count) {
+            x = new float[count];
+            y = new float[count];
+            rotation = new float[count];
+            frame = new int[count];
+        }
+        boatCount = count;
+    }
+
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    /** Blends two angles the short way round **/
+    private static float lerpDegrees(float from, float to, float alpha) {
+        float delta = ((to - from) % 360.0f + 540.0f) % 360.0f - 180.0f;
+        return from + delta * alpha;
+    }
+}
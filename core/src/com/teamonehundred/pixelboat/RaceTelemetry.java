@@ -0,0 +1,383 @@
+package com.teamonehundred.pixelboat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/*
+ * Telemetry File Structure (version 1):
+ * All values are big-endian
+ *
+ * Header: magic ("PBTM"), format version, leg number, difficulty level, endless flag (1 or 0) and number of boats,
+ *         each a 4 byte integer
+ * Then any number of blocks, each a header of its row count, its size before and after compression and the CRC32 of
+ * its compressed bytes (4 byte integers), then the compressed bytes
+ *
+ * A block decompresses to its columns one after another: the tick of each row (4 byte integers), the boat (1 byte),
+ * then the x position, y position, speed, stamina and durability (floats), then the COLLIDED_ bits (1 byte) and
+ * power-up bits (1 byte). A block cut short by the game closing is ignored.
+ */
+
+/**
+ * Records every boat in a race on every tick to a file, for looking at how races play out afterwards
+ * <p>
+ * Rows are written into a few blocks of columns, one array per field, allocated once. A full block is handed to a
+ * background thread which compresses it and writes it out, then hands it back to be filled again. Recording never
+ * allocates or waits, so if the disk falls so far behind that every block is waiting to be written, rows are dropped
+ * and counted rather than holding up the race.
+ * <p>
+ * Only used by the thread simulating the race, apart from {@link #close()}, which must be called once it's stopped.
+ * Files are read with a {@link TelemetryReader}.
+ */
+public class RaceTelemetry {
+
+    /**
+     * The first 4 bytes of a telemetry file, "PBTM"
+     */
+    public static final int MAGIC = 0x5042544D;
+    /**
+     * The version of the format telemetry is written in
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    // 6 four byte integers
+    static final int HEADER_SIZE = 24;
+    // row count, raw size, compressed size and CRC32
+    static final int BLOCK_HEADER_SIZE = 16;
+    // tick, boat, the float columns, collisions and power-ups
+    static final int ROW_SIZE = 4 + 1 + 4 * 5 + 1 + 1;
+    // About 10 seconds of a race of 7 boats
+    static final int ROWS_PER_BLOCK = 4096;
+    // The blocks being filled and written between them
+    private static final int BLOCK_COUNT = 4;
+
+    private static boolean enabled = false;
+
+    private final Path path;
+    private final int legNumber;
+    private final int difficulty;
+    private final boolean endless;
+    private final int boatCount;
+    // Blocks ready to be filled, and blocks waiting to be written, which has room for the end of the file too
+    private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCK_COUNT);
+    private final BlockingQueue<Block> full = new ArrayBlockingQueue<>(BLOCK_COUNT + 1);
+    // Handed to the writer after the last block, so it knows the file is finished
+    private final Block end = new Block(0);
+    // Counted down once the writer has finished the file
+    private final CountDownLatch written = new CountDownLatch(1);
+    // The block being filled, or null if there wasn't one free
+    private Block current;
+    private int ticks = 0;
+    private long droppedRows = 0;
+    private boolean closed = false;
+
+    /** Construct a recorder writing to a file, and start its writer **/
+    private RaceTelemetry(Path path, int legNumber, int difficulty, boolean endless, int boatCount) {
+        this.path = path;
+        this.legNumber = legNumber;
+        this.difficulty = difficulty;
+        this.endless = endless;
+        this.boatCount = boatCount;
+        for (int i = 0; i < BLOCK_COUNT; ++i) {
+            free.add(new Block(ROWS_PER_BLOCK));
+        }
+
+        Thread thread = new Thread(this::write, "telemetry");
+        // Whatever's been written is still readable if the game closes part way through
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Start recording a race to a file, at the current difficulty
+     *
+     * @param path      The file to write, which is replaced
+     * @param race      The race to record
+     * @param legNumber The leg the race is
+     * @return The recorder, which rows are then recorded to
+     */
+    static RaceTelemetry start(Path path, BoatRace race, int legNumber) {
+        return new RaceTelemetry(path, legNumber, Difficulty.getInstance().getDifficultyLevel().ordinal(),
+                race.isEndless(), race.getBoatCount());
+    }
+
+    /**
+     * Set whether races are recorded
+     *
+     * @param enabled True to record every race played from now on
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        RaceTelemetry.enabled = enabled;
+    }
+
+    /**
+     * Get whether races are recorded
+     **/
+    public static synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a row for every boat in the race, at the end of a tick
+     *
+     * @param boats The boats in the race, in the same order as the race
+     */
+    void record(List<Boat> boats) {
+        for (int i = 0; i < boats.size(); ++i) {
+            if (current == null) {
+                current = free.poll();
+                if (current == null) {
+                    ++droppedRows;
+                    continue;
+                }
+            }
+            current.put(ticks, i, boats.get(i));
+            if (current.rows == ROWS_PER_BLOCK) {
+                // There are only ever as many blocks as the queue has room for, so this always succeeds
+                full.offer(current);
+                current = null;
+            }
+        }
+        ++ticks;
+    }
+
+    /**
+     * Finish recording, writing what's left in the background
+     * <p>
+     * Must be called once the race has stopped being simulated. Nothing can be recorded afterwards.
+     */
+    void close() {
+        if (closed) return;
+        closed = true;
+        if (current != null && current.rows > 0) full.offer(current);
+        current = null;
+        full.offer(end);
+        if (droppedRows > 0) {
+            System.out.println("WARNING - Telemetry fell behind, " + droppedRows + " rows were dropped");
+        }
+    }
+
+    /**
+     * Wait for everything recorded to be written, once the recorder is closed
+     *
+     * @param timeoutMillis The longest to wait, in milliseconds
+     * @return True if the file is finished, or false if it took too long
+     */
+    boolean awaitWritten(long timeoutMillis) {
+        try {
+            return written.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Writes blocks as they fill until the recorder is closed, run by the writer thread **/
+    private void write() {
+        ByteBuffer raw = ByteBuffer.allocate(ROWS_PER_BLOCK * ROW_SIZE);
+        // Deflate can make incompressible data slightly bigger
+        byte[] compressed = new byte[raw.capacity() + raw.capacity() / 1000 + 64];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        CRC32 crc = new CRC32();
+        ByteBuffer header = ByteBuffer.allocate(Math.max(HEADER_SIZE, BLOCK_HEADER_SIZE));
+
+        FileChannel channel = null;
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            if (directory != null) Files.createDirectories(directory);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(legNumber).putInt(difficulty)
+                    .putInt(endless ? 1 : 0).putInt(boatCount).flip();
+            writeFully(channel, header);
+        } catch (IOException e) {
+            System.out.println("Telemetry could not be written: " + e.getMessage());
+            channel = close(channel);
+        }
+
+        try {
+            Block block;
+            while ((block = full.take()) != end) {
+                if (channel != null) {
+                    try {
+                        raw.clear();
+                        block.writeColumns(raw);
+                        deflater.reset();
+                        deflater.setInput(raw.array(), 0, raw.position());
+                        deflater.finish();
+                        int size = deflater.deflate(compressed);
+                        if (!deflater.finished()) throw new IOException("Block did not compress");
+                        crc.reset();
+                        crc.update(compressed, 0, size);
+
+                        header.clear();
+                        header.putInt(block.rows).putInt(raw.position()).putInt(size).putInt((int) crc.getValue());
+                        header.flip();
+                        writeFully(channel, header);
+                        writeFully(channel, ByteBuffer.wrap(compressed, 0, size));
+                    } catch (IOException e) {
+                        System.out.println("Telemetry could not be written: " + e.getMessage());
+                        channel = close(channel);
+                    }
+                }
+                // The block goes back to be filled even if it couldn't be written, so recording never stalls
+                block.rows = 0;
+                free.offer(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+            close(channel);
+            written.countDown();
+        }
+    }
+
+    /** Writes the whole of a buffer **/
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /** Closes a channel if it's open, returning null so it isn't used again **/
+    private static FileChannel close(FileChannel channel) {
+        if (channel == null) return null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Telemetry could not be closed: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of rows that couldn't be recorded because the disk fell behind
+     **/
+    public long getDroppedRows() {
+        return droppedRows;
+    }
+
+    /**
+     * The float fields recorded for each boat on each tick
+     */
+    public enum Column {X, Y, SPEED, STAMINA, DURABILITY}
+
+    /**
+     * A block of rows, held as one array per field
+     */
+    public static final class Block {
+        final int[] tick;
+        final byte[] boat;
+        // Indexed by column ordinal, then row
+        final float[][] floats;
+        final byte[] collisions;
+        final byte[] powerups;
+        int rows = 0;
+
+        /** Construct an empty block with room for a number of rows **/
+        Block(int capacity) {
+            tick = new int[capacity];
+            boat = new byte[capacity];
+            floats = new float[Column.values().length][capacity];
+            collisions = new byte[capacity];
+            powerups = new byte[capacity];
+        }
+
+        /** Adds a row for a boat **/
+        private void put(int tickNumber, int boatIndex, Boat b) {
+            tick[rows] = tickNumber;
+            boat[rows] = (byte) boatIndex;
+            floats[0][rows] = b.getSprite().getX();
+            floats[1][rows] = b.getSprite().getY();
+            floats[2][rows] = b.getSpeed();
+            floats[3][rows] = b.getStamina();
+            floats[4][rows] = b.getDurability();
+            collisions[rows] = (byte) b.getTickCollisions();
+            powerups[rows] = (byte) b.getTickPowerups();
+            ++rows;
+        }
+
+        /** Writes the rows one column after another **/
+        void writeColumns(ByteBuffer out) {
+            for (int i = 0; i < rows; ++i) out.putInt(tick[i]);
+            out.put(boat, 0, rows);
+            for (float[] column : floats) {
+                for (int i = 0; i < rows; ++i) out.putFloat(column[i]);
+            }
+            out.put(collisions, 0, rows);
+            out.put(powerups, 0, rows);
+        }
+
+        /** Reads rows written by writeColumns, filling the block **/
+        void readColumns(ByteBuffer in) {
+            for (int i = 0; i < rows; ++i) tick[i] = in.getInt();
+            in.get(boat, 0, rows);
+            for (float[] column : floats) {
+                for (int i = 0; i < rows; ++i) column[i] = in.getFloat();
+            }
+            in.get(collisions, 0, rows);
+            in.get(powerups, 0, rows);
+        }
+
+        /**
+         * Get the number of rows in the block
+         **/
+        public int getRowCount() {
+            return rows;
+        }
+
+        /**
+         * Get the tick a row was recorded on, counted from the start of the recording
+         **/
+        public int getTick(int row) {
+            return tick[row];
+        }
+
+        /**
+         * Get the position in the race of the boat a row is for
+         **/
+        public int getBoat(int row) {
+            return boat[row];
+        }
+
+        /**
+         * Get one of the float fields of a row
+         *
+         * @param column The field
+         * @param row    The row
+         * @return The value
+         */
+        public float get(Column column, int row) {
+            return floats[column.ordinal()][row];
+        }
+
+        /**
+         * Get what the boat hit on a row's tick
+         *
+         * @return int of Boat.COLLIDED_ bits
+         */
+        public int getCollisions(int row) {
+            return collisions[row];
+        }
+
+        /**
+         * Get the power-ups the boat picked up on a row's tick
+         *
+         * @return int with the bit (1 << type.ordinal()) set for each type of power-up
+         */
+        public int getPowerups(int row) {
+            return powerups[row];
+        }
+    }
+}
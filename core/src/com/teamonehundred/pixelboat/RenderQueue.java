@@ -0,0 +1,129 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
+import com.teamonehundred.pixelboat.util.BandIndex;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A retained queue of the lane objects to draw, split into bands by height.
+ * <p>
+ * Each band is sorted once by layer and then texture, so drawing walks objects that share a texture together.
+ * The queue only changes when objects are added or removed, and drawing it doesn't allocate. Objects which are
+ * currently drawn by the {@link SceneryCache} are skipped.
+ */
+class RenderQueue {
+
+    // Sort by layer first so layers are drawn in order, then group objects using the same texture
+    private static final Comparator<CollisionObject> DRAW_ORDER = Comparator
+            .comparingInt((CollisionObject o) -> ((GameObject) o).getRenderLayer())
+            .thenComparingInt(o -> ((GameObject) o).getSprite().getTexture().getTextureObjectHandle());
+
+    private final BandIndex bands;
+    private int layerCount = 0;
+    // Objects moved by the clock are copied into this to be drawn, so drawing never moves them
+    private final Sprite clockedSprite = new Sprite();
+
+    /**
+     * Construct an empty queue covering the given heights
+     *
+     * @param minY The lowest height covered
+     * @param maxY The highest height covered
+     */
+    RenderQueue(float minY, float maxY) {
+        bands = new BandIndex(minY, maxY);
+    }
+
+    /**
+     * Add an object to the queue, which must be sorted again before drawing
+     *
+     * @param minY The lowest height the object is ever drawn at
+     * @param maxY The highest height the object is ever drawn at
+     * @param obj  The object to add
+     */
+    void add(float minY, float maxY, CollisionObject obj) {
+        bands.add(minY, maxY, obj);
+        // All collision objects are game objects (so far)
+        layerCount = Math.max(layerCount, ((GameObject) obj).getRenderLayer() + 1);
+    }
+
+    /**
+     * Sort every band into drawing order
+     **/
+    void sort() {
+        for (int band = 0; band < bands.getBandCount(); ++band) {
+            bands.get(band).sort(DRAW_ORDER);
+        }
+    }
+
+    /**
+     * Remove an object from the queue, keeping the order of everything else
+     *
+     * @param obj The object to remove
+     */
+    void remove(CollisionObject obj) {
+        bands.remove(obj);
+    }
+
+    /**
+     * Remove an object from the queue, only looking in the bands it was added to
+     *
+     * @param minY The lowest height the object was added with
+     * @param maxY The highest height the object was added with
+     * @param obj  The object to remove
+     */
+    void remove(float minY, float maxY, CollisionObject obj) {
+        bands.remove(minY, maxY, obj);
+    }
+
+    /**
+     * Remove all objects from the queue
+     **/
+    void clear() {
+        bands.clear();
+        layerCount = 0;
+    }
+
+    /**
+     * Draw every shown object overlapping the view
+     * <p>
+     * Objects moved by the race clock are drawn where they are at the time given, which can be behind the race.
+     *
+     * @param batch The batch to draw to
+     * @param view  The area of the world in view
+     * @param time  The race time to draw moving objects at, in seconds
+     */
+    void draw(Batch batch, Rectangle view, float time) {
+        // Each object is only drawn from the band it starts in, which may be just below the view
+        int firstBand = Math.max(0, bands.getBand(view.y) - 1);
+        int lastBand = bands.getBand(view.y + view.height);
+
+        for (int layer = 0; layer < layerCount; ++layer) {
+            for (int band = firstBand; band <= lastBand; ++band) {
+                List<CollisionObject> objects = bands.get(band);
+                // Indexed rather than iterated to avoid allocating an iterator every frame
+                for (int i = 0; i < objects.size(); ++i) {
+                    CollisionObject obj = objects.get(i);
+                    GameObject go = (GameObject) obj;
+                    if (go.getRenderLayer() != layer || !obj.isShown()) continue;
+                    // Objects looking as they were baked into the scenery are already drawn
+                    if (go.isStaticScenery()) continue;
+                    Sprite sprite;
+                    if (obj instanceof ClockedObject) {
+                        ((ClockedObject) obj).getSpriteAt(time, clockedSprite);
+                        sprite = clockedSprite;
+                    } else {
+                        sprite = go.getSprite();
+                    }
+                    if (bands.getBand(sprite.getY()) != band) continue;
+                    if (sprite.getBoundingRectangle().overlaps(view)) {
+                        sprite.draw(batch);
+                    }
+                }
+            }
+        }
+    }
+}
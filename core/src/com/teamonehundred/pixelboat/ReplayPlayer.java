@@ -0,0 +1,189 @@
+package com.teamonehundred.pixelboat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Simulates races again from {@link RaceReplay replays}, without drawing anything
+ * <p>
+ * Playing a replay back gives the same finish times as the race it was recorded from, so replays can reproduce bugs
+ * and be kept as a corpus to check the simulation against. It can be played as fast as it simulates, or paced at a
+ * multiple of real time.
+ * <p>
+ * Races still load their textures, so a libGDX application must be running, though it needn't be able to draw.
+ */
+public final class ReplayPlayer {
+
+    // How long to wait for a replay's telemetry to be written
+    private static final long TELEMETRY_TIMEOUT_MILLIS = 10000;
+
+    private ReplayPlayer() {
+    }
+
+    /**
+     * Simulate a replay again
+     * <p>
+     * The race is played at the difficulty it was recorded at, and the difficulty is put back afterwards.
+     *
+     * @param replay The replay to play
+     * @param speed  How many times faster than real time to play, or 0 to play as fast as possible
+     * @return What happened when the replay was played
+     */
+    public static Result play(RaceReplay replay, float speed) {
+        return play(replay, speed, null);
+    }
+
+    /**
+     * Simulate a replay again, recording its {@link RaceTelemetry telemetry}
+     * <p>
+     * The race is played at the difficulty it was recorded at, and the difficulty is put back afterwards. The
+     * telemetry is finished being written by the time this returns.
+     *
+     * @param replay    The replay to play
+     * @param speed     How many times faster than real time to play, or 0 to play as fast as possible
+     * @param telemetry The file to record the race's telemetry to, or null to not record it
+     * @return What happened when the replay was played
+     */
+    public static Result play(RaceReplay replay, float speed, Path telemetry) {
+        Difficulty difficulty = Difficulty.getInstance();
+        Difficulty.DifficultyLevel previousLevel = difficulty.getDifficultyLevel();
+        difficulty.setDifficultyLevel(replay.getDifficulty());
+        try {
+            PlayerBoat player = new PlayerBoat(-15, 0);
+            List<Boat> boats = makeBoats(player, replay.getBoatCount(), replay.getPlayerIndex(),
+                    replay.getAiTargetSpeed());
+            LaneObjectPools pools = new LaneObjectPools(new RaceClock());
+            BoatRace race = BoatRace.restore(boats, player, pools, replay.getStart());
+            RaceTelemetry recorder = telemetry == null ? null
+                    : RaceTelemetry.start(telemetry, race, replay.getLegNumber());
+            race.setTelemetry(recorder);
+
+            RaceReplay.Inputs inputs = replay.getInputs();
+            long tickNanos = speed > 0.0f ? (long) (RaceSimulation.TICK * 1000000000L / speed) : 0L;
+            long startedAt = System.nanoTime();
+            long nextTick = startedAt;
+            int ticks = 0;
+            boolean diverged = false;
+            try {
+                while (!race.isFinished()) {
+                    if (!player.hasFinishedLeg()) {
+                        // A race still going once the inputs run out isn't the race that was recorded
+                        if (!inputs.hasNext()) {
+                            diverged = true;
+                            break;
+                        }
+                        player.setControls(inputs.next());
+                        ++ticks;
+                    }
+                    player.latchControls();
+                    race.runTick();
+
+                    if (tickNanos > 0) {
+                        nextTick += tickNanos;
+                        long wait = nextTick - System.nanoTime();
+                        if (wait > 0) Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                diverged = true;
+            }
+            long nanos = System.nanoTime() - startedAt;
+
+            int[] finishTimes = RaceReplay.getFinishTimes(boats);
+            race.free();
+            if (recorder != null) {
+                recorder.close();
+                if (!recorder.awaitWritten(TELEMETRY_TIMEOUT_MILLIS)) {
+                    System.out.println("WARNING - Telemetry took too long to write");
+                }
+            }
+            boolean matches = !diverged && ticks == replay.getTicks()
+                    && Arrays.equals(finishTimes, replay.getFinishTimes());
+            return new Result(finishTimes, ticks, nanos, matches);
+        } finally {
+            difficulty.setDifficultyLevel(previousLevel);
+        }
+    }
+
+    /**
+     * Record a leg played by a script rather than a person, at the current difficulty
+     * <p>
+     * The leg is simulated as fast as possible, so replays for a corpus can be made without playing them.
+     *
+     * @param seed      The seed the course is generated from
+     * @param legNumber The leg to race, which sets how many obstacles there are
+     * @param spec      The player's boat spec
+     * @param script    Gives the CONTROL_ bits held on each tick, from the number of the tick
+     * @return The replay of the leg
+     */
+    public static RaceReplay record(long seed, int legNumber, int spec, IntUnaryOperator script) {
+        final int boatCount = 7;
+        final int playerIndex = boatCount / 2;
+        float aiTargetSpeed = Difficulty.getInstance().getBoatTargetSpeed();
+
+        PlayerBoat player = new PlayerBoat(-15, 0);
+        List<Boat> boats = makeBoats(player, boatCount, playerIndex, aiTargetSpeed);
+        LaneObjectPools pools = new LaneObjectPools(new RaceClock());
+        BoatRace race = new BoatRace(boats, player, new RaceCourse(boatCount, legNumber, pools, seed, false), pools);
+        player.setSpec(spec);
+
+        RaceReplay replay = RaceReplay.start(race, playerIndex, legNumber, aiTargetSpeed);
+        while (!race.isFinished()) {
+            if (!player.hasFinishedLeg()) {
+                player.setControls(script.applyAsInt(replay.getTicks()));
+                replay.record(player.latchControls());
+            }
+            race.runTick();
+        }
+        replay.finish(boats);
+        race.free();
+        return replay;
+    }
+
+    /** Makes the boats for a race, with the player at its position among them **/
+    private static List<Boat> makeBoats(PlayerBoat player, int boatCount, int playerIndex, float aiTargetSpeed) {
+        player.setName("Player");
+        List<Boat> boats = new ArrayList<>(boatCount);
+        for (int i = 0; i < boatCount; ++i) {
+            if (i == playerIndex) {
+                boats.add(player);
+            } else {
+                Boat boat = new AIBoat(0, 40, aiTargetSpeed);
+                boat.setName("AI Boat " + i);
+                boats.add(boat);
+            }
+        }
+        return boats;
+    }
+
+    /**
+     * What happened when a replay was played back
+     */
+    public static final class Result {
+        // The time each boat finished in, in milliseconds, or -1 for a boat without one
+        public final int[] finishTimes;
+        // The number of ticks the player raced for
+        public final int ticks;
+        // How long simulating the race took, in nanoseconds
+        public final long nanos;
+        private final boolean matches;
+
+        private Result(int[] finishTimes, int ticks, long nanos, boolean matches) {
+            this.finishTimes = finishTimes;
+            this.ticks = ticks;
+            this.nanos = nanos;
+            this.matches = matches;
+        }
+
+        /**
+         * Check whether the race played out as it was recorded, lasting as long and finishing in the same times
+         **/
+        public boolean matches() {
+            return matches;
+        }
+    }
+}
@@ -1,34 +1,129 @@
 package com.teamonehundred.pixelboat;
 
-import java.io.*;
+import com.badlogic.gdx.Gdx;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
 
 /*
- * Save File Structure:
- * (Yes, it's very lazy.  No, I don't care)
+ * Save File Structure (version 2):
+ * All values are big-endian 4 byte integers
+ *
+ * Header: magic ("PBSV"), format version, payload length in bytes
+ * Payload: current leg of the race, player boat spec, number of AI boats,
+ *          then the player's times and each AI boat's times, each as a count followed by the times
+ * Last 4 bytes are the CRC32 of everything before them
+ *
+ * Version 1 files have no header, and are still loaded:
  *
  * First 4 bytes is the current leg of the race
  * Second 4 bytes is number of AI boats
  * Third 4 bytes are player boat spec
- * Next 12 bytes are the player times (as long)
- * Remaining bytes are times for each boat (also as long)
- * Last 4 bytes is the checksum
+ * Next (leg) ints are the player times
+ * Remaining ints are times for each AI boat, (leg) per boat
+ * Last 4 bytes is the checksum, from Objects.hash
+ *
+ * Saves are kept in numbered slots in the save directory, alongside an index of them written by SaveSlots.
+ * A single save file from before there were slots is still loaded.
+ *
+ * Replays of the latest races are written to the replay directory in the format described by RaceReplay.
+ *
+ * Ghosts are written to the ghost directory in the format described by GhostTrack, named by the difficulty, spec and
+ * finish time of the run. A better run is written as a new file rather than replacing the old one, as the old one may
+ * still be mapped into memory, and worse runs are deleted the next time a ghost is loaded.
+ *
+ * When telemetry is enabled, every race is recorded to the telemetry directory in the format described by
+ * RaceTelemetry, named by its leg and when it started.
+ *
+ * The player's times are kept in the leaderboard directory, in the format described by Leaderboard.
+ *
+ * Suspended races are kept in their own file, framed the same way with the magic "PBRS" and their own version.
+ * Their payload is the leg number and the player's position in the boat list as varints, then the race's state as
+ * written by BoatRace.writeState.
+ *
+ * The autosave journal is a list of records, each a 4 byte payload length, the CRC32 of the payload, then a payload
+ * in the same format as a save. The last intact record is the latest state. Every few records the journal is
+ * compacted into a checkpoint, which is a save file like any other.
  */
 
 /**
  * Allows for the game state to be serialised into a check-summed binary file,
  * and later de-serialised back into the game state
  * Allows users to stop a game and continue later
+ * <p>
+ * Saves are written to a temporary file which then replaces the save, so a crash while saving leaves the previous
+ * save intact.
+ * <p>
+ * Every save goes into a new {@link SaveSlots slot}, so earlier saves are never overwritten.
+ * <p>
+ * A race can also be suspended part way through, and is carried on the next time a game is loaded.
+ * <p>
+ * Everything is written by the {@link AutosaveService} on a background thread. The game is autosaved to a journal
+ * after every leg, and the race in progress is snapshotted now and then, so a crash loses at most the current leg.
  */
 public class SaveManager {
 
-    // The name of the save file
-    private static final String SAVE_NAME = "state.sav";
+    /**
+     * The first 4 bytes of every save since version 2, "PBSV"
+     */
+    public static final int MAGIC = 0x50425356;
+    /**
+     * The version of the format saves are written in
+     */
+    public static final int FORMAT_VERSION = 2;
+    /**
+     * The first 4 bytes of a suspended race, "PBRS"
+     */
+    public static final int RACE_MAGIC = 0x50425253;
+    /**
+     * The version of the format suspended races are written in
+     */
+    public static final int RACE_FORMAT_VERSION = 2;
+
+    // The name of the single save file from before saves had slots, which is still loaded
+    private static final String LEGACY_SAVE_NAME = "state.sav";
+    // The name of the suspended race file, which is deleted once the race is carried on or finished
+    private static final String RACE_SAVE_NAME = "race.sav";
+    // The directory replays of the latest races are kept in, one per leg
+    private static final String REPLAY_DIRECTORY_NAME = "replays";
+    // The directory the best run at each difficulty and spec is kept in, to be raced as a ghost
+    private static final String GHOST_DIRECTORY_NAME = "ghosts";
+    private static final String GHOST_SUFFIX = ".ghost";
+    // The directory races are recorded to when telemetry is enabled, one file per race
+    private static final String TELEMETRY_DIRECTORY_NAME = "telemetry";
+    // The names of the autosave journal and the checkpoint it's compacted into
+    private static final String JOURNAL_NAME = "autosave.journal";
+    private static final String CHECKPOINT_NAME = "autosave.sav";
+    // payload length + CRC32
+    private static final int RECORD_HEADER_SIZE = 8;
+    // The file a save is written to before replacing the save file
+    private static final String TEMP_SUFFIX = ".tmp";
+    // magic + version + payload length
+    private static final int HEADER_SIZE = 12;
+    private static final int CHECKSUM_SIZE = 4;
+    // Far bigger than any real save, so a corrupt length can't allocate a huge buffer
+    private static final int MAX_SAVE_SIZE = 1 << 20;
     // Reference to main game
     private final SceneMainGame mainGame;
+
     /**
      * Construct a new Save Manager
      **/
@@ -36,195 +131,694 @@ public class SaveManager {
         this.mainGame = mainGame;
     }
 
+    /** Something read on the I/O thread to be loaded, which is null if there's nothing to load **/
+    private interface Read<T> {
+        T run() throws IOException;
+    }
+
     /**
-     * Reads an integer by concatenating 4 bytes
-     **/
-    private int readInt(BufferedInputStream fs) throws IOException {
-        byte[] b = new byte[4];
-        for (int i = 0; i < 4; ++i) {
-            int result = fs.read();
-            if (result == -1) throw new IOException("The reader tried to read data that wasn't there");
-            b[i] = (byte) result;
+     * Loads the game state into the main game, from whichever of the newest slot and the autosave was written last
+     * <p>
+     * The save is read on the I/O thread, and applied to the main game back on the game's thread.
+     *
+     * @param loaded Called on the game's thread once it's done, with whether the load was successful
+     */
+    void loadState(Consumer<Boolean> loaded) {
+        // Only the newest slot can be the latest save, so the others are never looked at
+        List<SaveSlots.Slot> slots = SaveSlots.getInstance().getSlots();
+        Path save = slots.isEmpty() ? Paths.get(LEGACY_SAVE_NAME)
+                : SaveSlots.getInstance().getSlotPath(slots.get(slots.size() - 1).id);
+        Path journal = Paths.get(JOURNAL_NAME);
+        Path checkpoint = Paths.get(CHECKPOINT_NAME);
+
+        loadInBackground(() -> {
+            boolean hasAutosave = Files.exists(journal) || Files.exists(checkpoint);
+            // If the file doesn't exist, error out
+            if (!Files.exists(save) && !hasAutosave) {
+                System.out.println("Save file does not exist");
+                return null;
+            }
+            FileTime autosaved = max(getModifiedTime(journal), getModifiedTime(checkpoint));
+            if (hasAutosave && autosaved.compareTo(getModifiedTime(save)) >= 0) {
+                return readAutosave(journal, checkpoint);
+            }
+            return read(save);
+        }, "Save could not be loaded: ", this::applyState, loaded);
+    }
+
+    /**
+     * Loads the game state saved in a slot into the main game
+     * <p>
+     * The save is read on the I/O thread, and applied to the main game back on the game's thread. The main game reads
+     * the difficulty when it's built, so it must have been built at the difficulty the slot was saved at.
+     *
+     * @param slot   The slot to load
+     * @param loaded Called on the game's thread once it's done, with whether the load was successful
+     */
+    void loadSlot(SaveSlots.Slot slot, Consumer<Boolean> loaded) {
+        Path path = SaveSlots.getInstance().getSlotPath(slot.id);
+        loadInBackground(() -> read(path), "Save could not be loaded: ", this::applyState, loaded);
+    }
+
+    /**
+     * Read something on the I/O thread, after every write queued before it, then apply it on the game's thread
+     *
+     * @param read    The read, giving null if there's nothing to load
+     * @param failure What to say before the message if the read fails
+     * @param apply   What to do with what's read on the game's thread, giving whether it worked
+     * @param loaded  Called on the game's thread once it's done, with whether it was read and applied
+     */
+    private static <T> void loadInBackground(Read<T> read, String failure, Predicate<T> apply,
+                                             Consumer<Boolean> loaded) {
+        boolean queued = AutosaveService.getInstance().submit(() -> {
+            T result = null;
+            try {
+                result = read.run();
+            } catch (IOException | RuntimeException e) {
+                System.out.println(failure + e.getMessage());
+            }
+            final T loadedResult = result;
+            Gdx.app.postRunnable(() -> loaded.accept(loadedResult != null && apply.test(loadedResult)));
+        });
+        if (!queued) loaded.accept(false);
+    }
+
+    /** Applies loaded save data to the main game, failing if it doesn't fit **/
+    private boolean applyState(SaveData sd) {
+        // A save from a race with a different number of boats can't be applied
+        if (sd.aiTimes.size() != mainGame.getAllBoats().size() - 1) {
+            System.out.println("Save has a different number of boats to the game");
+            return false;
+        }
+
+        // Apply the save data to the main game
+        mainGame.setLegNumber(sd.legNumber);
+        mainGame.getPlayer().setLegTimes(sd.playerTimes);
+        mainGame.setPlayerSpec(sd.playerBoatSpec);
+
+        int i = 0;
+        for (Boat b : mainGame.getAllBoats()) {
+            if (!(b instanceof PlayerBoat)) {
+                b.setLegTimes(sd.aiTimes.get(i));
+                ++i;
+            }
         }
-        return ByteBuffer.wrap(b).getInt();
+
+        return true;
     }
 
     /**
-     * Loads the game state into the main game
+     * Save the state of the game to a new slot, in the background
+     * <p>
+     * The slot is written before the index that lists it, so the index never lists a slot that isn't there. If
+     * either write is dropped because too many are waiting, the slot is taken out of the index again.
      *
-     * @return True if the load is successful, or false otherwise
+     * @return True once the save is queued to be written, or false if it was dropped
      */
-    boolean loadState() {
-        // If the file doesn't exist, error out
-        File file = new File(SAVE_NAME);
-        if (!file.exists()) {
-            System.out.println("Save file does not exist");
+    boolean saveState() {
+        SaveData sd = collectState();
+        SaveSlots slots = SaveSlots.getInstance();
+        SaveSlots.Slot slot = slots.add(sd, Difficulty.getInstance().getDifficultyLevel(), System.currentTimeMillis());
+
+        AutosaveService autosave = AutosaveService.getInstance();
+        if (!autosave.writeFramed(slots.getSlotPath(slot.id), MAGIC, FORMAT_VERSION, encode(sd))) {
+            slots.remove(slot);
             return false;
         }
-        // If the file is too short (current leg + boat count + spec ID + player time 1 + checksum == 20 bytes),
-        // error out
-        if (file.length() < 20) {
+        if (!autosave.writeFramed(slots.getIndexPath(), SaveSlots.INDEX_MAGIC, SaveSlots.INDEX_FORMAT_VERSION,
+                slots.encodeIndex())) {
+            // The index on disk doesn't list the slot, so its file is never read
+            slots.remove(slot);
+            autosave.delete(slots.getSlotPath(slot.id));
             return false;
         }
-        // Try to do this...
-        try {
-            // Open the file for reading
-            FileInputStream fs = new FileInputStream(SAVE_NAME);
-            BufferedInputStream inputStream = new BufferedInputStream(fs);
+        return true;
+    }
+
+    /**
+     * Autosave the game after a leg, appending it to the journal in the background
+     * <p>
+     * The race that was in progress is finished, so any snapshot of it is deleted.
+     */
+    void autosaveLeg() {
+        AutosaveService autosave = AutosaveService.getInstance();
+        autosave.appendJournal(Paths.get(JOURNAL_NAME), Paths.get(CHECKPOINT_NAME), encode(collectState()));
+        autosave.delete(Paths.get(RACE_SAVE_NAME));
+    }
+
+    /**
+     * Snapshot the race in progress in the background, so it can be carried on after a crash
+     * <p>
+     * Must only be called by the thread simulating the race, or while it's stopped.
+     *
+     * @return True once the snapshot is queued to be written, or false if it was dropped
+     */
+    boolean autosaveRace() {
+        return AutosaveService.getInstance().writeFramed(Paths.get(RACE_SAVE_NAME), RACE_MAGIC, RACE_FORMAT_VERSION,
+                mainGame.captureRace());
+    }
+
+    /**
+     * Delete any snapshot of the race in progress, in the background, once it's over
+     **/
+    void discardRace() {
+        AutosaveService.getInstance().delete(Paths.get(RACE_SAVE_NAME));
+    }
 
-            // Create a new SaveData struct to hold the data
-            SaveData sd = new SaveData();
+    /**
+     * Write the replay of a race that's over in the background, replacing the last replay of the same leg
+     *
+     * @param replay The replay, which mustn't be changed afterwards
+     */
+    void saveReplay(RaceReplay replay) {
+        String name = replay.isEndless() ? "endless.replay" : "leg-" + replay.getLegNumber() + ".replay";
+        AutosaveService.getInstance().writeFramed(Paths.get(REPLAY_DIRECTORY_NAME, name), RaceReplay.MAGIC,
+                RaceReplay.FORMAT_VERSION, replay.encode());
+    }
 
-            // Read in the leg number and boat count
-            sd.legNumber = readInt(inputStream);
-            sd.boatCount = readInt(inputStream);
-            sd.playerBoatSpec = readInt(inputStream);
+    /**
+     * Write a run of a leg in the background, to be raced as a ghost at the same difficulty and spec
+     *
+     * @param difficulty The difficulty the run was at
+     * @param spec       The player's boat spec
+     * @param finishTime The time the run finished in, in milliseconds
+     * @param recorder   The run, which mustn't be recorded to until the ghost is encoded
+     */
+    void saveGhost(Difficulty.DifficultyLevel difficulty, int spec, int finishTime, GhostTrack.Recorder recorder) {
+        String name = getGhostPrefix(difficulty, spec) + finishTime + GHOST_SUFFIX;
+        AutosaveService.getInstance().writeFramed(Paths.get(GHOST_DIRECTORY_NAME, name), GhostTrack.MAGIC,
+                GhostTrack.FORMAT_VERSION, recorder.encode(finishTime));
+    }
 
-            // Get all player times for the number of legs
-            for (int i = 0; i < sd.legNumber; ++i) {
-                sd.playerTimes.add(readInt(inputStream));
+    /**
+     * Load the fastest run at a difficulty and spec to race as a ghost in the background, deleting any slower ones
+     * <p>
+     * The ghosts are looked for on the I/O thread after every write already queued, so a run just saved is found.
+     * The run is mapped into memory rather than read, and its samples are read as the race is drawn.
+     *
+     * @param difficulty The difficulty of the race
+     * @param spec       The player's boat spec
+     * @return The fastest run once it's loaded, which is null if there isn't one that can be read
+     */
+    CompletableFuture<GhostTrack> loadGhost(Difficulty.DifficultyLevel difficulty, int spec) {
+        CompletableFuture<GhostTrack> ghost = new CompletableFuture<>();
+        boolean queued = AutosaveService.getInstance().submit(() -> {
+            try {
+                ghost.complete(findGhost(difficulty, spec));
+            } finally {
+                // Does nothing if it's already been found, so the race is never left waiting
+                ghost.complete(null);
             }
+        });
+        if (!queued) ghost.complete(null);
+        return ghost;
+    }
+
+    /** Finds and maps the fastest run at a difficulty and spec, deleting any slower ones **/
+    private static GhostTrack findGhost(Difficulty.DifficultyLevel difficulty, int spec) {
+        Path directory = Paths.get(GHOST_DIRECTORY_NAME);
+        if (!Files.isDirectory(directory)) return null;
+        String prefix = getGhostPrefix(difficulty, spec);
 
-            // Get all ai times for the number of legs and boats
-            for (int i = 0; i < sd.boatCount; ++i) {
-                sd.aiTimes.add(new ArrayList<>());
-                for (int j = 0; j < sd.legNumber; ++j) {
-                    sd.aiTimes.get(i).add(readInt(inputStream));
+        // Fastest first, by the finish time in the name
+        List<Path> runs = new ArrayList<>();
+        List<Integer> times = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + GHOST_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    int time = Integer.parseInt(name.substring(prefix.length(), name.length() - GHOST_SUFFIX.length()));
+                    int i = 0;
+                    while (i < times.size() && times.get(i) <= time) ++i;
+                    runs.add(i, file);
+                    times.add(i, time);
+                } catch (NumberFormatException ignored) {
+                    // Not a ghost this game wrote
                 }
             }
+        } catch (IOException e) {
+            System.out.println("Ghosts could not be listed: " + e.getMessage());
+            return null;
+        }
 
-            // Read the checksum
-            int checkSum = readInt(inputStream);
-            // Compute the checksum and compare it to the one we've just read.  If they don't match error out
-            if (checkSum != sd.hashCode()) {
-                System.out.println("Save hash does not match computed hash");
-                inputStream.close();
-                return false;
+        GhostTrack ghost = null;
+        for (Path run : runs) {
+            if (ghost == null) {
+                try {
+                    ghost = GhostTrack.open(mapFramed(run, GhostTrack.MAGIC, GhostTrack.FORMAT_VERSION));
+                    continue;
+                } catch (IOException e) {
+                    System.out.println("Ghost could not be loaded: " + e.getMessage());
+                }
             }
+            // Slower and unreadable runs will never be raced. One still mapped from an earlier race is left for later
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ignored) {
+            }
+        }
+        return ghost;
+    }
+
+    /**
+     * Start recording a race's telemetry to a new file, if telemetry is enabled
+     * <p>
+     * Doesn't touch the disk itself, as the file is created and written by the recorder's own writer thread.
+     *
+     * @param race      The race, which mustn't be being simulated
+     * @param legNumber The leg the race is
+     * @return The recorder, or null if telemetry isn't enabled
+     */
+    RaceTelemetry startTelemetry(BoatRace race, int legNumber) {
+        if (!RaceTelemetry.isEnabled()) return null;
+        String name = (race.isEndless() ? "endless" : "leg-" + legNumber) + "-" + System.currentTimeMillis()
+                + ".telemetry";
+        return RaceTelemetry.start(Paths.get(TELEMETRY_DIRECTORY_NAME, name), race, legNumber);
+    }
+
+    /** Gets the start of the names of ghosts at a difficulty and spec **/
+    private static String getGhostPrefix(Difficulty.DifficultyLevel difficulty, int spec) {
+        return difficulty.name() + "-" + spec + "-";
+    }
+
+    /**
+     * Stop the race being played and save it in the background, so it can be carried on from where it was
+     *
+     * @return True once the race is queued to be written, or false if it was dropped, in which case the race
+     * carries on the next time the main game is updated
+     */
+    boolean saveRace() {
+        return AutosaveService.getInstance().writeFramed(Paths.get(RACE_SAVE_NAME), RACE_MAGIC, RACE_FORMAT_VERSION,
+                mainGame.suspendRace());
+    }
+
+    /**
+     * Carry on a suspended race in the main game, if there is one
+     * <p>
+     * The race is read on the I/O thread, and carried on back on the game's thread. A race is only carried on once,
+     * so the suspended race is deleted after it's loaded.
+     *
+     * @param resumed Called on the game's thread once it's done, with whether a race was carried on, which is false
+     *                if there wasn't one or it couldn't be loaded
+     */
+    void loadRace(Consumer<Boolean> resumed) {
+        Path path = Paths.get(RACE_SAVE_NAME);
+        loadInBackground(() -> Files.exists(path) ? readFramed(path, RACE_MAGIC, RACE_FORMAT_VERSION) : null,
+                "Suspended race could not be loaded: ", state -> {
+                    try {
+                        mainGame.resumeRace(state);
+                        AutosaveService.getInstance().delete(path);
+                        return true;
+                    } catch (IllegalArgumentException | BufferUnderflowException e) {
+                        System.out.println("Suspended race could not be loaded: " + e.getMessage());
+                        return false;
+                    }
+                }, resumed);
+    }
+
+    /**
+     * Write save data to a file in the current format, replacing the file in one step
+     *
+     * @param path The file to write
+     * @param sd   The data to save
+     * @throws IOException If the file couldn't be written, in which case any existing file is left as it was
+     */
+    public static void write(Path path, SaveData sd) throws IOException {
+        writeFramed(path, MAGIC, FORMAT_VERSION, encode(sd));
+    }
+
+    /**
+     * Read save data from a file, in the current format or any older one
+     *
+     * @param path The file to read
+     * @return The saved data
+     * @throws IOException If the file couldn't be read, or is corrupt
+     */
+    public static SaveData read(Path path) throws IOException {
+        ByteBuffer buffer = readFully(path, MAX_SAVE_SIZE);
+        // Saves from before the format had a header don't start with the magic number
+        if (buffer.remaining() < 4 || buffer.getInt(0) != MAGIC) return decodeVersion1(buffer);
+        return decode(openFrame(buffer, MAGIC, FORMAT_VERSION));
+    }
+
+    /**
+     * Write a payload to a file between a header and a checksum, replacing the file in one step
+     *
+     * @param path    The file to write
+     * @param magic   The magic number identifying the kind of file
+     * @param version The version of the format the payload is in
+     * @param payload The payload, from its position to its limit
+     * @throws IOException If the file couldn't be written, in which case any existing file is left as it was
+     */
+    static void writeFramed(Path path, int magic, int version, ByteBuffer payload) throws IOException {
+        writeFramed(path, magic, version, payload, MAX_SAVE_SIZE);
+    }
 
-            // Close the input stream
-            inputStream.close();
+    /**
+     * Write a payload to a file between a header and a checksum, replacing the file in one step, allowing files
+     * bigger than a save
+     *
+     * @param path    The file to write
+     * @param magic   The magic number identifying the kind of file
+     * @param version The version of the format the payload is in
+     * @param payload The payload, from its position to its limit
+     * @param maxSize The most bytes the file can take
+     * @throws IOException If the file couldn't be written, in which case any existing file is left as it was
+     */
+    static void writeFramed(Path path, int magic, int version, ByteBuffer payload, int maxSize) throws IOException {
+        int payloadSize = payload.remaining();
+        if ((long) HEADER_SIZE + payloadSize + CHECKSUM_SIZE > maxSize) throw new IOException("Save is too large");
 
-            // Apply the save data to the main game
-            mainGame.setLegNumber(sd.legNumber);
-            mainGame.getPlayer().setLegTimes(sd.playerTimes);
-            mainGame.setPlayerSpec(sd.playerBoatSpec);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + payloadSize + CHECKSUM_SIZE);
+        buffer.putInt(magic);
+        buffer.putInt(version);
+        buffer.putInt(payloadSize);
+        buffer.put(payload);
+        buffer.putInt(checksum(buffer, 0, HEADER_SIZE + payloadSize));
+        buffer.flip();
 
-            int i = 0;
-            for (Boat b : mainGame.getAllBoats()) {
-                if (!(b instanceof PlayerBoat)) {
-                    b.setLegTimes(sd.aiTimes.get(i));
-                    ++i;
+        Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        Path directory = temp.toAbsolutePath().getParent();
+        if (directory != null) Files.createDirectories(directory);
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
                 }
+                // Make sure the data is on disk before the save points at it
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
             }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
 
-            return true;
-        } catch (IOException ioException) {
-            // Oops
-            return false;
+    /**
+     * Append a record to the end of a journal, creating it if it doesn't exist
+     *
+     * @param journal The journal to append to
+     * @param payload The record's payload, from its position to its limit
+     * @throws IOException If the record couldn't be written
+     */
+    public static void appendJournal(Path journal, ByteBuffer payload) throws IOException {
+        int payloadSize = payload.remaining();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_HEADER_SIZE + payloadSize);
+        buffer.putInt(payloadSize);
+        buffer.putInt(0);
+        buffer.put(payload);
+        buffer.putInt(4, checksum(buffer, RECORD_HEADER_SIZE, payloadSize));
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
         }
     }
 
     /**
-     * Write an integer to a file as 4 bytes
-     **/
-    private void writeInt(BufferedOutputStream fs, int value) throws IOException {
-        byte[] b = ByteBuffer.allocate(4).putInt(value).array();
-        for (byte x : b) {
-            fs.write(x);
+     * Replace a journal's records with a checkpoint of the latest state
+     * <p>
+     * The checkpoint is written before the journal is deleted, so a crash part way through loses nothing.
+     *
+     * @param journal    The journal to compact
+     * @param checkpoint The file to write the checkpoint to
+     * @param latest     The latest state, as encoded by {@link #encode(SaveData)}
+     * @throws IOException If the checkpoint couldn't be written, in which case the journal is left as it was
+     */
+    public static void compactJournal(Path journal, Path checkpoint, ByteBuffer latest) throws IOException {
+        writeFramed(checkpoint, MAGIC, FORMAT_VERSION, latest);
+        Files.deleteIfExists(journal);
+    }
+
+    /**
+     * Read the latest state from an autosave, which is the last intact record of its journal or its checkpoint
+     * <p>
+     * A record cut short or corrupted by a crash, and anything after it, is ignored.
+     *
+     * @param journal    The journal to read
+     * @param checkpoint The checkpoint the journal is compacted into
+     * @return The latest state
+     * @throws IOException If there's no autosave, or its latest state is corrupt
+     */
+    public static SaveData readAutosave(Path journal, Path checkpoint) throws IOException {
+        ByteBuffer latest = null;
+        if (Files.exists(journal)) {
+            ByteBuffer buffer = readFully(journal, MAX_SAVE_SIZE);
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int start = buffer.position();
+                int payloadSize = buffer.getInt();
+                int crc = buffer.getInt();
+                if (payloadSize < 0 || payloadSize > buffer.remaining()) break;
+                if (crc != checksum(buffer, start + RECORD_HEADER_SIZE, payloadSize)) break;
+
+                latest = buffer.duplicate();
+                latest.limit(start + RECORD_HEADER_SIZE + payloadSize);
+                buffer.position(start + RECORD_HEADER_SIZE + payloadSize);
+            }
         }
+
+        if (latest != null) return decode(latest);
+        if (Files.exists(checkpoint)) return read(checkpoint);
+        throw new IOException("There is no autosave");
     }
 
     /**
-     * Save the state of the game
+     * Read a file written by {@link #writeFramed(Path, int, int, ByteBuffer)}, checking its header and checksum
      *
-     * @return True on success or false if it fails
+     * @param path    The file to read
+     * @param magic   The magic number the file must start with
+     * @param version The version of the format the payload must be in
+     * @return The payload, from the buffer's position to its limit
+     * @throws IOException If the file couldn't be read, or is corrupt
      */
-    boolean saveState() {
+    static ByteBuffer readFramed(Path path, int magic, int version) throws IOException {
+        return readFramed(path, magic, version, MAX_SAVE_SIZE);
+    }
+
+    /**
+     * Read a file written by {@link #writeFramed(Path, int, int, ByteBuffer, int)}, checking its header and checksum,
+     * allowing files bigger than a save
+     *
+     * @param path    The file to read
+     * @param magic   The magic number the file must start with
+     * @param version The version of the format the payload must be in
+     * @param maxSize The most bytes the file can take
+     * @return The payload, from the buffer's position to its limit
+     * @throws IOException If the file couldn't be read, or is corrupt
+     */
+    static ByteBuffer readFramed(Path path, int magic, int version, int maxSize) throws IOException {
+        return openFrame(readFully(path, maxSize), magic, version);
+    }
+
+    /**
+     * Map a file written by {@link #writeFramed(Path, int, int, ByteBuffer)} into memory, checking its header and
+     * checksum
+     * <p>
+     * The payload is read from the file as it's used rather than copied onto the heap. The file stays mapped until
+     * the buffer is garbage collected, so it mustn't be replaced meanwhile.
+     *
+     * @param path    The file to map
+     * @param magic   The magic number the file must start with
+     * @param version The version of the format the payload must be in
+     * @return The payload, from the buffer's position to its limit
+     * @throws IOException If the file couldn't be mapped, or is corrupt
+     */
+    static ByteBuffer mapFramed(Path path, int magic, int version) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_SAVE_SIZE) throw new IOException("Save file is too large");
+            return openFrame(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), magic, version);
+        }
+    }
+
+    /** Reads a whole file in one go, if it's no bigger than a given size **/
+    private static ByteBuffer readFully(Path path, int maxSize) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxSize) throw new IOException("Save file is too large");
+
+            // Read the whole file at once, then parse it from memory
+            buffer = ByteBuffer.allocateDirect((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) throw new EOFException("Save file ended early");
+            }
+            buffer.flip();
+        }
+        return buffer;
+    }
+
+    /** Checks a framed file's header and checksum, and leaves the buffer holding just its payload **/
+    private static ByteBuffer openFrame(ByteBuffer buffer, int magic, int version) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE + CHECKSUM_SIZE) throw new EOFException("Save file is too short");
+        if (buffer.getInt() != magic) throw new IOException("Save file is the wrong kind of file");
+        int savedVersion = buffer.getInt();
+        if (savedVersion != version) throw new IOException("Save format version " + savedVersion + " is not supported");
+        int payloadSize = buffer.getInt();
+        if (payloadSize < 0 || payloadSize != buffer.limit() - HEADER_SIZE - CHECKSUM_SIZE)
+            throw new IOException("Save file is the wrong size");
+        if (buffer.getInt(HEADER_SIZE + payloadSize) != checksum(buffer, 0, HEADER_SIZE + payloadSize))
+            throw new IOException("Save checksum does not match");
+
+        buffer.limit(HEADER_SIZE + payloadSize);
+        return buffer;
+    }
+
+    /**
+     * Encode save data as the payload of a save in the current format
+     *
+     * @param sd The data to encode
+     * @return The payload, from the buffer's position to its limit
+     */
+    public static ByteBuffer encode(SaveData sd) {
+        int payloadSize = 4 * (4 + sd.playerTimes.size());
+        for (List<Integer> times : sd.aiTimes) {
+            payloadSize += 4 * (1 + times.size());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(payloadSize);
+        buffer.putInt(sd.legNumber);
+        buffer.putInt(sd.playerBoatSpec);
+        buffer.putInt(sd.aiTimes.size());
+        putTimes(buffer, sd.playerTimes);
+        for (List<Integer> times : sd.aiTimes) {
+            putTimes(buffer, times);
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Decodes the payload of a save in the current format **/
+    private static SaveData decode(ByteBuffer buffer) throws IOException {
+        SaveData sd = new SaveData();
+        sd.legNumber = getInt(buffer);
+        sd.playerBoatSpec = getInt(buffer);
+        sd.boatCount = getCount(buffer);
+        sd.playerTimes = getTimes(buffer, getCount(buffer));
+        for (int i = 0; i < sd.boatCount; ++i) {
+            sd.aiTimes.add(getTimes(buffer, getCount(buffer)));
+        }
+        if (buffer.hasRemaining()) throw new IOException("Save file has unexpected data");
+        return sd;
+    }
+
+    /** Decodes a save from before the format had a header, where every boat has one time per leg **/
+    private static SaveData decodeVersion1(ByteBuffer buffer) throws IOException {
+        SaveData sd = new SaveData();
+        sd.legNumber = getCount(buffer);
+        sd.boatCount = getCount(buffer);
+        sd.playerBoatSpec = getInt(buffer);
+        sd.playerTimes = getTimes(buffer, sd.legNumber);
+        for (int i = 0; i < sd.boatCount; ++i) {
+            sd.aiTimes.add(getTimes(buffer, sd.legNumber));
+        }
+
+        // Compute the checksum and compare it to the one we've just read.  If they don't match error out
+        if (getInt(buffer) != Objects.hash(sd.legNumber, sd.boatCount, sd.playerTimes, sd.aiTimes))
+            throw new IOException("Save hash does not match computed hash");
+        return sd;
+    }
+
+    /** Computes the CRC32 of part of a buffer, without moving its position **/
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length).position(offset);
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    /** Collects the state of the main game to be saved **/
+    private SaveData collectState() {
         // Create a new SaveData struct to hold the data
         SaveData sd = new SaveData();
 
-        // Load up the struct with all the required data
+        // Load up the struct with all the required data, copying lists the game will carry on changing
         sd.legNumber = mainGame.getLegNumber() - 1;
         sd.boatCount = mainGame.getAllBoats().size() - 1;
         sd.playerBoatSpec = mainGame.getPlayer().getSpec();
-        sd.playerTimes = mainGame.getPlayer().getLegTimes();
+        sd.playerTimes = new ArrayList<>(mainGame.getPlayer().getLegTimes());
         for (Boat b : mainGame.getAllBoats()) {
             if (!(b instanceof PlayerBoat)) {
-                sd.aiTimes.add(b.getLegTimes());
+                sd.aiTimes.add(new ArrayList<>(b.getLegTimes()));
             }
         }
+        return sd;
+    }
 
-        // Compute the hash of the struct
-        int checksum = sd.hashCode();
-
-        // Try this...
-        try {
-            File f = new File(SAVE_NAME);
-            // We don't care, as long as the file exists one way or another
-            //noinspection ResultOfMethodCallIgnored
-            f.createNewFile();
-        } catch (IOException ioException) {
-            // Probably won't happen
-            return false;
-        }
+    /** Gets when a file was last modified, or the earliest possible time if it doesn't exist **/
+    private static FileTime getModifiedTime(Path path) throws IOException {
+        return Files.exists(path) ? Files.getLastModifiedTime(path) : FileTime.fromMillis(Long.MIN_VALUE);
+    }
 
-        try {
-            // Open a new output stream in overwrite mode
-            FileOutputStream fs = new FileOutputStream(SAVE_NAME, false);
-            BufferedOutputStream outputStream = new BufferedOutputStream(fs);
-
-            // Write the save data in the required order
-            writeInt(outputStream, sd.legNumber);
-            writeInt(outputStream, sd.boatCount);
-            writeInt(outputStream, sd.playerBoatSpec);
-            for (int t : sd.playerTimes)
-                writeInt(outputStream, t);
-
-            for (List<Integer> l : sd.aiTimes) {
-                for (int t : l)
-                    writeInt(outputStream, t);
-            }
+    /** Gets the later of two times **/
+    private static FileTime max(FileTime a, FileTime b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
 
-            writeInt(outputStream, checksum);
+    /** Writes a list of times as a count followed by the times **/
+    private static void putTimes(ByteBuffer buffer, List<Integer> times) {
+        buffer.putInt(times.size());
+        for (int t : times) {
+            buffer.putInt(t);
+        }
+    }
 
-            // Close the output stream (flushes buffer)
-            outputStream.close();
+    /** Reads an int, failing if the save has run out of data **/
+    private static int getInt(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 4) throw new EOFException("The reader tried to read data that wasn't there");
+        return buffer.getInt();
+    }
 
-            // All done
-            return true;
+    /** Reads a count, failing if it's negative or more than the save could hold **/
+    private static int getCount(ByteBuffer buffer) throws IOException {
+        int count = getInt(buffer);
+        if (count < 0 || count > buffer.remaining() / 4) throw new IOException("Save has an invalid count");
+        return count;
+    }
 
-        } catch (IOException ffException) {
-            // This shouldn't happen, but it's handled anyway
-            System.out.println("WARNING - The file writer failed to write a save to a file that exists");
-            return false;
+    /** Reads a number of times **/
+    private static List<Integer> getTimes(ByteBuffer buffer, int count) throws IOException {
+        if (count > buffer.remaining() / 4) throw new EOFException("The reader tried to read data that wasn't there");
+        List<Integer> times = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            times.add(buffer.getInt());
         }
+        return times;
     }
 
-    private static class SaveData {
-        public Integer legNumber;
-        public Integer boatCount;
-        public Integer playerBoatSpec;
+    /**
+     * The state of the game kept in a save
+     */
+    public static class SaveData {
+        public int legNumber;
+        public int boatCount;
+        public int playerBoatSpec;
         public List<Integer> playerTimes;
         public List<List<Integer>> aiTimes;
+
         /**
          * Basic c'tor initialises SaveData
          **/
-        SaveData() {
+        public SaveData() {
             legNumber = 1;
             boatCount = 6;
             playerBoatSpec = 1;
             playerTimes = new ArrayList<>();
             aiTimes = new ArrayList<>();
         }
-
-        /**
-         * Generate a hash code from the field data
-         **/
-        @Override
-        public int hashCode() {
-            return Objects.hash(legNumber, boatCount, playerTimes, aiTimes);
-        }
     }
 
 }
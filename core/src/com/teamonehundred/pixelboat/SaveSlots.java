@@ -0,0 +1,298 @@
+package com.teamonehundred.pixelboat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Save Index Structure (version 1):
+ * Framed the same way as a save, with the magic "PBSI" and its own version
+ *
+ * Payload: one fixed size entry per slot, oldest first, each being
+ *          slot id (4 bytes), time saved in milliseconds since the epoch (8 bytes), leg number (4 bytes),
+ *          difficulty level (4 bytes), player boat spec (4 bytes), player's total time in milliseconds (4 bytes)
+ */
+
+/**
+ * Keeps track of the save slots in the save directory, with an index holding what's needed to list them
+ * <p>
+ * Each slot is an ordinary save file named after its id, so loading one never needs to look at any other. The
+ * index is small and read once, so the saves can be listed without opening every slot.
+ * <p>
+ * The index is only kept in memory by the game's thread, and a copy is queued to be written whenever it changes.
+ * If the index is lost, the slots are listed again from the slot files, and new ids always start above every slot
+ * file on disk, so a save is never overwritten.
+ */
+public class SaveSlots {
+
+    /**
+     * The first 4 bytes of the index, "PBSI"
+     */
+    public static final int INDEX_MAGIC = 0x50425349;
+    /**
+     * The version of the format the index is written in
+     */
+    public static final int INDEX_FORMAT_VERSION = 1;
+
+    // The directory saves are kept in
+    private static final String DIRECTORY_NAME = "saves";
+    // The name of the index inside the directory
+    private static final String INDEX_NAME = "index.dat";
+    // Slot files are named the prefix, then the id, then the suffix
+    private static final String SLOT_PREFIX = "slot-";
+    private static final String SLOT_SUFFIX = ".sav";
+    // Save files don't record the difficulty, so slots listed again from their files are at the game's default
+    private static final Difficulty.DifficultyLevel RECOVERED_DIFFICULTY = Difficulty.DifficultyLevel.Medium;
+    // id + timestamp + leg + difficulty + spec + total time
+    private static final int ENTRY_SIZE = 28;
+
+    private static SaveSlots instance;
+
+    private final Path directory;
+    // Every slot, oldest first, which is also the order of their ids
+    private final List<Slot> slots;
+    // The id the next slot added is given
+    private int nextId;
+
+    /* Singleton pattern */
+    // Set to private so there's only ever one copy of the index being changed
+    private SaveSlots(Path directory, List<Slot> slots, int nextId) {
+        this.directory = directory;
+        this.slots = slots;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Gets the slots in the game's save directory, reading the index the first time
+     *
+     * @return The save slots
+     */
+    static SaveSlots getInstance() {
+        if (instance == null) {
+            instance = open(Paths.get(DIRECTORY_NAME));
+        }
+        return instance;
+    }
+
+    /**
+     * Open the slots in a save directory, reading only its index, and listing the names of the slot files
+     * <p>
+     * If there's no index, or it can't be read, the slots are listed again by reading every slot file, at the
+     * default difficulty. Slot files that can't be read are left out of the list, but are still never overwritten.
+     *
+     * @param directory The directory the saves are kept in
+     * @return The save slots
+     */
+    public static SaveSlots open(Path directory) {
+        List<Slot> slots = null;
+        Path index = directory.resolve(INDEX_NAME);
+        if (Files.exists(index)) {
+            try {
+                slots = readIndex(index);
+            } catch (IOException e) {
+                System.out.println("WARNING - The save index could not be read: " + e.getMessage());
+            }
+        }
+
+        List<Integer> ids = findSlotIds(directory);
+        if (slots == null) slots = recoverSlots(directory, ids);
+        int nextId = 1;
+        if (!ids.isEmpty()) nextId = ids.get(ids.size() - 1) + 1;
+        if (!slots.isEmpty()) nextId = Math.max(nextId, slots.get(slots.size() - 1).id + 1);
+        return new SaveSlots(directory, slots, nextId);
+    }
+
+    /** Gets the ids of every slot file in a save directory, lowest first **/
+    private static List<Integer> findSlotIds(Path directory) {
+        List<Integer> ids = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return ids;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SLOT_PREFIX + "*" + SLOT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(
+                            name.substring(SLOT_PREFIX.length(), name.length() - SLOT_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // Not a slot this game wrote
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING - The save slots could not be listed: " + e.getMessage());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /** Lists the slots again from their files, for when there's no index that can be read **/
+    private static List<Slot> recoverSlots(Path directory, List<Integer> ids) {
+        List<Slot> slots = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Path path = getSlotPath(directory, id);
+            try {
+                SaveManager.SaveData sd = SaveManager.read(path);
+                long timestamp = Files.getLastModifiedTime(path).toMillis();
+                slots.add(new Slot(id, timestamp, sd.legNumber, RECOVERED_DIFFICULTY, sd.playerBoatSpec,
+                        getTotalTime(sd)));
+            } catch (IOException e) {
+                System.out.println("WARNING - Save slot " + id + " could not be read: " + e.getMessage());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Gets every slot, oldest first
+     *
+     * @return The slots, which can't be changed
+     */
+    public List<Slot> getSlots() {
+        return Collections.unmodifiableList(slots);
+    }
+
+    /**
+     * Gets the file a slot is saved in, without looking at the index or the disk
+     *
+     * @param id The slot's id
+     * @return The slot's save file
+     */
+    public Path getSlotPath(int id) {
+        return getSlotPath(directory, id);
+    }
+
+    /** Gets the file a slot is saved in, in a save directory **/
+    private static Path getSlotPath(Path directory, int id) {
+        return directory.resolve(SLOT_PREFIX + id + SLOT_SUFFIX);
+    }
+
+    /** Gets the sum of the player's leg times in a save, in milliseconds **/
+    private static int getTotalTime(SaveManager.SaveData sd) {
+        int totalTime = 0;
+        for (int t : sd.playerTimes) {
+            totalTime += t;
+        }
+        return totalTime;
+    }
+
+    /**
+     * Gets the file the index is saved in
+     *
+     * @return The index file
+     */
+    public Path getIndexPath() {
+        return directory.resolve(INDEX_NAME);
+    }
+
+    /**
+     * Add a new slot to the index for a save, which must then be written to {@link #getSlotPath(int)}
+     *
+     * @param sd         The data being saved
+     * @param difficulty The difficulty the game is being played at
+     * @param timestamp  When the save was made, in milliseconds since the epoch
+     * @return The new slot
+     */
+    public Slot add(SaveManager.SaveData sd, Difficulty.DifficultyLevel difficulty, long timestamp) {
+        Slot slot = new Slot(nextId++, timestamp, sd.legNumber, difficulty, sd.playerBoatSpec, getTotalTime(sd));
+        slots.add(slot);
+        return slot;
+    }
+
+    /**
+     * Take a slot out of the index, such as when its save couldn't be written
+     *
+     * @param slot The slot, as returned by {@link #add(SaveManager.SaveData, Difficulty.DifficultyLevel, long)}
+     * @return True if the slot was in the index
+     */
+    public boolean remove(Slot slot) {
+        return slots.remove(slot);
+    }
+
+    /**
+     * Encode the index as it is now, as the payload of an index file
+     *
+     * @return The payload, from the buffer's position to its limit
+     */
+    public ByteBuffer encodeIndex() {
+        ByteBuffer buffer = ByteBuffer.allocate(slots.size() * ENTRY_SIZE);
+        for (Slot slot : slots) {
+            buffer.putInt(slot.id);
+            buffer.putLong(slot.timestamp);
+            buffer.putInt(slot.legNumber);
+            buffer.putInt(slot.difficulty.ordinal());
+            buffer.putInt(slot.spec);
+            buffer.putInt(slot.totalTime);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Write the index as it is now, replacing the index file in one step
+     *
+     * @throws IOException If the index couldn't be written, in which case the old index is left as it was
+     */
+    public void writeIndex() throws IOException {
+        SaveManager.writeFramed(getIndexPath(), INDEX_MAGIC, INDEX_FORMAT_VERSION, encodeIndex());
+    }
+
+    /**
+     * Read the slots listed in an index file
+     *
+     * @param index The index file to read
+     * @return The slots, oldest first
+     * @throws IOException If the index couldn't be read, or is corrupt
+     */
+    public static List<Slot> readIndex(Path index) throws IOException {
+        ByteBuffer buffer = SaveManager.readFramed(index, INDEX_MAGIC, INDEX_FORMAT_VERSION);
+        if (buffer.remaining() % ENTRY_SIZE != 0) throw new IOException("Save index is the wrong size");
+
+        Difficulty.DifficultyLevel[] levels = Difficulty.DifficultyLevel.values();
+        List<Slot> slots = new ArrayList<>(buffer.remaining() / ENTRY_SIZE);
+        while (buffer.hasRemaining()) {
+            int id = buffer.getInt();
+            long timestamp = buffer.getLong();
+            int legNumber = buffer.getInt();
+            int difficulty = buffer.getInt();
+            int spec = buffer.getInt();
+            int totalTime = buffer.getInt();
+            if (difficulty < 0 || difficulty >= levels.length) throw new IOException("Save index is corrupt");
+            // Ids only ever go up, so anything else means the index is corrupt
+            if (!slots.isEmpty() && id <= slots.get(slots.size() - 1).id)
+                throw new IOException("Save index is out of order");
+            slots.add(new Slot(id, timestamp, legNumber, levels[difficulty], spec, totalTime));
+        }
+        return slots;
+    }
+
+    /**
+     * What the index knows about a saved game, enough to list it without opening it
+     */
+    public static final class Slot {
+        public final int id;
+        // When the game was saved, in milliseconds since the epoch
+        public final long timestamp;
+        public final int legNumber;
+        public final Difficulty.DifficultyLevel difficulty;
+        public final int spec;
+        // The sum of the player's leg times, in milliseconds
+        public final int totalTime;
+
+        /**
+         * Basic c'tor for a slot's index entry
+         **/
+        public Slot(int id, long timestamp, int legNumber, Difficulty.DifficultyLevel difficulty, int spec,
+                    int totalTime) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.legNumber = legNumber;
+            this.difficulty = difficulty;
+            this.spec = spec;
+            this.totalTime = totalTime;
+        }
+    }
+}
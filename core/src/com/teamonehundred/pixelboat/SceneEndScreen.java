@@ -12,6 +12,7 @@ import com.teamonehundred.pixelboat.ui.Button;
 import com.teamonehundred.pixelboat.ui.Image;
 import com.teamonehundred.pixelboat.ui.Label;
 import com.teamonehundred.pixelboat.ui.UIScene;
+import com.teamonehundred.pixelboat.util.TextFormat;
 
 import java.util.List;
 
@@ -20,6 +21,11 @@ import java.util.List;
  */
 public class SceneEndScreen implements Scene {
     private static final int SCENE_ID = 6;
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            "ui/end/bg.png", "ui/end/exit.png", "ui/end/exit_hovered.png", "ui/end/medal_ribbon.png",
+            "ui/end/medal.png", "ui/Segoe UI1.png", "ui/Segoe UI2.png"
+    };
     private final UIScene scene;
     private final Label endText;
     private final Image medal;
@@ -165,6 +171,20 @@ public class SceneEndScreen implements Scene {
         endText.setText(text);
     }
 
+    /**
+     * Shows how far the player got in an endless race, which has no positions to give medals for
+     *
+     * @param metres The distance the player travelled in metres
+     */
+    public void updateScreenEndless(float metres) {
+        medal.setVisible(false);
+        medalRibbon.setVisible(false);
+
+        StringBuilder text = new StringBuilder("You travelled ");
+        TextFormat.appendFixed(text, TextFormat.toFixed(metres, 1), 1).append('m');
+        endText.setText(text);
+    }
+
     /**
      * Called whenever a scene is switched to
      */
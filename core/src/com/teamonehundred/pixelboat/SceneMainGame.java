@@ -1,6 +1,7 @@
 package com.teamonehundred.pixelboat;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
@@ -10,11 +11,19 @@ import com.badlogic.gdx.utils.viewport.FillViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.teamonehundred.pixelboat.ui.Label;
 import com.teamonehundred.pixelboat.ui.UIScene;
+import com.teamonehundred.pixelboat.util.TextFormat;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
+import com.teamonehundred.pixelboat.util.VarInts;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Represents the Main Game Scene for when the boat race starts.
@@ -25,45 +34,89 @@ import java.util.List;
  */
 public class SceneMainGame implements Scene {
 
-    static class Position {
-        Boat boat;
-        int position = 0;
-
-        Position(Boat b) {
-            boat = b;
-            update();
-        }
-
-        void update() {
-            position = (int) boat.getSprite().getY();
-        }
-    }
-
     private static final int SCENE_ID = 1;
     private final static int BOATS_PER_RACE = 7;
     private final static int GROUPS_PER_GAME = 1;
+    private final static String BACKGROUND_PATH = "water_background.png";
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            BACKGROUND_PATH, "boat.png", "stamina_texture.png", "durability_texture.png", "lane_buoy.png",
+            "obstacle_branch.png", "obstacle_duck.png", "powerup.png", "repairPowerup.png", "boostPowerup.png",
+            "staminaPowerup.png", "clockPowerup.png", "teleportPowerup.png", "start_banner.png", "bleachers_l.png",
+            "bleachers_r.png", "object_placeholder.png", "ui/Segoe UI1.png", "ui/Segoe UI2.png"
+    };
+    private final static float MS_TO_MPH = 2.237f;
+    // How often the race in progress is snapshotted, so a crash only loses the last few seconds of it
+    private final static int RACE_SNAPSHOT_TICKS = (int) (30.0f / RaceSimulation.TICK);
     private final PlayerBoat player;
     private final List<Boat> boats;
-    private final List<Position> boatPositions;
     private final OrthographicCamera fillCamera;
     private final Texture bg;
+    private final LaneObjectPools pools;
+    // Gives every race its own seed, so a game played from the same seed has the same courses
+    private final SplittableRandom seeds;
+    // Whether the game is a single race that goes on until the player's boat breaks
+    private boolean endless;
     private int legNumber = 0;
     private BoatRace race;
+    // The next leg's course, generated in the background while the results are shown
+    private Future<RaceCourse> nextCourse;
+    // Runs the race on its own thread, and the state of the race being drawn this frame
+    private final RaceSimulation simulation;
+    private final RaceSnapshot renderState;
+    // Set by the simulation when the player's boat breaks, ending the leg early
+    private boolean playerWrecked = false;
+    // Ticks simulated since the race was last snapshotted, only used by the simulation thread
+    private int ticksSinceSnapshot = 0;
+    // The target speed the AI boats were made with, kept so replays make the same boats
+    private final float aiTargetSpeed;
+    // Whether the race should start being recorded on its first tick, which a carried on race isn't
+    private boolean replayPending = true;
+    // The replay of the race being simulated, only used by the simulation thread while it's running
+    private RaceReplay replay;
+    // Records the player's path alongside the replay, kept as a ghost if it's the best run yet
+    private final GhostTrack.Recorder ghostRecorder = new GhostTrack.Recorder();
+    // Whether the race needs its ghost and telemetry set up before it starts, and the ghost it's racing against
+    private boolean startPending = true;
+    private GhostTrack ghost;
+    // The ghost being loaded on the I/O thread, handed to the race once it's ready
+    private CompletableFuture<GhostTrack> pendingGhost;
+    // Records the race being simulated, if telemetry is enabled
+    private RaceTelemetry telemetry;
+    private boolean disposed = false;
 
     private final UIScene scene;
     private final Label speedLabel;
     private final Label distanceLabel;
     private final Label positionLabel;
+    // Reused to build the HUD text and read the mouse, so updating them doesn't create garbage
+    private final StringBuilder hudText = new StringBuilder();
+    private final Vector3 mousePos = new Vector3();
+    // The values shown in the HUD, so the text is only rebuilt when they change
+    private long distanceShown = Long.MIN_VALUE;
+    private long speedShown = Long.MIN_VALUE;
+    private int positionShown = -1;
 
 
     /**
-     * Main constructor for a SceneMainGame.
+     * Main constructor for a SceneMainGame, with a random seed.
      * <p>
      * Initialises a BoatRace, player's boat, AI boats and scene textures.
      *
      * @author William Walton
      */
     SceneMainGame() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor for a SceneMainGame whose races are all generated from a seed.
+     *
+     * @param seed The seed every race's random source is made from
+     */
+    SceneMainGame(long seed) {
+        seeds = new SplittableRandom(seed);
+        endless = Difficulty.getInstance().isEndless();
         fillCamera = new OrthographicCamera();
         Viewport fillViewport = new FillViewport(1280, 720, fillCamera);
         fillViewport.apply();
@@ -73,27 +126,28 @@ public class SceneMainGame implements Scene {
         player = new PlayerBoat(-15, 0);
         player.setName("Player");
         boats = new ArrayList<>();
-        boatPositions = new ArrayList<>();
 
         Difficulty difficulty = Difficulty.getInstance();
+        aiTargetSpeed = difficulty.getBoatTargetSpeed();
 
         boats.add(player);
         for (int i = 0; i < (BOATS_PER_RACE * GROUPS_PER_GAME) - 1; i++) {
-            boats.add(new AIBoat(0, 40, difficulty.getBoatTargetSpeed()));
+            boats.add(new AIBoat(0, 40, aiTargetSpeed));
             boats.get(boats.size() - 1).setName("AI Boat " + i);
         }
 
-        for (Boat b : boats) {
-            boatPositions.add(new Position(b));
-        }
-
         Collections.swap(boats, 0, (boats.size() / GROUPS_PER_GAME) / 2); // move player to middle of first group
 
-        bg = new Texture("water_background.png");
+        bg = TextureRegistry.getInstance().acquire(BACKGROUND_PATH);
         bg.setWrap(Texture.TextureWrap.Repeat, Texture.TextureWrap.Repeat);
 
-        race = new BoatRace(boats.subList(0, BOATS_PER_RACE), player, legNumber);
+        pools = new LaneObjectPools(new RaceClock());
+        race = new BoatRace(boats.subList(0, BOATS_PER_RACE), player,
+                new RaceCourse(BOATS_PER_RACE, legNumber, pools, seeds.nextLong(), endless), pools);
         legNumber++;
+        simulation = new RaceSimulation(this::simulateTick);
+        simulation.reset(race);
+        renderState = new RaceSnapshot();
 
         // GUI Stuff
         scene = new UIScene();
@@ -110,15 +164,52 @@ public class SceneMainGame implements Scene {
 
 
     /**
-     * Destructor disposes of this texture once it is no longer referenced.
+     * Destructor releases the background texture once this is no longer referenced, unless it was disposed.
      */
     protected void finalize() {
-        bg.dispose();
+        if (!disposed) TextureRegistry.getInstance().release(BACKGROUND_PATH);
+    }
+
+    /**
+     * Stop the race and free everything it holds, before the scene is thrown away
+     * <p>
+     * Returns the course to the pools and empties them, frees the baked scenery, finishes the telemetry and lets go
+     * of the ghost. The scene can't be used again afterwards.
+     */
+    void dispose() {
+        if (disposed) return;
+        disposed = true;
+        simulation.stop();
+        closeTelemetry();
+        freeRace();
+        race.setGhost(null);
+        ghost = null;
+        pendingGhost = null;
+        replay = null;
+        pools.clear();
+        TextureRegistry.getInstance().release(BACKGROUND_PATH);
+    }
+
+    /** Frees the current race, or the next leg's course if the current race has already been freed **/
+    private void freeRace() {
+        if (nextCourse != null) {
+            // The next leg was generated from the pools, so it has to be waited for and returned to them
+            try {
+                nextCourse.get().free();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Could not generate the next leg", e);
+            }
+            nextCourse = null;
+        } else {
+            race.free();
+        }
     }
 
 
     /**
      * Draws SpriteBatch on display along with updating player camera and player overlay Using BoatRace.
+     * <p>
+     * The race is drawn between its two latest simulated ticks, so movement stays smooth whatever the frame rate.
      *
      * @param batch Spritebatch passed for drawing graphic objects onto screen.
      * @author William Walton
@@ -127,14 +218,20 @@ public class SceneMainGame implements Scene {
         Gdx.gl.glClearColor(.25f, .25f, .25f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-        player.getCamera().update();
-        batch.setProjectionMatrix(player.getCamera().combined);
+        simulation.interpolate(renderState);
+        // The HUD shows the same state as the race drawn
+        updateHud();
+
+        OrthographicCamera camera = player.getCamera();
+        camera.position.set(renderState.cameraX, renderState.cameraY, 0);
+        camera.update();
+        batch.setProjectionMatrix(camera.combined);
 
         batch.begin();
 
         // Race pass
         batch.draw(bg, -10000, -2000, 0, 0, 1000000, 10000000);
-        race.draw(batch);
+        race.draw(batch, renderState);
 
         // GUI pass
         batch.setProjectionMatrix(fillCamera.combined);
@@ -143,87 +240,345 @@ public class SceneMainGame implements Scene {
         batch.end();
     }
 
-    /** Calculates the players position in the race **/
+    /** Updates the HUD labels from the render state, only rebuilding their text when the value shown changes **/
+    private void updateHud() {
+        // Distance to 1 decimal place, travelled in an endless race as there's nothing remaining
+        float playerY = renderState.y[renderState.playerIndex];
+        long distance = endless
+                ? TextFormat.toFixed((float) ((renderState.originY + (double) playerY - BoatRace.START_Y) * 0.01), 1)
+                : TextFormat.toFixed((BoatRace.END_Y - playerY) * 0.01f, 1);
+        if (distance != distanceShown) {
+            distanceShown = distance;
+            hudText.setLength(0);
+            hudText.append(endless ? "Distance: " : "Distance Remaining: ");
+            TextFormat.appendFixed(hudText, distance, 1).append('m');
+            distanceLabel.setText(hudText);
+        }
+
+        long speed = TextFormat.toFixed(renderState.speed * MS_TO_MPH * 0.25f, 0);
+        if (speed != speedShown) {
+            speedShown = speed;
+            hudText.setLength(0);
+            TextFormat.appendFixed(hudText.append("Speed: "), speed, 0).append("mph");
+            speedLabel.setText(hudText);
+        }
+
+        int position = calculatePlayerPosition();
+        if (position != positionShown) {
+            positionShown = position;
+            hudText.setLength(0);
+            hudText.append("Position: ").append(position).append('/').append(boats.size());
+            positionLabel.setText(hudText);
+        }
+    }
+
+    /** Calculates the players position in the race from the render state **/
     private int calculatePlayerPosition() {
-        for (Position p : boatPositions) {
-            p.update();
+        int playerY = (int) renderState.y[renderState.playerIndex];
+        int position = 1;
+        for (int i = 0; i < renderState.boatCount; ++i) {
+            if ((int) renderState.y[i] > playerY) ++position;
+        }
+        return position;
+    }
+
+    /**
+     * Advances the race by one tick, called on the simulation thread.
+     * <p>
+     * The BoatRace runTick method checks for started or finished boats in a leg, calls update methods for
+     * the movements for player boat and AI boats obstacles as well as checking for collisions.
+     * The controls used on each tick are recorded to the race's replay.
+     */
+    private void simulateTick() {
+        if (replayPending) {
+            replayPending = false;
+            replay = RaceReplay.start(race, boats.indexOf(player), legNumber, aiTargetSpeed);
+            ghostRecorder.reset();
+        }
+        boolean racing = !player.hasFinishedLeg();
+        // The controls are fixed for the whole tick, so the replay has exactly the controls the race used
+        int controls = player.latchControls();
+        if (racing && replay != null) {
+            replay.record(controls);
+            ghostRecorder.tick(player.getSprite().getX(), player.getSprite().getY(), player.getSprite().getRotation());
         }
 
-        boatPositions.sort(Comparator.comparingInt(o -> o.position));
+        if (race.runTick()) {
+            playerWrecked = true;
+        } else if (racing && ++ticksSinceSnapshot >= RACE_SNAPSHOT_TICKS) {
+            ticksSinceSnapshot = 0;
+            new SaveManager(this).autosaveRace();
+        }
+    }
 
-        for (int i = 0; i < boatPositions.size(); ++i) {
-            if (boatPositions.get(i).boat == player) {
-                return boats.size() - i;
+    /** Keeps the player's run as the ghost to race against if it's their best at this difficulty and spec **/
+    private void saveGhost() {
+        if (replay == null || endless || playerWrecked) return;
+        List<Integer> legTimes = player.getLegTimes();
+        if (legTimes.isEmpty()) return;
+        int time = legTimes.get(legTimes.size() - 1);
+        // A run that ran out of time never reached the finish
+        if (time >= (int) (BoatRace.MAX_RACE_TIME * 1000.0f)) return;
+        if (ghost != null && ghost.getFinishTime() <= time) return;
+        new SaveManager(this).saveGhost(Difficulty.getInstance().getDifficultyLevel(), player.getSpec(), time,
+                ghostRecorder);
+    }
+
+    /** Adds the player's time for the leg to the leaderboard, and their total once the last leg is over **/
+    private void recordTimes() {
+        List<Integer> legTimes = player.getLegTimes();
+        if (endless || playerWrecked || legTimes.isEmpty()) return;
+        int maxTime = (int) (BoatRace.MAX_RACE_TIME * 1000.0f);
+        int time = legTimes.get(legTimes.size() - 1);
+        // A leg that ran out of time never reached the finish
+        if (time >= maxTime) return;
+
+        Difficulty.DifficultyLevel difficulty = Difficulty.getInstance().getDifficultyLevel();
+        int spec = player.getSpec();
+        long now = System.currentTimeMillis();
+        // Each leg's time is the next one in the list, however the game got to it
+        int leg = legTimes.size();
+        int total = -1;
+        if (leg == 3) {
+            total = 0;
+            for (int legTime : legTimes) {
+                if (legTime >= maxTime) {
+                    total = -1;
+                    break;
+                }
+                total += legTime;
             }
         }
-        return 0;
+        final int gameTime = total;
+        Leaderboard.whenLoaded(leaderboard -> {
+            leaderboard.add(difficulty, spec, leg, time, now);
+            if (gameTime >= 0) leaderboard.add(difficulty, spec, Leaderboard.WHOLE_GAME, gameTime, now);
+        });
+    }
+
+    /**
+     * Starts loading the ghost the new race is against unless it's already loading, and starts recording its
+     * telemetry, before it starts
+     **/
+    private void prepareRace() {
+        startPending = false;
+        ghost = null;
+        if (!endless && pendingGhost == null) loadGhost();
+        closeTelemetry();
+        telemetry = new SaveManager(this).startTelemetry(race, legNumber);
+        race.setTelemetry(telemetry);
+    }
+
+    /** Starts loading the ghost to race against on the I/O thread, so drawing never waits for the disk **/
+    private void loadGhost() {
+        pendingGhost = new SaveManager(this).loadGhost(Difficulty.getInstance().getDifficultyLevel(),
+                player.getSpec());
+    }
+
+    /** Hands the ghost to the race once it's loaded, which is usually before the race has started moving **/
+    private void takeGhost() {
+        if (pendingGhost == null || !pendingGhost.isDone()) return;
+        ghost = pendingGhost.getNow(null);
+        pendingGhost = null;
+        race.setGhost(ghost);
+    }
+
+    /** Finishes the race's telemetry, once it's stopped being simulated **/
+    private void closeTelemetry() {
+        if (telemetry == null) return;
+        telemetry.close();
+        race.setTelemetry(null);
+        telemetry = null;
+    }
+
+    /** Writes the replay of the race once it's over, in the background **/
+    private void saveReplay() {
+        if (replay == null) return;
+        replay.finish(boats.subList(0, BOATS_PER_RACE));
+        new SaveManager(this).saveReplay(replay);
+        replay = null;
+    }
+
+    /**
+     * Frees the finished race and starts generating the next leg's course in the background
+     * <p>
+     * The finished race draws nothing but the boats until it's replaced.
+     */
+    private void prepareNextRace() {
+        race.free();
+        nextCourse = RaceCourse.generateInBackground(BOATS_PER_RACE, legNumber, pools, seeds.nextLong(), endless);
+        legNumber++;
+        // Found after this leg's ghost is saved, while the results are shown
+        loadGhost();
+    }
+
+    /** Replaces the finished race with the next leg, once its course has been generated **/
+    private void startNextRace() {
+        RaceCourse course;
+        try {
+            course = nextCourse.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Could not generate the next leg", e);
+        }
+        nextCourse = null;
+
+        race = new BoatRace(boats.subList(0, BOATS_PER_RACE), player, course, pools);
+        replayPending = true;
+        startPending = true;
+        simulation.reset(race);
     }
 
     /**
-     * Calls main runStep method for BoatRace which is repeatedly called for updating the game state.
+     * Keeps the race simulating on its own thread, and moves on once it's finished.
      * <p>
-     * The BoatRace runStep method checks for started or finished boats in a leg, calls update methods for
-     * the movements for player boat and AI boats obstacles as well as checking for collisions.
+     * The race is run by a {@link RaceSimulation} at a fixed tick rate, which stops by itself when the leg ends.
      *
      * @author William Walton
      */
     public int update(float deltaTime) {
-        if (player.hasFinishedLeg()) {
-            // Generate times for boats rather than simulating the race properly
-            race.generateTimesForUnfinishedBoats();
-        }
-        if (!race.isFinished()) {
-            race.runStep(deltaTime);
-            // If the player runs out of health, end the race early
-            // Use an epsilon value to account for FP errors
-            if (player.getDurability() < 0.01f) {
-                race.generateTimesForUnfinishedBoats();
-                player.getLegTimes().set(player.getLegTimes().size() - 1, (int)(BoatRace.MAX_RACE_TIME * 1000.0f));
-                return 4;
-            }
+        // Controls are read here and picked up by the simulation's next tick
+        player.setControls(PlayerBoat.readKeyboard());
 
+        // Escape suspends the race to be carried on later, unless it's between legs
+        if (nextCourse == null && Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            return -3;
         }
-            // only run 3 guaranteed legs
-        else if (legNumber < 3) {
-            race = new BoatRace(boats.subList(0, BOATS_PER_RACE), player, legNumber);
 
-            legNumber++;
+        // Coming back from the results, so the next leg should be ready to hand over
+        if (nextCourse != null) {
+            startNextRace();
+        }
 
+        if (startPending) {
+            prepareRace();
+        }
+        takeGhost();
+        if (!simulation.isRunning()) {
+            simulation.start();
+        }
 
-            // generate some "realistic" times for all boats not shown
-            for (int i = BOATS_PER_RACE; i < boats.size(); i++) {
-                boats.get(i).setCurrentRaceTime((int) (65000 + 10000 * Math.random()));
-                boats.get(i).setLegTime();
+        if (!simulation.isRunning()) {
+            // The simulation has stopped, so the race can be changed here
+            if (race.isFinished()) {
+                closeTelemetry();
+                recordTimes();
+                saveGhost();
+                saveReplay();
+            }
+            if (endless) {
+                // An endless race is the whole game, and only stops once the player's boat breaks
+                new SaveManager(this).discardRace();
+                return 6;
+            } else if (playerWrecked) {
+                playerWrecked = false;
+                return 4;
             }
+            // only run 3 guaranteed legs
+            else if (legNumber < 3) {
+                prepareNextRace();
 
-            return 4;
+                // generate some "realistic" times for all boats not shown
+                for (int i = BOATS_PER_RACE; i < boats.size(); i++) {
+                    boats.get(i).setCurrentRaceTime(65000 + seeds.nextInt(10000));
+                    boats.get(i).setLegTime();
+                }
 
-        } else if (legNumber == 3) {
-            // sort boats based on best time
-            boats.sort(Comparator.comparingInt(Boat::getBestTime));
+                new SaveManager(this).autosaveLeg();
+                return 4;
 
-            race = new BoatRace(boats.subList(0, BOATS_PER_RACE), player, legNumber);
-            legNumber++;
+            } else if (legNumber == 3) {
+                // sort boats based on best time
+                boats.sort(Comparator.comparingInt(Boat::getBestTime));
 
-            return 4;
-        }
+                prepareNextRace();
 
-        // stay in results after all legs done
-        if (race.isFinished() && legNumber > 3) return 6;
+                new SaveManager(this).autosaveLeg();
+                return 4;
+            }
 
-        final float MS_TO_MPH = 2.237f;
+            // stay in results after all legs done
+            if (race.isFinished() && legNumber > 3) return 6;
+        }
 
         // Update the UI
-        Vector3 mouse_pos = fillCamera.unproject(new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0));
-        scene.update(mouse_pos.x, mouse_pos.y);
-        float distanceRemaining = (BoatRace.END_Y - player.getSprite().getY()) * 0.01f;
-        distanceLabel.setText(String.format("Distance Remaining: %.1fm", distanceRemaining));
-        speedLabel.setText(String.format("Speed: %.0fmph", player.getSpeed() * MS_TO_MPH * 0.25f));
-        positionLabel.setText(String.format("Position: %d/%d",calculatePlayerPosition(),boats.size()));
+        fillCamera.unproject(mousePos.set(Gdx.input.getX(), Gdx.input.getY(), 0));
+        scene.update(mousePos.x, mousePos.y);
 
         return SCENE_ID;
     }
 
+    /**
+     * Stop simulating the race, and write everything needed to carry it on with {@link #resumeRace(ByteBuffer)}
+     * <p>
+     * The race carries on from where it stopped the next time the scene is updated.
+     *
+     * @return The state of the race, from the buffer's position to its limit
+     */
+    ByteBuffer suspendRace() {
+        simulation.stop();
+        // A race carried on is recorded again from where it carries on
+        closeTelemetry();
+        startPending = true;
+        return captureRace();
+    }
+
+    /**
+     * Write everything needed to carry on the race with {@link #resumeRace(ByteBuffer)}, without stopping it
+     * <p>
+     * Must only be called by the simulation thread, or while the race isn't being simulated.
+     *
+     * @return The state of the race, from the buffer's position to its limit
+     */
+    ByteBuffer captureRace() {
+        ByteBuffer out = ByteBuffer.allocate(2 * 10 + race.getStateSize());
+        VarInts.putUnsigned(out, legNumber);
+        // The boats are sorted by time after the last leg, so the player may not be where a new game puts them
+        VarInts.putUnsigned(out, boats.indexOf(player));
+        race.writeState(out);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Replace the current race with one written by {@link #suspendRace()}
+     * <p>
+     * If the race can't be read, a new race is started in its place.
+     *
+     * @param in The buffer to read the race from
+     * @throws IllegalArgumentException If the state doesn't describe a race this game can carry on
+     */
+    void resumeRace(ByteBuffer in) {
+        simulation.stop();
+        closeTelemetry();
+        freeRace();
+
+        try {
+            legNumber = VarInts.getCount(in, Integer.MAX_VALUE);
+            int playerIndex = VarInts.getCount(in, boats.size() - 1);
+            Collections.swap(boats, boats.indexOf(player), playerIndex);
+            race = BoatRace.restore(boats.subList(0, BOATS_PER_RACE), player, pools, in);
+        } catch (RuntimeException e) {
+            race = new BoatRace(boats.subList(0, BOATS_PER_RACE), player,
+                    new RaceCourse(BOATS_PER_RACE, Math.max(0, legNumber - 1), pools, seeds.nextLong(), endless),
+                    pools);
+            replayPending = true;
+            startPending = true;
+            simulation.reset(race);
+            throw e;
+        }
+        endless = race.isEndless();
+        playerWrecked = false;
+        ticksSinceSnapshot = 0;
+        // The race wasn't recorded from its start, so it can't be replayed
+        replayPending = false;
+        replay = null;
+        // It's still raced against a ghost and recorded to telemetry, though it won't make a ghost
+        startPending = true;
+        // The spec may have changed, so the ghost is looked for again
+        pendingGhost = null;
+        simulation.reset(race);
+    }
+
     /**
      * Resize method if for camera extension.
      *
@@ -278,6 +633,20 @@ public class SceneMainGame implements Scene {
         this.legNumber = Math.min(3, Math.max(0, legNumber));
     }
 
+    /**
+     * Get whether the game is a single endless race
+     **/
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Get how far the player has travelled in the current race, in metres
+     **/
+    public float getDistanceTravelled() {
+        return (float) (race.getDistanceTravelled(player) * 0.01);
+    }
+
     /**
      * Get a reference to the player boat
      **/
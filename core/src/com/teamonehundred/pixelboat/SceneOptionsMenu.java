@@ -17,6 +17,14 @@ import com.teamonehundred.pixelboat.ui.*;
  */
 public class SceneOptionsMenu implements Scene {
     private static final int SCENE_ID = 2;
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            "ui/options/bg.png", "ui/options/arrow_left.png", "ui/options/arrow_left_pressed.png",
+            "ui/options/arrow_right.png", "ui/options/arrow_right_pressed.png", "ui/options/fullscreen.png",
+            "ui/options/fullscreen_pressed.png", "ui/options/back.png", "ui/options/back_hovered.png",
+            "ui/options/checkbox_no.png", "ui/options/checkbox_yes.png",
+            "ui/Segoe UI1.png", "ui/Segoe UI2.png"
+    };
     private final Viewport fillViewport;
     private final OrthographicCamera fillCamera;
     UIScene uiScene;
@@ -40,6 +48,8 @@ public class SceneOptionsMenu implements Scene {
 
         final Image background;
         final Switch fullscreenButton;
+        final Switch endlessSwitch;
+        final Label endlessLabel;
         final Button difficultyButtonLeft;
         final Button difficultyButtonRight;
         final Button backButton;
@@ -102,6 +112,26 @@ public class SceneOptionsMenu implements Scene {
         };
         fullscreenButton.getSprite().setSize(256.0f, 64.0f);
 
+        endlessSwitch = new Switch(
+                512.0f,
+                320.0f,
+                "ui/options/checkbox_no.png",
+                "ui/options/checkbox_yes.png",
+                "ui/options/checkbox_yes.png") {
+            @Override
+            protected void onStateOff() {
+                Difficulty.getInstance().setEndless(false);
+            }
+
+            @Override
+            protected void onStateOn() {
+                Difficulty.getInstance().setEndless(true);
+            }
+        };
+        endlessSwitch.getSprite().setSize(64.0f, 64.0f);
+
+        endlessLabel = new Label(592.0f, 368.0f, 0.4f, "Endless course", false);
+
         backButton = new Button(
                 512.0f,
                 128.0f,
@@ -123,6 +153,8 @@ public class SceneOptionsMenu implements Scene {
         uiScene.addElement(1, "diff_left", difficultyButtonLeft);
         uiScene.addElement(1, "diff_right", difficultyButtonRight);
         uiScene.addElement(1, "fullscreen", fullscreenButton);
+        uiScene.addElement(1, "endless", endlessSwitch);
+        uiScene.addElement(2, "endless_text", endlessLabel);
         uiScene.addElement(2, "diff_text", difficultyLabel);
         uiScene.addElement(2, "back", backButton);
 
@@ -11,20 +11,44 @@ import com.teamonehundred.pixelboat.ui.Button;
 import com.teamonehundred.pixelboat.ui.Image;
 import com.teamonehundred.pixelboat.ui.Label;
 import com.teamonehundred.pixelboat.ui.UIScene;
+import com.teamonehundred.pixelboat.util.TextFormat;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
 
 /**
  * Represents the Boat Selection Scene for when the player wants to select which boat to play with before the race
  * starts.
+ * <p>
+ * A saved game can also be picked to load, listed from the save index without opening any of the saves.
  *
  * @author William Walton
  * JavaDoc by Umer Fakher
  */
 public class ScenePreRace implements Scene {
     private static final int SCENE_ID = 5;
+    // Picks whatever was saved last to load, rather than a particular slot
+    private static final int LATEST_SAVE = -1;
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            "ui/pre_race/bg.png", "ui/pre_race/boat_default.png", "ui/pre_race/boat_default_hovered.png",
+            "ui/pre_race/boat_fast.png", "ui/pre_race/boat_fast_hovered.png", "ui/pre_race/load_save.png",
+            "ui/pre_race/load_save_hovered.png", "ui/options/back.png", "ui/options/back_hovered.png",
+            "ui/options/arrow_left.png", "ui/options/arrow_left_pressed.png", "ui/options/arrow_right.png",
+            "ui/options/arrow_right_pressed.png",
+            "ui/Segoe UI1.png", "ui/Segoe UI2.png"
+    };
     private final UIScene scene;
     private final OrthographicCamera fillCamera;
     private int exitCode = SCENE_ID;
     private int specID = 0;
+    // Which save is picked to load, counting back from the newest slot, or LATEST_SAVE for whatever was saved last
+    private int slotIndex = LATEST_SAVE;
+    private List<SaveSlots.Slot> slots;
+    private final Label saveLabel;
+    private final StringBuilder saveText = new StringBuilder();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
 
     /**
      * Main constructor for a SceneBoatSelection.
@@ -80,6 +104,28 @@ public class ScenePreRace implements Scene {
         };
         buttonLoad.getSprite().setSize(128.0f, 64.0f);
 
+        Button buttonOlderSave = new Button(330.0f, 32.0f, "ui/options/arrow_left.png",
+                "ui/options/arrow_left_pressed.png", "ui/options/arrow_left_pressed.png") {
+            @Override
+            protected void onRelease() {
+                super.onRelease();
+                selectSave(Math.min(slotIndex + 1, slots.size() - 1));
+            }
+        };
+        buttonOlderSave.getSprite().setSize(32.0f, 64.0f);
+
+        Button buttonNewerSave = new Button(1000.0f, 32.0f, "ui/options/arrow_right.png",
+                "ui/options/arrow_right_pressed.png", "ui/options/arrow_right_pressed.png") {
+            @Override
+            protected void onRelease() {
+                super.onRelease();
+                selectSave(Math.max(slotIndex - 1, LATEST_SAVE));
+            }
+        };
+        buttonNewerSave.getSprite().setSize(32.0f, 64.0f);
+
+        saveLabel = new Label(681.0f, 76.0f, 0.3f, "Latest save", true);
+
         Button buttonBack = new Button(32.0f, 32.0f, "ui/options/back.png", "ui/options/back_hovered.png") {
             /**
              * Called when the button is pressed
@@ -98,6 +144,30 @@ public class ScenePreRace implements Scene {
         scene.addElement(1, "btnFast", buttonFast);
         scene.addElement(1, "btnLoad", buttonLoad);
         scene.addElement(1, "btnBack", buttonBack);
+        scene.addElement(1, "btnOlderSave", buttonOlderSave);
+        scene.addElement(1, "btnNewerSave", buttonNewerSave);
+        scene.addElement(1, "saveLabel", saveLabel);
+    }
+
+    /**
+     * Picks which save the load button loads, and shows what the index knows about it
+     *
+     * @param index The save counting back from the newest slot, or LATEST_SAVE for whatever was saved last
+     */
+    private void selectSave(int index) {
+        slotIndex = index;
+        SaveSlots.Slot slot = getSelectedSlot();
+        saveText.setLength(0);
+        if (slot == null) {
+            saveText.append("Latest save");
+        } else {
+            saveText.append(dateFormat.format(new Date(slot.timestamp)));
+            saveText.append("  Leg ").append(slot.legNumber);
+            saveText.append("  ").append(slot.difficulty);
+            saveText.append(slot.spec == 2 ? "  Fast boat  " : "  Default boat  ");
+            TextFormat.appendMinutesSeconds(saveText, slot.totalTime);
+        }
+        saveLabel.setText(saveText);
     }
 
     /**
@@ -152,6 +222,9 @@ public class ScenePreRace implements Scene {
     @Override
     public void show() {
         scene.lockScene();
+        // Only the index is read, and only the first time, so this stays quick however many saves there are
+        slots = SaveSlots.getInstance().getSlots();
+        selectSave(LATEST_SAVE);
     }
 
     /**
@@ -163,4 +236,14 @@ public class ScenePreRace implements Scene {
     public int getSpecID() {
         return specID;
     }
+
+    /**
+     * Getter method for the save slot picked to load.
+     *
+     * @return The slot, or null if whatever was saved last should be loaded
+     */
+    public SaveSlots.Slot getSelectedSlot() {
+        if (slotIndex == LATEST_SAVE || slotIndex >= slots.size()) return null;
+        return slots.get(slots.size() - 1 - slotIndex);
+    }
 }
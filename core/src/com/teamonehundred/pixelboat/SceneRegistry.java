@@ -0,0 +1,117 @@
+package com.teamonehundred.pixelboat;
+
+import com.teamonehundred.pixelboat.util.TextureRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The game's scenes, registered as factories and only built the first time they're used.
+ * <p>
+ * Each scene's images are preloaded by the {@link TextureRegistry} when it's registered, so they load in the
+ * background while earlier scenes are shown. A scene is ready once it's built or its images have loaded. Images a
+ * discarded scene released can be unloaded again, so checking whether a scene is ready queues them again.
+ */
+class SceneRegistry {
+
+    /** A registered scene, built on first use **/
+    private static class Entry {
+        final Supplier<Scene> factory;
+        final String[] assets;
+        Scene scene;
+
+        Entry(Supplier<Scene> factory, String[] assets) {
+            this.factory = factory;
+            this.assets = assets;
+        }
+    }
+
+    private final Map<Integer, Entry> entries;
+
+    /**
+     * Construct a registry with no scenes
+     **/
+    SceneRegistry() {
+        entries = new HashMap<>();
+    }
+
+    /**
+     * Register a scene and start preloading its images
+     *
+     * @param id      The ID scenes return from update to switch to the scene
+     * @param assets  The paths of the images the scene uses
+     * @param factory Builds the scene
+     */
+    void register(int id, String[] assets, Supplier<Scene> factory) {
+        entries.put(id, new Entry(factory, assets));
+        for (String path : assets) {
+            TextureRegistry.getInstance().preload(path);
+        }
+    }
+
+    /**
+     * Check whether a scene can be used without waiting for its images to load, preloading any that aren't loaded
+     *
+     * @param id The ID of the scene
+     * @return true if the scene is built or its images have loaded
+     */
+    boolean isReady(int id) {
+        Entry entry = entries.get(id);
+        if (entry.scene != null) return true;
+        boolean ready = true;
+        for (String path : entry.assets) {
+            if (!TextureRegistry.getInstance().isPreloaded(path)) {
+                // Does nothing if it's still loading, but it may have been unloaded since the scene was registered
+                TextureRegistry.getInstance().preload(path);
+                ready = false;
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Get a scene, building it if it hasn't been used yet
+     *
+     * @param id The ID of the scene
+     * @return The scene
+     */
+    Scene get(int id) {
+        Entry entry = entries.get(id);
+        if (entry.scene == null) {
+            entry.scene = entry.factory.get();
+        }
+        return entry.scene;
+    }
+
+    /**
+     * Check whether a scene has been built since it was registered or last discarded
+     *
+     * @param id The ID of the scene
+     * @return true if the scene is built
+     */
+    boolean isBuilt(int id) {
+        return entries.get(id).scene != null;
+    }
+
+    /**
+     * Check whether a scene is the one registered under an ID, without building it
+     *
+     * @param id    The ID of the scene
+     * @param scene The scene to check
+     * @return true if the scene with the ID has been built and is the given scene
+     */
+    boolean isScene(int id, Scene scene) {
+        Scene built = entries.get(id).scene;
+        return built != null && built == scene;
+    }
+
+    /**
+     * Throw away a scene, so a new one is built the next time it's used
+     *
+     * @param id The ID of the scene
+     */
+    void discard(int id) {
+        entries.get(id).scene = null;
+    }
+}
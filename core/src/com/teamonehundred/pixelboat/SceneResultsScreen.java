@@ -11,6 +11,7 @@ import com.teamonehundred.pixelboat.ui.Button;
 import com.teamonehundred.pixelboat.ui.Image;
 import com.teamonehundred.pixelboat.ui.Label;
 import com.teamonehundred.pixelboat.ui.UIScene;
+import com.teamonehundred.pixelboat.util.FontRegistry;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -24,6 +25,14 @@ import java.util.List;
  */
 public class SceneResultsScreen implements Scene {
     private static final int SCENE_ID = 4;
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            "ui/results/bg.png", "ui/results/save.png", "ui/results/save_pressed.png", "ui/results/save_hovered.png",
+            "ui/results/next.png", "ui/results/next_pressed.png", "ui/Segoe UI1.png", "ui/Segoe UI2.png"
+    };
+    private static final float TITLE_SCALE = 0.6f;
+    private static final float HEADING_SCALE = 0.2f;
+    private static final float ROW_SCALE = 0.3f;
     private final Viewport fillViewport;
     private final OrthographicCamera fillCamera;
     UIScene uiScene;
@@ -40,6 +49,11 @@ public class SceneResultsScreen implements Scene {
         uiScene = new UIScene();
 
         boats = null;
+
+        // Load the fonts now so showing the results doesn't have to read them from disk
+        FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, TITLE_SCALE);
+        FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, HEADING_SCALE);
+        FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, ROW_SCALE);
     }
 
     /**
@@ -143,10 +157,10 @@ public class SceneResultsScreen implements Scene {
         Image bg = new Image(0.0f, 0.0f, "ui/results/bg.png");
         uiScene.addElement(0, "bg", bg);
 
-        Label t1 = new Label(640.0f, 700.0f, 0.6f, "Click on the screen to skip and start the next leg!", true);
-        Label tName = new Label(480.0f, 550.0f, 0.2f, "BOAT NAME", true);
-        Label tTime = new Label(640.0f, 550.0f, 0.2f, "RACE TIME", true);
-        Label tAdd = new Label(800.0f, 550.0f, 0.2f, "RACE PENALTY", true);
+        Label t1 = new Label(640.0f, 700.0f, TITLE_SCALE, "Click on the screen to skip and start the next leg!", true);
+        Label tName = new Label(480.0f, 550.0f, HEADING_SCALE, "BOAT NAME", true);
+        Label tTime = new Label(640.0f, 550.0f, HEADING_SCALE, "RACE TIME", true);
+        Label tAdd = new Label(800.0f, 550.0f, HEADING_SCALE, "RACE PENALTY", true);
 
         uiScene.addElement(1, "t1", t1);
         uiScene.addElement(1, "tn", tName);
@@ -181,13 +195,34 @@ public class SceneResultsScreen implements Scene {
 
         for (int i = 0; i < timings.size(); ++i) {
             Timing t = timings.get(i);
-            Label lName = new Label(480.0f, 500.0f - (i * 40.0f), 0.3f, t.name, true);
-            Label lTime = new Label(640.0f, 500.0f - (i * 40.0f), 0.3f,  t.time + " ms", true);
-            Label lAdditional = new Label(800.0f, 500.0f - (i * 40.0f), 0.3f, t.add + " ms", true);
+            Label lName = new Label(480.0f, 500.0f - (i * 40.0f), ROW_SCALE, t.name, true);
+            Label lTime = new Label(640.0f, 500.0f - (i * 40.0f), ROW_SCALE,  t.time + " ms", true);
+            Label lAdditional = new Label(800.0f, 500.0f - (i * 40.0f), ROW_SCALE, t.add + " ms", true);
             uiScene.addElement(1, "labelName" + i, lName);
             uiScene.addElement(1, "labelTime" + i, lTime);
             uiScene.addElement(1, "labelAdditional" + i, lAdditional);
         }
+
+        // Where the player's time for the leg ranks among every time they've set on it
+        for (Boat b : boats) {
+            if (!(b instanceof PlayerBoat)) continue;
+            List<Integer> legTimes = b.getLegTimes();
+            int time = legTimes.get(legTimes.size() - 1);
+            if (time >= (int) (BoatRace.MAX_RACE_TIME * 1000.0f)) break;
+            int spec = ((PlayerBoat) b).getSpec();
+            Difficulty.DifficultyLevel difficulty = Difficulty.getInstance().getDifficultyLevel();
+            int leg = legTimes.size();
+            // Shown once the leaderboard has loaded, which it almost always has by the end of a leg
+            Leaderboard.whenLoaded(leaderboard -> {
+                List<Leaderboard.Entry> top = leaderboard.getTop(difficulty, spec, leg, 1);
+                if (top.isEmpty()) return;
+                int best = top.get(0).time;
+                String text = "Leaderboard: #" + leaderboard.getRank(difficulty, spec, leg, time) + " of "
+                        + leaderboard.getCount(difficulty, spec, leg) + " - best " + best + " ms";
+                uiScene.addElement(1, "leaderboard", new Label(640.0f, 200.0f, ROW_SCALE, text, true));
+            });
+            break;
+        }
     }
 
     /**
@@ -19,6 +19,11 @@ import com.teamonehundred.pixelboat.ui.UIScene;
  */
 public class SceneStartScreen implements Scene {
     private static final int SCENE_ID = 0;
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            "ui/main_bg.png", "ui/start_menu/play.png", "ui/start_menu/play_hovered.png",
+            "ui/start_menu/options.png", "ui/start_menu/options_hovered.png"
+    };
     private final UIScene scene;
     private final Viewport fillViewport;
     private final OrthographicCamera fillCamera;
@@ -9,6 +9,7 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.viewport.FillViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
 
 /**
  * Represents the Tutorial Scene for when the player wants to see the controls and learn the purpose of UI elements
@@ -19,6 +20,11 @@ import com.badlogic.gdx.utils.viewport.Viewport;
  */
 public class SceneTutorial implements Scene {
     private static final int SCENE_ID = 3;
+    private static final String BACKGROUND_PATH = "tutorial_screen.png";
+    // The images the scene uses, preloaded before it's built
+    static final String[] ASSETS = {
+            BACKGROUND_PATH
+    };
 
     private final Texture bg;
     private final Sprite bgSprite;
@@ -40,17 +46,17 @@ public class SceneTutorial implements Scene {
         fillCamera.position.set(fillCamera.viewportWidth / 2, fillCamera.viewportHeight / 2, 0);
         fillViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
 
-        bg = new Texture("tutorial_screen.png");
+        bg = TextureRegistry.getInstance().acquire(BACKGROUND_PATH);
         bgSprite = new Sprite(bg);
         bgSprite.setPosition(0, 0);
         bgSprite.setSize(1280, 720);
     }
 
     /**
-     * Destructor disposes of this texture once it is no longer referenced.
+     * Destructor releases the background texture once this is no longer referenced.
      */
     protected void finalize() {
-        bg.dispose();
+        TextureRegistry.getInstance().release(BACKGROUND_PATH);
     }
 
     /**
@@ -0,0 +1,189 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.teamonehundred.pixelboat.util.BandIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static scenery for a leg, baked into a {@link SpriteCache} so its vertices are only built once.
+ * <p>
+ * Scenery is split into the same height bands as the {@link RenderQueue}, with one cache per band and layer,
+ * so drawing the scenery in view is a handful of draw calls with no per-sprite work.
+ * <p>
+ * The caches are only baked the first time the scenery is drawn, so a race that's simulated without being drawn,
+ * like a replay played back headlessly, never needs a graphics context.
+ */
+class SceneryCache {
+
+    /**
+     * The layer drawn beneath everything else on the water
+     */
+    static final int UNDERLAY = 0;
+    /**
+     * The layer drawn over the boats
+     */
+    static final int OVERLAY = 1;
+
+    // A SpriteCache using indices can't hold any more sprites than this
+    private static final int MAX_SPRITES = 8191;
+    private static final int LAYER_COUNT = 2;
+
+    /** A piece of scenery waiting to be baked **/
+    private static class Piece {
+        final TextureRegion region;
+        final float x;
+        final float y;
+        final float width;
+        final float height;
+
+        Piece(TextureRegion region, float x, float y, float width, float height) {
+            this.region = region;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final float minY;
+    private final int bandCount;
+    // The height of the tallest piece, which sets how far below the view pieces can start and still be seen
+    private float maxPieceHeight = 0.0f;
+    private final List<List<List<Piece>>> pieces;
+    private final int[][] cacheIds;
+    private SpriteCache cache;
+    private boolean built = false;
+    private boolean disposed = false;
+
+    /**
+     * Construct an empty scenery cache covering the given heights
+     *
+     * @param minY The lowest height covered
+     * @param maxY The highest height covered
+     */
+    SceneryCache(float minY, float maxY) {
+        this(minY, maxY, null);
+    }
+
+    /**
+     * Construct an empty scenery cache covering the given heights, which bakes into the given cache
+     *
+     * @param minY  The lowest height covered
+     * @param maxY  The highest height covered
+     * @param cache The cache to bake into, or null to make one big enough the first time the scenery is drawn
+     */
+    SceneryCache(float minY, float maxY, SpriteCache cache) {
+        this.minY = minY;
+        this.cache = cache;
+
+        bandCount = (int) Math.ceil((maxY - minY) / BandIndex.BAND_HEIGHT) + 1;
+        pieces = new ArrayList<>(LAYER_COUNT);
+        for (int layer = 0; layer < LAYER_COUNT; ++layer) {
+            List<List<Piece>> bands = new ArrayList<>(bandCount);
+            for (int band = 0; band < bandCount; ++band) {
+                bands.add(new ArrayList<>());
+            }
+            pieces.add(bands);
+        }
+        cacheIds = new int[LAYER_COUNT][bandCount];
+    }
+
+    /** Gets the index of the band containing height y, clamped to the bands covered **/
+    private int getBand(float y) {
+        int band = (int) Math.floor((y - minY) / BandIndex.BAND_HEIGHT);
+        return Math.max(0, Math.min(bandCount - 1, band));
+    }
+
+    /**
+     * Add a piece of scenery, which is baked the first time the scenery is drawn
+     *
+     * @param layer  The layer to draw the scenery on, UNDERLAY or OVERLAY
+     * @param region The image to draw
+     * @param x      The x position of the bottom left corner
+     * @param y      The y position of the bottom left corner
+     * @param width  The width to draw the image at
+     * @param height The height to draw the image at
+     */
+    void add(int layer, TextureRegion region, float x, float y, float width, float height) {
+        // Pieces are stored in the band they start in
+        pieces.get(layer).get(getBand(y)).add(new Piece(region, x, y, width, height));
+        maxPieceHeight = Math.max(maxPieceHeight, height);
+    }
+
+    /** Bakes all the scenery added into caches, after which no more can be added **/
+    private void build() {
+        int count = 0;
+        for (List<List<Piece>> bands : pieces) {
+            for (List<Piece> band : bands) {
+                count += band.size();
+            }
+        }
+        if (cache == null) cache = new SpriteCache(Math.max(1, Math.min(MAX_SPRITES, count)), true);
+        built = true;
+
+        for (int layer = 0; layer < LAYER_COUNT; ++layer) {
+            for (int band = 0; band < bandCount; ++band) {
+                List<Piece> bandPieces = pieces.get(layer).get(band);
+                if (bandPieces.isEmpty()) {
+                    cacheIds[layer][band] = -1;
+                    continue;
+                }
+                cache.beginCache();
+                for (Piece piece : bandPieces) {
+                    cache.add(piece.region, piece.x, piece.y, piece.width, piece.height);
+                }
+                cacheIds[layer][band] = cache.endCache();
+                bandPieces.clear();
+            }
+        }
+    }
+
+    /**
+     * Draw the scenery on a layer which is in view
+     * <p>
+     * Must not be called between the begin and end of a SpriteBatch. Draws nothing once disposed.
+     *
+     * @param projection The projection matrix of the camera
+     * @param view       The area of the world in view
+     * @param layer      The layer to draw, UNDERLAY or OVERLAY
+     */
+    void draw(Matrix4 projection, Rectangle view, int layer) {
+        // Nothing is drawn once the cache is disposed
+        if (disposed) return;
+        if (!built) build();
+
+        int firstBand = getBand(view.y - maxPieceHeight);
+        int lastBand = getBand(view.y + view.height);
+
+        // SpriteBatch.end turns blending off and SpriteCache.begin doesn't turn it back on, so without this the
+        // transparent edges of the scenery would be drawn opaque
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        for (int band = firstBand; band <= lastBand; ++band) {
+            if (cacheIds[layer][band] != -1) {
+                cache.draw(cacheIds[layer][band]);
+            }
+        }
+        cache.end();
+    }
+
+    /**
+     * Free the memory used by the caches
+     **/
+    void dispose() {
+        disposed = true;
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+    }
+}
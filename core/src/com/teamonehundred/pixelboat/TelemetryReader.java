@@ -0,0 +1,195 @@
+package com.teamonehundred.pixelboat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by a {@link RaceTelemetry} recorder, for looking at races afterwards
+ * <p>
+ * The file is mapped into memory and its blocks are found when it's opened, but they're only decompressed as they're
+ * streamed. The streams are parallel, each block being decompressed on whichever thread reaches it, so a long race
+ * can be summed up using every core.
+ * <p>
+ * For example, the fastest speed reached by the player:
+ * <pre>
+ * reader.blocks().mapToDouble(block -&gt; IntStream.range(0, block.getRowCount())
+ *         .filter(row -&gt; block.getBoat(row) == player)
+ *         .mapToDouble(row -&gt; block.get(RaceTelemetry.Column.SPEED, row))
+ *         .max().orElse(0.0)).max()
+ * </pre>
+ */
+public class TelemetryReader {
+
+    private final ByteBuffer file;
+    private final int legNumber;
+    private final Difficulty.DifficultyLevel difficulty;
+    private final boolean endless;
+    private final int boatCount;
+    // Where each block's header starts
+    private final List<Integer> blockOffsets = new ArrayList<>();
+    private long rowCount = 0;
+
+    /** Construct a reader over a whole file, finding its blocks **/
+    private TelemetryReader(ByteBuffer file) throws IOException {
+        this.file = file;
+        if (file.remaining() < RaceTelemetry.HEADER_SIZE) throw new IOException("Telemetry file is too short");
+        if (file.getInt() != RaceTelemetry.MAGIC) throw new IOException("Telemetry file is the wrong kind of file");
+        int version = file.getInt();
+        if (version != RaceTelemetry.FORMAT_VERSION)
+            throw new IOException("Telemetry format version " + version + " is not supported");
+        legNumber = file.getInt();
+        Difficulty.DifficultyLevel[] levels = Difficulty.DifficultyLevel.values();
+        int level = file.getInt();
+        if (level < 0 || level >= levels.length) throw new IOException("Telemetry has an unknown difficulty");
+        difficulty = levels[level];
+        endless = file.getInt() != 0;
+        boatCount = file.getInt();
+
+        // A block cut short is where the game closed while it was being written, so everything before it is kept
+        while (file.remaining() >= RaceTelemetry.BLOCK_HEADER_SIZE) {
+            int offset = file.position();
+            int rows = file.getInt();
+            int rawSize = file.getInt();
+            int size = file.getInt();
+            file.getInt();
+            if (rows <= 0 || rows > RaceTelemetry.ROWS_PER_BLOCK || rawSize != rows * RaceTelemetry.ROW_SIZE
+                    || size < 0 || size > file.remaining()) break;
+            file.position(file.position() + size);
+            blockOffsets.add(offset);
+            rowCount += rows;
+        }
+    }
+
+    /**
+     * Open a telemetry file
+     *
+     * @param path The file to read
+     * @return The reader
+     * @throws IOException If the file couldn't be read, or isn't a telemetry file
+     */
+    public static TelemetryReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new TelemetryReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Stream every block in the file, decompressing them in parallel
+     * <p>
+     * The blocks may be processed out of order, but each block's rows are in the order they were recorded.
+     *
+     * @return A parallel stream of blocks
+     * @throws UncheckedIOException From the stream's terminal operation, if a block is corrupt
+     */
+    public Stream<RaceTelemetry.Block> blocks() {
+        return IntStream.range(0, blockOffsets.size()).parallel().mapToObj(this::readBlock);
+    }
+
+    /**
+     * Stream one of the float fields of every row for a boat, in parallel
+     *
+     * @param column The field
+     * @param boat   The position in the race of the boat
+     * @return A parallel stream of values, in no particular order
+     */
+    public DoubleStream column(RaceTelemetry.Column column, int boat) {
+        return blocks().flatMapToDouble(block -> IntStream.range(0, block.getRowCount())
+                .filter(row -> block.getBoat(row) == boat)
+                .mapToDouble(row -> block.get(column, row)));
+    }
+
+    /**
+     * Decompress a block
+     *
+     * @param index The block's position in the file
+     * @return The block
+     * @throws UncheckedIOException If the block is corrupt
+     */
+    public RaceTelemetry.Block readBlock(int index) {
+        // Each block gets its own view of the file, so they can be read on different threads
+        ByteBuffer in = file.duplicate();
+        in.position(blockOffsets.get(index));
+        int rows = in.getInt();
+        int rawSize = in.getInt();
+        int size = in.getInt();
+        int checksum = in.getInt();
+        byte[] compressed = new byte[size];
+        in.get(compressed);
+
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        if ((int) crc.getValue() != checksum)
+            throw new UncheckedIOException(new IOException("Telemetry block " + index + " checksum does not match"));
+
+        byte[] raw = new byte[rawSize];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(raw) != rawSize || !inflater.finished())
+                throw new UncheckedIOException(new IOException("Telemetry block " + index + " is the wrong size"));
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Telemetry block " + index + " is corrupt", e));
+        } finally {
+            inflater.end();
+        }
+
+        RaceTelemetry.Block block = new RaceTelemetry.Block(rows);
+        block.rows = rows;
+        block.readColumns(ByteBuffer.wrap(raw));
+        return block;
+    }
+
+    /**
+     * Get the leg the race was
+     **/
+    public int getLegNumber() {
+        return legNumber;
+    }
+
+    /**
+     * Get the difficulty the race was played at
+     **/
+    public Difficulty.DifficultyLevel getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Get whether the race was endless
+     **/
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Get the number of boats in the race
+     **/
+    public int getBoatCount() {
+        return boatCount;
+    }
+
+    /**
+     * Get the number of blocks in the file
+     **/
+    public int getBlockCount() {
+        return blockOffsets.size();
+    }
+
+    /**
+     * Get the number of rows in the file
+     **/
+    public long getRowCount() {
+        return rowCount;
+    }
+}
@@ -2,9 +2,10 @@ package com.teamonehundred.pixelboat.ui;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
 
 /**
  * A basic UI button class with three states - normal, hovered, and pressed
@@ -13,10 +14,13 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 public abstract class Button extends UIElement {
 
     protected final Sprite sprite;
-    protected final Texture hoverTexture;
-    protected Texture regularTexture;
-    protected Texture pressedTexture;
+    protected final TextureRegion hoverRegion;
+    protected TextureRegion regularRegion;
+    protected TextureRegion pressedRegion;
     protected boolean isPressed;
+    private final String texturePath;
+    private final String pressedTexturePath;
+    private final String hoverTexturePath;
 
     /**
      * Constructor for buttons with regular/hovered/pressed states
@@ -28,10 +32,14 @@ public abstract class Button extends UIElement {
      * @param hoverTexturePath   The path to the button's texture when hovered over
      */
     public Button(float x, float y, String texturePath, String pressedTexturePath, String hoverTexturePath) {
-        regularTexture = new Texture(Gdx.files.internal(texturePath));
-        pressedTexture = new Texture(Gdx.files.internal(pressedTexturePath));
-        hoverTexture = new Texture(Gdx.files.internal(hoverTexturePath));
-        sprite = new Sprite(regularTexture);
+        this.texturePath = texturePath;
+        this.pressedTexturePath = pressedTexturePath;
+        this.hoverTexturePath = hoverTexturePath;
+        final TextureRegistry textures = TextureRegistry.getInstance();
+        regularRegion = textures.acquireRegion(texturePath);
+        pressedRegion = textures.acquireRegion(pressedTexturePath);
+        hoverRegion = textures.acquireRegion(hoverTexturePath);
+        sprite = new Sprite(regularRegion);
         sprite.setPosition(x, y);
 
         isPressed = false;
@@ -82,7 +90,7 @@ public abstract class Button extends UIElement {
                 onHover();
             }
         } else {
-            sprite.setTexture(regularTexture);
+            sprite.setRegion(regularRegion);
         }
     }
 
@@ -96,6 +104,17 @@ public abstract class Button extends UIElement {
         if (visible) sprite.draw(batch);
     }
 
+    /**
+     * Release the button's textures
+     **/
+    @Override
+    public void dispose() {
+        final TextureRegistry textures = TextureRegistry.getInstance();
+        textures.release(texturePath);
+        textures.release(pressedTexturePath);
+        textures.release(hoverTexturePath);
+    }
+
     /**
      * Get the button's sprite
      **/
@@ -121,21 +140,21 @@ public abstract class Button extends UIElement {
      * Called when the button is pressed
      **/
     protected void onPress() {
-        sprite.setTexture(pressedTexture);
+        sprite.setRegion(pressedRegion);
     }
 
     /**
      * Called when the button is released
      **/
     protected void onRelease() {
-        sprite.setTexture(regularTexture);
+        sprite.setRegion(regularRegion);
     }
 
     /**
      * Called when the button is hovered over
      **/
     protected void onHover() {
-        sprite.setTexture(hoverTexture);
+        sprite.setRegion(hoverRegion);
     }
 
 }
@@ -1,15 +1,16 @@
 package com.teamonehundred.pixelboat.ui;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
 
 /**
  * A basic UI image class which allows an image to be drawn in a scene
  */
 public class Image extends UIElement {
     private final Sprite sprite;
+    private final String texturePath;
 
     /**
      * Construct a new image UI element
@@ -19,11 +20,20 @@ public class Image extends UIElement {
      * @param texturePath The path to the image's texture
      */
     public Image(final float x, final float y, final String texturePath) {
-        Texture tx = new Texture(Gdx.files.internal(texturePath));
-        sprite = new Sprite(tx);
+        this.texturePath = texturePath;
+        TextureRegion region = TextureRegistry.getInstance().acquireRegion(texturePath);
+        sprite = new Sprite(region);
         sprite.setPosition(x, y);
     }
 
+    /**
+     * Release the image's texture
+     **/
+    @Override
+    public void dispose() {
+        TextureRegistry.getInstance().release(texturePath);
+    }
+
     /**
      * Get the image's sprite
      **/
@@ -1,18 +1,22 @@
 package com.teamonehundred.pixelboat.ui;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.teamonehundred.pixelboat.util.FontRegistry;
 
 /**
  * A basic UI label class which allows text to be drawn to the screen
  * either centre or left aligned
+ * <p>
+ * Labels share their fonts through the {@link FontRegistry}, and only lay out their text again when it changes.
  */
 public class Label extends UIElement {
 
     private final BitmapFont font;
     private final GlyphLayout glyphLayout;
+    // The text currently laid out
+    private final StringBuilder text;
     private final float x;
     private final float y;
     private final boolean drawCentreAligned;
@@ -27,16 +31,15 @@ public class Label extends UIElement {
      * @param drawCentreAligned Whether the x position is the centre of the label or the left
      */
     public Label(float x, float y, float size, String text, boolean drawCentreAligned) {
-        font = new BitmapFont(Gdx.files.internal("ui/Segoe UI.fnt"));
+        font = FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, size);
         glyphLayout = new GlyphLayout();
+        this.text = new StringBuilder();
 
         this.x = x;
         this.y = y;
 
         this.drawCentreAligned = drawCentreAligned;
 
-
-        font.getData().setScale(size);
         setText(text);
 
     }
@@ -73,10 +76,25 @@ public class Label extends UIElement {
     }
 
     /**
-     * Set the text that the label should show
+     * Set the text that the label should show, laying it out again only if it has changed
+     * <p>
+     * The text is copied, so a reused StringBuilder can be passed in.
      **/
-    public void setText(String text) {
-        glyphLayout.setText(font, text);
+    public void setText(CharSequence text) {
+        if (isShowing(text)) return;
+        this.text.setLength(0);
+        this.text.append(text);
+        glyphLayout.setText(font, this.text);
+    }
 
+    /**
+     * Checks if the label is already showing some text, without allocating
+     **/
+    private boolean isShowing(CharSequence other) {
+        if (text.length() != other.length()) return false;
+        for (int i = 0; i < text.length(); ++i) {
+            if (text.charAt(i) != other.charAt(i)) return false;
+        }
+        return true;
     }
 }
@@ -44,9 +44,9 @@ public class Switch extends Button {
             }
         } else {
             if (state)
-                sprite.setTexture(pressedTexture);
+                sprite.setRegion(pressedRegion);
             else
-                sprite.setTexture(regularTexture);
+                sprite.setRegion(regularRegion);
         }
     }
 
@@ -55,8 +55,8 @@ public class Switch extends Button {
      **/
     @Override
     protected void onHover() {
-        if (state) sprite.setTexture(regularTexture);
-        else sprite.setTexture(hoverTexture);
+        if (state) sprite.setRegion(regularRegion);
+        else sprite.setRegion(hoverRegion);
     }
 
     /**
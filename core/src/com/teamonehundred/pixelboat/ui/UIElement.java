@@ -24,6 +24,11 @@ public abstract class UIElement {
      */
     public void update(final float mouseX, final float mouseY) {}
 
+    /**
+     * Release any resources the UI element holds, after which it should not be drawn
+     */
+    public void dispose() {}
+
     /** Set whether the object should be visible and updated or not **/
     public void setVisible(boolean visible)
     {
@@ -73,12 +73,25 @@ public class UIScene extends UIElement {
     }
 
     /**
-     * Remove all objects from the scene
+     * Remove all objects from the scene, disposing of them
      **/
     public void clear() {
+        dispose();
         _sceneObjects.clear();
     }
 
+    /**
+     * Dispose of all elements in the scene
+     */
+    @Override
+    public void dispose() {
+        for (HashMap<String, UIElement> hm : _sceneObjects.values()) {
+            for (UIElement e : hm.values()) {
+                e.dispose();
+            }
+        }
+    }
+
     /**
      * Lock the scene until the mouse is released
      **/
@@ -0,0 +1,85 @@
+package com.teamonehundred.pixelboat.util;
+
+import com.teamonehundred.pixelboat.CollisionObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spatial index which splits a course into horizontal bands of a fixed height
+ * <p>
+ * The course is far taller than it is wide, so looking up the bands covering a range of heights quickly finds
+ * everything near a point on it. An object is stored in every band its vertical extent overlaps.
+ */
+public class BandIndex {
+
+    public final static float BAND_HEIGHT = 512.0f;
+
+    private final float minY;
+    private final List<List<CollisionObject>> bands;
+
+    /**
+     * Construct an empty index covering the given heights
+     *
+     * @param minY The lowest height covered
+     * @param maxY The highest height covered
+     */
+    public BandIndex(float minY, float maxY) {
+        this.minY = minY;
+
+        int bandCount = (int) Math.ceil((maxY - minY) / BAND_HEIGHT) + 1;
+        bands = new ArrayList<>(bandCount);
+        for (int i = 0; i < bandCount; ++i) {
+            bands.add(new ArrayList<>());
+        }
+    }
+
+    /** Gets the index of the band containing height y, clamped to the bands covered **/
+    public int getBand(float y) {
+        int band = (int) Math.floor((y - minY) / BAND_HEIGHT);
+        return Math.max(0, Math.min(bands.size() - 1, band));
+    }
+
+    /** Gets the number of bands **/
+    public int getBandCount() {
+        return bands.size();
+    }
+
+    /** Gets the lowest height covered by a band **/
+    public float getBandMinY(int band) {
+        return minY + band * BAND_HEIGHT;
+    }
+
+    /** Gets the contents of a band, which must not be modified **/
+    public List<CollisionObject> get(int band) {
+        return bands.get(band);
+    }
+
+    /** Adds object v to every band between heights minY and maxY **/
+    public void add(float minY, float maxY, CollisionObject v) {
+        for (int band = getBand(minY); band <= getBand(maxY); ++band) {
+            bands.get(band).add(v);
+        }
+    }
+
+    /** Removes object v from every band it's in **/
+    public void remove(CollisionObject v) {
+        for (List<CollisionObject> band : bands) {
+            band.remove(v);
+        }
+    }
+
+    /** Removes object v from every band between heights minY and maxY, which it was added with **/
+    public void remove(float minY, float maxY, CollisionObject v) {
+        for (int band = getBand(minY); band <= getBand(maxY); ++band) {
+            bands.get(band).remove(v);
+        }
+    }
+
+    /** Removes all objects from the index **/
+    public void clear() {
+        for (List<CollisionObject> band : bands) {
+            band.clear();
+        }
+    }
+}
@@ -78,6 +78,37 @@ public class CollisionTree implements ICollisionTreeNode {
         resolveObjectPosition(x,y).remove(x,y,v);
     }
 
+    /**
+     * Adds object v to every node that a point in the given area would be looked up in
+     * <p>
+     * Used for objects that travel over an area, so they can be indexed once rather than every time they move
+     **/
+    public void add(float minX, float minY, float maxX, float maxY, CollisionObject v) {
+        // Nodes are never smaller than half the minimum size, so stepping by that visits every node in the area
+        final float stepX = MIN_WIDTH * 0.5f;
+        final float stepY = MIN_HEIGHT * 0.5f;
+        for (float px = minX; ; px = Math.min(px + stepX, maxX)) {
+            for (float py = minY; ; py = Math.min(py + stepY, maxY)) {
+                add(px, py, v);
+                if (py >= maxY) break;
+            }
+            if (px >= maxX) break;
+        }
+    }
+
+    /** Removes object v from every node in the given area **/
+    public void remove(float minX, float minY, float maxX, float maxY, CollisionObject v) {
+        final float stepX = MIN_WIDTH * 0.5f;
+        final float stepY = MIN_HEIGHT * 0.5f;
+        for (float px = minX; ; px = Math.min(px + stepX, maxX)) {
+            for (float py = minY; ; py = Math.min(py + stepY, maxY)) {
+                remove(px, py, v);
+                if (py >= maxY) break;
+            }
+            if (px >= maxX) break;
+        }
+    }
+
     /**
      * Removes all objects from the quadtree
      **/
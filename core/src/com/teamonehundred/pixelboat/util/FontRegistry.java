@@ -0,0 +1,109 @@
+package com.teamonehundred.pixelboat.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry of bitmap fonts, so each face is loaded once per scale it's drawn at and shared by everything using it.
+ * <p>
+ * Every scale of a face shares its page textures through the {@link TextureRegistry}. The game only uses a few
+ * fonts, so they're kept until the registry is disposed. Shared fonts must not have their scale changed, and
+ * anything changing a font's colour should set it every time before drawing.
+ */
+public class FontRegistry {
+
+    /**
+     * The path of the font used by the UI, relative to the assets folder
+     */
+    public static final String DEFAULT_FACE = "ui/Segoe UI.fnt";
+
+    private static FontRegistry instance;
+
+    private final Map<String, BitmapFont> fonts;
+    // The page textures acquired for every font loaded, so they can be released
+    private final List<String> pagePaths;
+    private BitmapFont builtInFont;
+
+    /* Singleton pattern */
+    // Set to private so the registry can only be obtained as a singleton instance
+    private FontRegistry() {
+        fonts = new HashMap<>();
+        pagePaths = new ArrayList<>();
+    }
+
+    public static synchronized FontRegistry getInstance() {
+        if (instance == null) {
+            instance = new FontRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a font, loading it if it hasn't been used at this scale before
+     *
+     * @param path  The path of the font's .fnt file, relative to the assets folder
+     * @param scale The scale to draw the font at
+     * @return The shared font
+     */
+    public synchronized BitmapFont get(String path, float scale) {
+        String key = path + '@' + scale;
+        BitmapFont font = fonts.get(key);
+        if (font == null) {
+            font = load(path, scale);
+            fonts.put(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Get libGDX's built-in font at its normal size
+     *
+     * @return The shared font
+     */
+    public synchronized BitmapFont getBuiltIn() {
+        if (builtInFont == null) {
+            builtInFont = new BitmapFont();
+        }
+        return builtInFont;
+    }
+
+    /**
+     * Dispose of every font, releasing their page textures
+     **/
+    public synchronized void dispose() {
+        for (BitmapFont font : fonts.values()) {
+            font.dispose();
+        }
+        fonts.clear();
+        for (String pagePath : pagePaths) {
+            TextureRegistry.getInstance().release(pagePath);
+        }
+        pagePaths.clear();
+        if (builtInFont != null) {
+            builtInFont.dispose();
+            builtInFont = null;
+        }
+    }
+
+    /** Loads a font at a scale, taking its pages from the texture registry **/
+    private BitmapFont load(String path, float scale) {
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData(Gdx.files.internal(path), false);
+        Array<TextureRegion> pages = new Array<>();
+        for (String pagePath : data.getImagePaths()) {
+            pages.add(new TextureRegion(TextureRegistry.getInstance().acquire(pagePath)));
+            pagePaths.add(pagePath);
+        }
+
+        // Matches the defaults of the BitmapFont file constructors
+        BitmapFont font = new BitmapFont(data, pages, true);
+        font.getData().setScale(scale);
+        return font;
+    }
+}
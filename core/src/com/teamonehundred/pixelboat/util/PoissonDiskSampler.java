@@ -0,0 +1,217 @@
+package com.teamonehundred.pixelboat.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Places points at random while keeping them a minimum distance apart, using dart throwing over a background grid.
+ * <p>
+ * Every point has its own spacing, and two points are kept at least the larger of their spacings apart. The grid's
+ * cells are small enough to hold at most one point, so checking a candidate only looks at a fixed number of cells
+ * around it, and placing n points takes time linear in n.
+ */
+public class PoissonDiskSampler {
+
+    /**
+     * The number of random candidates tried for each point before giving up on it
+     */
+    public static final int ATTEMPTS = 30;
+
+    private final float minX;
+    private final float minY;
+    private final float maxSpacing;
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+    // The index of the point in each cell plus one, or 0 if the cell is empty
+    private final int[] cells;
+
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    private float[] spacings = new float[64];
+    private int size = 0;
+
+    /**
+     * Construct an empty sampler covering an area
+     *
+     * @param minX       The left of the area
+     * @param minY       The bottom of the area
+     * @param maxX       The right of the area
+     * @param maxY       The top of the area
+     * @param minSpacing The smallest spacing any point will have
+     * @param maxSpacing The largest spacing any point will have
+     */
+    public PoissonDiskSampler(float minX, float minY, float maxX, float maxY, float minSpacing, float maxSpacing) {
+        if (minSpacing <= 0 || maxSpacing < minSpacing)
+            throw new IllegalArgumentException("Spacings must be positive, and the largest no smaller than the smallest");
+        this.minX = minX;
+        this.minY = minY;
+        this.maxSpacing = maxSpacing;
+
+        // No two points can share a cell whose diagonal is the smallest spacing
+        cellSize = minSpacing / (float) Math.sqrt(2.0);
+        columns = (int) Math.ceil((maxX - minX) / cellSize) + 1;
+        rows = (int) Math.ceil((maxY - minY) / cellSize) + 1;
+        cells = new int[columns * rows];
+    }
+
+    /**
+     * Try to place a point at random within a rectangle of the area
+     *
+     * @param random  The random source to place the point with
+     * @param minX    The left of the rectangle
+     * @param minY    The bottom of the rectangle
+     * @param maxX    The right of the rectangle
+     * @param maxY    The top of the rectangle
+     * @param spacing The distance to keep from other points, between the sampler's smallest and largest spacing
+     * @return The index of the point, or -1 if no space was found in {@link #ATTEMPTS} tries
+     */
+    public int sample(SplittableRandom random, float minX, float minY, float maxX, float maxY, float spacing) {
+        for (int attempt = 0; attempt < ATTEMPTS; ++attempt) {
+            float x = minX + (float) random.nextDouble() * (maxX - minX);
+            float y = minY + (float) random.nextDouble() * (maxY - minY);
+            int index = add(x, y, spacing);
+            if (index != -1) return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Try to place a point at random within a rectangle of the area, more densely across some of its width than others
+     * <p>
+     * The rectangle is split into equal width columns, and each candidate picks a column in proportion to its weight.
+     * Where the points get crowded the spacing still wins, so dense columns fill up before sparse ones do.
+     *
+     * @param random  The random source to place the point with
+     * @param minX    The left of the rectangle
+     * @param minY    The bottom of the rectangle
+     * @param maxX    The right of the rectangle
+     * @param maxY    The top of the rectangle
+     * @param spacing The distance to keep from other points, between the sampler's smallest and largest spacing
+     * @param weights The relative density of each column, from left to right, none of which can be negative
+     * @return The index of the point, or -1 if no space was found in {@link #ATTEMPTS} tries
+     */
+    public int sample(SplittableRandom random, float minX, float minY, float maxX, float maxY, float spacing,
+                      float[] weights) {
+        float total = 0.0f;
+        for (float weight : weights) {
+            total += weight;
+        }
+        float columnWidth = (maxX - minX) / weights.length;
+
+        for (int attempt = 0; attempt < ATTEMPTS; ++attempt) {
+            // Walk along the columns until the weights passed add up to a random share of the total
+            float pick = (float) random.nextDouble() * total;
+            int column = 0;
+            while (column < weights.length - 1 && pick >= weights[column]) {
+                pick -= weights[column++];
+            }
+            float x = minX + (column + (float) random.nextDouble()) * columnWidth;
+            float y = minY + (float) random.nextDouble() * (maxY - minY);
+            int index = add(x, y, spacing);
+            if (index != -1) return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Add a point, if it's far enough from every other point
+     *
+     * @param x       The x position of the point, within the area
+     * @param y       The y position of the point, within the area
+     * @param spacing The distance to keep from other points, between the sampler's smallest and largest spacing
+     * @return The index of the point, or -1 if it's too close to another point
+     */
+    public int add(float x, float y, float spacing) {
+        if (!isFree(x, y, spacing)) return -1;
+
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+            spacings = Arrays.copyOf(spacings, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        spacings[size] = spacing;
+        cells[getRow(y) * columns + getColumn(x)] = size + 1;
+        return size++;
+    }
+
+    /**
+     * Check whether a point would be far enough from every other point
+     *
+     * @param x       The x position of the point, within the area
+     * @param y       The y position of the point, within the area
+     * @param spacing The distance to keep from other points
+     * @return true if the point can be added
+     */
+    public boolean isFree(float x, float y, float spacing) {
+        // A point with a larger spacing than this one could still be too close
+        int reach = (int) Math.ceil(Math.max(spacing, maxSpacing) / cellSize);
+        int column = getColumn(x);
+        int row = getRow(y);
+        int firstColumn = Math.max(0, column - reach);
+        int lastColumn = Math.min(columns - 1, column + reach);
+        int lastRow = Math.min(rows - 1, row + reach);
+
+        for (int r = Math.max(0, row - reach); r <= lastRow; ++r) {
+            for (int c = firstColumn; c <= lastColumn; ++c) {
+                int cell = cells[r * columns + c];
+                if (cell == 0) continue;
+                int other = cell - 1;
+                float required = Math.max(spacing, spacings[other]);
+                float dx = xs[other] - x;
+                float dy = ys[other] - y;
+                if (dx * dx + dy * dy < required * required) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of points placed
+     **/
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the x position of a point
+     *
+     * @param index The index of the point
+     * @return The x position
+     */
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * Get the y position of a point
+     *
+     * @param index The index of the point
+     * @return The y position
+     */
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Get the spacing a point keeps from other points
+     *
+     * @param index The index of the point
+     * @return The spacing
+     */
+    public float getSpacing(int index) {
+        return spacings[index];
+    }
+
+    /** Gets the grid column containing x, clamped to the grid **/
+    private int getColumn(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellSize)));
+    }
+
+    /** Gets the grid row containing y, clamped to the grid **/
+    private int getRow(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellSize)));
+    }
+}
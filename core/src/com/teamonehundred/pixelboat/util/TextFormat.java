@@ -0,0 +1,77 @@
+package com.teamonehundred.pixelboat.util;
+
+/**
+ * Helpers for writing numbers into a reused StringBuilder without boxing or creating strings, so text
+ * updated every frame doesn't create garbage.
+ */
+public final class TextFormat {
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L};
+
+    private TextFormat() {
+    }
+
+    /**
+     * Round a number to a fixed number of decimal places, as used by {@link #appendFixed(StringBuilder, long, int)}
+     * <p>
+     * Two values that display the same have the same fixed point value, so it can be compared to check whether
+     * displayed text needs updating.
+     *
+     * @param value    The number to round
+     * @param decimals The number of decimal places, at most 5
+     * @return The number multiplied by 10^decimals and rounded
+     */
+    public static long toFixed(float value, int decimals) {
+        return Math.round((double) value * POWERS_OF_TEN[decimals]);
+    }
+
+    /**
+     * Append a fixed point number, like String.format("%.Nf")
+     *
+     * @param builder  The builder to append to
+     * @param fixed    The number multiplied by 10^decimals, e.g. from {@link #toFixed(float, int)}
+     * @param decimals The number of decimal places, at most 5
+     * @return The builder
+     */
+    public static StringBuilder appendFixed(StringBuilder builder, long fixed, int decimals) {
+        if (fixed < 0) {
+            builder.append('-');
+            fixed = -fixed;
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        builder.append(fixed / scale);
+        if (decimals > 0) {
+            builder.append('.');
+            appendPadded(builder, fixed % scale, decimals);
+        }
+        return builder;
+    }
+
+    /**
+     * Append a whole number padded with leading zeros, like String.format("%0Nd")
+     *
+     * @param builder   The builder to append to
+     * @param value     The number, which must not be negative
+     * @param minDigits The number of digits to pad to
+     * @return The builder
+     */
+    public static StringBuilder appendPadded(StringBuilder builder, long value, int minDigits) {
+        for (int digits = 1; digits < minDigits; ++digits) {
+            if (value < POWERS_OF_TEN[digits]) builder.append('0');
+        }
+        return builder.append(value);
+    }
+
+    /**
+     * Append a time as minutes and seconds, like String.format("%02d:%02d")
+     *
+     * @param builder The builder to append to
+     * @param millis  The time in milliseconds
+     * @return The builder
+     */
+    public static StringBuilder appendMinutesSeconds(StringBuilder builder, long millis) {
+        appendPadded(builder, millis / 60000, 2);
+        builder.append(':');
+        return appendPadded(builder, millis / 1000 % 60, 2);
+    }
+}
@@ -0,0 +1,238 @@
+package com.teamonehundred.pixelboat.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reference-counted registry of textures, so each asset is loaded from disk and uploaded only once
+ * however many objects use it.
+ * <p>
+ * Every {@link #acquire(String)} or {@link #acquireRegion(String)} should be matched by a {@link #release(String)}
+ * once the texture is no longer used. Textures are unloaded when nothing references them any more.
+ * <p>
+ * Regions are taken from the packed sprite atlas built by the desktop packTextures task when it contains the
+ * image, so most sprites share a page and draw without flushing the batch. Images missing from the atlas, or
+ * every image if the atlas hasn't been built, fall back to their loose texture.
+ * <p>
+ * Textures can be {@link #preload(String) preloaded} to load in the background while {@link #update(int)} is called
+ * each frame, so they're ready by the time they're acquired.
+ */
+public class TextureRegistry {
+
+    /**
+     * The path of the packed sprite atlas, relative to the assets folder
+     */
+    public static final String ATLAS_PATH = "atlas/sprites.atlas";
+
+    private static TextureRegistry instance;
+
+    private final AssetManager assetManager;
+    private final Map<String, Integer> referenceCounts;
+    // Images waiting to be preloaded until the atlas has loaded, as it isn't known which images it covers until then
+    private final List<String> pendingPreloads;
+    private boolean atlasChecked = false;
+
+    /* Singleton pattern */
+    // Set to private so the registry can only be obtained as a singleton instance
+    private TextureRegistry() {
+        assetManager = new AssetManager();
+        referenceCounts = new HashMap<>();
+        pendingPreloads = new ArrayList<>();
+    }
+
+    public static synchronized TextureRegistry getInstance() {
+        if (instance == null) {
+            instance = new TextureRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a texture, loading it if nothing else is using it
+     *
+     * @param path The path of the texture, relative to the assets folder
+     * @return The shared texture
+     */
+    public synchronized Texture acquire(String path) {
+        referenceCounts.merge(path, 1, Integer::sum);
+        if (!assetManager.isLoaded(path)) {
+            // It may already be queued by a preload, and loading it twice would count it twice
+            if (!assetManager.contains(path)) {
+                assetManager.load(path, Texture.class);
+            }
+            assetManager.finishLoadingAsset(path);
+        }
+        return assetManager.get(path, Texture.class);
+    }
+
+    /**
+     * Get a texture region for an image, from the packed atlas if it contains it or from a loaded texture if not
+     * <p>
+     * Use {@link #acquire(String)} instead where the whole texture is needed, e.g. to set its wrap mode.
+     *
+     * @param path The path of the image, relative to the assets folder
+     * @return A region covering the image
+     */
+    public synchronized TextureRegion acquireRegion(String path) {
+        TextureAtlas atlas = getAtlas();
+        if (atlas != null) {
+            TextureRegion region = atlas.findRegion(getRegionName(path));
+            if (region != null) {
+                // Only counted so release can be called as usual, the atlas stays loaded until disposed
+                referenceCounts.merge(path, 1, Integer::sum);
+                return region;
+            }
+        }
+        return new TextureRegion(acquire(path));
+    }
+
+    /**
+     * Queue an image to be loaded in the background, without acquiring it
+     * <p>
+     * Images in the packed atlas aren't loaded separately. Preloaded textures nothing has acquired stay loaded
+     * until the registry is disposed, but ones acquired and then released are unloaded, so may need preloading
+     * again. Preloading an image that's already queued or loaded does nothing.
+     *
+     * @param path The path of the image, relative to the assets folder
+     */
+    public synchronized void preload(String path) {
+        queueAtlas();
+        if (!pendingPreloads.contains(path)) pendingPreloads.add(path);
+        queuePendingPreloads();
+    }
+
+    /**
+     * Carry on loading preloaded images, which should be called every frame from the rendering thread
+     *
+     * @param millis The longest time to spend loading
+     * @return true once everything preloaded has finished loading
+     */
+    public synchronized boolean update(int millis) {
+        boolean finished = assetManager.update(millis);
+        queuePendingPreloads();
+        return finished && pendingPreloads.isEmpty();
+    }
+
+    /**
+     * Check whether a preloaded image has finished loading, so acquiring it won't have to wait for it
+     *
+     * @param path The path the image was preloaded with
+     * @return true if the image is ready
+     */
+    public synchronized boolean isPreloaded(String path) {
+        if (isAtlasLoading()) return false;
+        TextureAtlas atlas = getAtlas();
+        if (atlas != null && atlas.findRegion(getRegionName(path)) != null) return true;
+        return assetManager.isLoaded(path);
+    }
+
+    /**
+     * Get how much of everything queued has loaded
+     *
+     * @return The progress, from 0 to 1
+     */
+    public synchronized float getProgress() {
+        return assetManager.getProgress();
+    }
+
+    /**
+     * Stop using a texture, unloading it if nothing else is using it
+     * <p>
+     * Safe to call from any thread, as the texture is only disposed of on the rendering thread.
+     *
+     * @param path The path the texture was acquired with
+     */
+    public synchronized void release(String path) {
+        Integer count = referenceCounts.get(path);
+        if (count == null) return;
+        if (count > 1) {
+            referenceCounts.put(path, count - 1);
+            return;
+        }
+        referenceCounts.remove(path);
+        Gdx.app.postRunnable(() -> unloadIfUnused(path));
+    }
+
+    /**
+     * Get the number of users of a texture
+     *
+     * @param path The path of the texture
+     * @return The number of acquires not yet released
+     */
+    public synchronized int getReferenceCount(String path) {
+        Integer count = referenceCounts.get(path);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Dispose of every texture, regardless of whether it's still used
+     **/
+    public synchronized void dispose() {
+        referenceCounts.clear();
+        pendingPreloads.clear();
+        assetManager.clear();
+        atlasChecked = false;
+    }
+
+    /**
+     * Get the name TexturePacker gives the region for an image, which is its path without the extension
+     *
+     * @param path The path of the image, relative to the assets folder
+     * @return The region name
+     */
+    public static String getRegionName(String path) {
+        int extension = path.lastIndexOf('.');
+        return extension > path.lastIndexOf('/') ? path.substring(0, extension) : path;
+    }
+
+    /** Gets the packed atlas, finishing loading it if needed, or null if it hasn't been built **/
+    private TextureAtlas getAtlas() {
+        queueAtlas();
+        if (isAtlasLoading()) {
+            assetManager.finishLoadingAsset(ATLAS_PATH);
+        }
+        return assetManager.isLoaded(ATLAS_PATH) ? assetManager.get(ATLAS_PATH, TextureAtlas.class) : null;
+    }
+
+    /** Queues the packed atlas to load the first time it's needed, if it's been built **/
+    private void queueAtlas() {
+        if (atlasChecked) return;
+        atlasChecked = true;
+        if (Gdx.files.internal(ATLAS_PATH).exists()) {
+            assetManager.load(ATLAS_PATH, TextureAtlas.class);
+        }
+    }
+
+    /** Checks whether the atlas is queued but hasn't finished loading **/
+    private boolean isAtlasLoading() {
+        return assetManager.contains(ATLAS_PATH) && !assetManager.isLoaded(ATLAS_PATH);
+    }
+
+    /** Queues the preloaded images the atlas doesn't cover, once the atlas has loaded **/
+    private void queuePendingPreloads() {
+        if (pendingPreloads.isEmpty() || isAtlasLoading()) return;
+        TextureAtlas atlas = getAtlas();
+        for (String path : pendingPreloads) {
+            if (atlas != null && atlas.findRegion(getRegionName(path)) != null) continue;
+            if (!assetManager.contains(path)) {
+                assetManager.load(path, Texture.class);
+            }
+        }
+        pendingPreloads.clear();
+    }
+
+    /** Unloads a texture unless it was acquired again after being released **/
+    private synchronized void unloadIfUnused(String path) {
+        if (!referenceCounts.containsKey(path) && assetManager.isLoaded(path)) {
+            assetManager.unload(path);
+        }
+    }
+}
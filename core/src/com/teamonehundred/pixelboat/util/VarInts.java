@@ -0,0 +1,82 @@
+package com.teamonehundred.pixelboat.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for writing whole numbers into a ByteBuffer in as few bytes as their size needs.
+ * <p>
+ * Numbers are written seven bits at a time, lowest first, with the top bit of each byte set while more follow, so
+ * anything below 128 takes a single byte. Signed numbers are zig-zag encoded first, so small negative numbers are
+ * small too.
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    /**
+     * Write a number which is never negative
+     *
+     * @param buffer The buffer to write to
+     * @param value  The number to write, which mustn't be negative
+     */
+    public static void putUnsigned(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read a number written by {@link #putUnsigned(ByteBuffer, long)}
+     *
+     * @param buffer The buffer to read from
+     * @return The number
+     * @throws IllegalArgumentException If the number is longer than a long
+     */
+    public static long getUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Variable length number is too long");
+    }
+
+    /**
+     * Write a number which may be negative
+     *
+     * @param buffer The buffer to write to
+     * @param value  The number to write
+     */
+    public static void putSigned(ByteBuffer buffer, long value) {
+        putUnsigned(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Read a number written by {@link #putSigned(ByteBuffer, long)}
+     *
+     * @param buffer The buffer to read from
+     * @return The number
+     */
+    public static long getSigned(ByteBuffer buffer) {
+        long value = getUnsigned(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Read a count written by {@link #putUnsigned(ByteBuffer, long)}, checking it fits in an int
+     *
+     * @param buffer The buffer to read from
+     * @param max    The largest the count can be
+     * @return The count
+     * @throws IllegalArgumentException If the count is larger than max
+     */
+    public static int getCount(ByteBuffer buffer, int max) {
+        long count = getUnsigned(buffer);
+        if (count > max) throw new IllegalArgumentException("Count " + count + " is larger than " + max);
+        return (int) count;
+    }
+}
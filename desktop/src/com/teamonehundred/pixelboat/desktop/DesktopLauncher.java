@@ -3,6 +3,9 @@ package com.teamonehundred.pixelboat.desktop;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.teamonehundred.pixelboat.PixelBoat;
+import com.teamonehundred.pixelboat.RaceTelemetry;
+
+import java.util.Arrays;
 
 public class DesktopLauncher {
     public static void main(String[] arg) {
@@ -14,6 +17,8 @@ public class DesktopLauncher {
 		//config.foregroundFPS = 30;
 		//config.fullscreen = false;
 		//config.resizable = false;
+		// "--telemetry" records every race to the telemetry directory
+		RaceTelemetry.setEnabled(Arrays.asList(arg).contains("--telemetry"));
 		//start the app
         new LwjglApplication(new PixelBoat(), config);
     }
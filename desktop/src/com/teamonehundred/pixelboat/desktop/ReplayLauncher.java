@@ -0,0 +1,113 @@
+package com.teamonehundred.pixelboat.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.teamonehundred.pixelboat.RaceReplay;
+import com.teamonehundred.pixelboat.ReplayPlayer;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plays replays back without a window, checking each one finishes the way it was recorded.
+ * <p>
+ * Takes replay files, or directories of them, and "--speed N" to play them at N times real time rather than as
+ * fast as possible, and "--telemetry DIR" to record each replay's telemetry to DIR. With no files it plays the
+ * game's replays directory. Exits with status 1 if any replay doesn't match, so a corpus of replays can be checked
+ * by a build.
+ */
+public class ReplayLauncher {
+    public static void main(String[] arg) throws IOException {
+        float speed = 0.0f;
+        Path telemetry = null;
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < arg.length; ++i) {
+            if (arg[i].equals("--speed") && i + 1 < arg.length) {
+                speed = Float.parseFloat(arg[++i]);
+            } else if (arg[i].equals("--telemetry") && i + 1 < arg.length) {
+                telemetry = Paths.get(arg[++i]);
+            } else {
+                paths.add(Paths.get(arg[i]));
+            }
+        }
+        if (paths.isEmpty()) paths.add(Paths.get("replays"));
+
+        // Nothing is drawn, so the application never renders, and its GL calls do nothing
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+        }, config);
+        Gdx.gl = Gdx.gl20 = createNoOpGL();
+
+        int played = 0;
+        int failed = 0;
+        for (Path path : paths) {
+            for (Path file : listReplays(path)) {
+                ++played;
+                if (!play(file, speed, telemetry)) ++failed;
+            }
+        }
+
+        System.out.println(played + " replays played, " + failed + " failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /** Plays a replay and prints how it went, returning whether it matched its recording **/
+    private static boolean play(Path file, float speed, Path telemetry) {
+        RaceReplay replay;
+        try {
+            replay = RaceReplay.read(file);
+        } catch (IOException e) {
+            System.out.println(file + ": could not be read - " + e.getMessage());
+            return false;
+        }
+
+        Path telemetryFile = telemetry == null ? null
+                : telemetry.resolve(file.getFileName().toString().replaceFirst("\\.replay$", "") + ".telemetry");
+        ReplayPlayer.Result result = ReplayPlayer.play(replay, speed, telemetryFile);
+        long millis = result.nanos / 1000000L;
+        float realTime = result.ticks / 60.0f;
+        System.out.println(file + ": " + (result.matches() ? "OK" : "MISMATCH") + ", " + result.ticks + " ticks in "
+                + millis + "ms (" + (int) (realTime * 1000.0f / Math.max(1L, millis)) + "x real time)");
+        if (!result.matches()) {
+            System.out.println("  recorded " + replay.getTicks() + " ticks, times "
+                    + Arrays.toString(replay.getFinishTimes()));
+            System.out.println("  played   " + result.ticks + " ticks, times " + Arrays.toString(result.finishTimes));
+        }
+        return result.matches();
+    }
+
+    /** Lists the replays in a directory in name order, or just the file itself if it isn't one **/
+    private static List<Path> listReplays(Path path) throws IOException {
+        if (!Files.isDirectory(path)) return Collections.singletonList(path);
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".replay"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /** Makes a GL whose calls do nothing and return zero, which is enough for races to load their textures **/
+    private static GL20 createNoOpGL() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+                (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    if (type == int.class) return 0;
+                    if (type == boolean.class) return false;
+                    if (type == float.class) return 0.0f;
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,40 @@
+package com.teamonehundred.pixelboat;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import io.github.eng1team11.pixelboattests.TestMain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+/**
+ * SceneryCache is package private, so these tests sit in its package rather than with the other tests
+ */
+@ExtendWith(TestMain.class)
+@DisplayName("Scenery cache")
+public class TestSceneryCache {
+
+    @Test
+    @DisplayName("Check the overlay is drawn alpha blended after the sprite batch turns blending off")
+    public void testOverlayBlends() {
+        GL20 gl = mock(GL20.class);
+        Gdx.gl = gl;
+        SpriteCache spriteCache = mock(SpriteCache.class);
+        SceneryCache scenery = new SceneryCache(0.0f, 1000.0f, spriteCache);
+
+        scenery.draw(new Matrix4(), new Rectangle(0.0f, 0.0f, 100.0f, 100.0f), SceneryCache.OVERLAY);
+
+        InOrder order = inOrder(gl, spriteCache);
+        order.verify(gl).glEnable(GL20.GL_BLEND);
+        order.verify(gl).glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        order.verify(spriteCache).begin();
+        order.verify(spriteCache).end();
+    }
+}
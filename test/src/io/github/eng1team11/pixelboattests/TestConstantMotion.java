@@ -0,0 +1,89 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.teamonehundred.pixelboat.ConstantMotion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestMain.class)
+public class TestConstantMotion {
+
+    private static final float EPSILON = 0.01f;
+
+    @Test
+    @DisplayName("Object without a turn rate moves in a straight line")
+    void testStraightLine() {
+        ConstantMotion motion = new ConstantMotion(10.0f, 0.0f);
+        // Facing straight down
+        motion.setStart(100.0f, 500.0f, -180.0f);
+
+        Assertions.assertEquals(100.0f, motion.getX(5.0f), EPSILON);
+        Assertions.assertEquals(450.0f, motion.getY(5.0f), EPSILON);
+        Assertions.assertEquals(-180.0f, motion.getRotation(5.0f), EPSILON);
+    }
+
+    @Test
+    @DisplayName("Turning object returns to its start after a full circle")
+    void testFullCircle() {
+        ConstantMotion motion = new ConstantMotion(12.0f, 1.0f);
+        motion.setStart(30.0f, 40.0f, 70.0f);
+
+        Assertions.assertEquals(30.0f, motion.getX(360.0f), EPSILON);
+        Assertions.assertEquals(40.0f, motion.getY(360.0f), EPSILON);
+    }
+
+    @Test
+    @DisplayName("Closed form matches integrating the motion in small steps")
+    void testMatchesIntegration() {
+        final float speed = 12.0f;
+        final float turnRate = 1.0f;
+        final float dt = 0.001f;
+        ConstantMotion motion = new ConstantMotion(speed, turnRate);
+        motion.setStart(0.0f, 0.0f, 25.0f);
+
+        // Integrate the same way MovableObject moves, but in tiny steps
+        double x = 0.0;
+        double y = 0.0;
+        double rotation = 25.0;
+        for (int i = 0; i < 20000; ++i) {
+            rotation += turnRate * dt;
+            double rad = Math.toRadians(rotation);
+            x -= Math.sin(rad) * speed * dt;
+            y += Math.cos(rad) * speed * dt;
+        }
+
+        Assertions.assertEquals(x, motion.getX(20.0f), 0.1);
+        Assertions.assertEquals(y, motion.getY(20.0f), 0.1);
+    }
+
+    @Test
+    @DisplayName("Swept bounds contain every position along the path")
+    void testSweptBounds() {
+        ConstantMotion motion = new ConstantMotion(12.0f, 1.0f);
+        motion.setStart(500.0f, 500.0f, 200.0f);
+        Rectangle bounds = motion.getSweptBounds(150.0f);
+
+        for (float t = 0.0f; t <= 150.0f; t += 0.5f) {
+            Assertions.assertTrue(bounds.x - EPSILON <= motion.getX(t) && motion.getX(t) <= bounds.x + bounds.width + EPSILON);
+            Assertions.assertTrue(bounds.y - EPSILON <= motion.getY(t) && motion.getY(t) <= bounds.y + bounds.height + EPSILON);
+        }
+    }
+
+    @Test
+    @DisplayName("Motion begins at its start time")
+    void testStartTime() {
+        ConstantMotion motion = new ConstantMotion(10.0f, 0.0f);
+        motion.setStart(100.0f, 500.0f, -180.0f);
+        motion.setStartTime(1000.0f);
+
+        Assertions.assertEquals(500.0f, motion.getY(1000.0f), EPSILON);
+        Assertions.assertEquals(450.0f, motion.getY(1005.0f), EPSILON);
+
+        // Bounds are swept from the start time
+        Rectangle bounds = motion.getSweptBounds(10.0f);
+        Assertions.assertEquals(400.0f, bounds.y, EPSILON);
+        Assertions.assertEquals(100.0f, bounds.height, EPSILON);
+    }
+}
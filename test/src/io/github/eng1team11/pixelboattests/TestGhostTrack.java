@@ -0,0 +1,105 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.teamonehundred.pixelboat.GhostTrack;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+@ExtendWith(TestMain.class)
+public class TestGhostTrack {
+
+    private static final float TICK = 1.0f / 60.0f;
+
+    // A boat moving up at 300 units a second, drifting right and turning slowly, for 20 seconds
+    private static GhostTrack.Recorder record() {
+        GhostTrack.Recorder recorder = new GhostTrack.Recorder();
+        for (int tick = 0; tick < 20 * 60; ++tick) {
+            recorder.tick(tick * 0.5f, 40.0f + tick * 5.0f, tick * 0.1f);
+        }
+        return recorder;
+    }
+
+    @Test
+    @DisplayName("A ghost follows the path it was recorded from")
+    public void testPlayback() throws IOException {
+        GhostTrack.Recorder recorder = record();
+        Assertions.assertEquals(20 * 60 / GhostTrack.SAMPLE_TICKS, recorder.getSampleCount());
+
+        ByteBuffer payload = recorder.encode(20000);
+        // Small steady changes take a byte or two per value
+        Assertions.assertTrue(payload.remaining() < recorder.getSampleCount() * 6);
+
+        GhostTrack ghost = GhostTrack.open(payload);
+        Assertions.assertEquals(20000, ghost.getFinishTime());
+        Assertions.assertEquals(recorder.getSampleCount(), ghost.getSampleCount());
+
+        // Between samples as well as on them, forwards and then backwards
+        int[] ticks = {0, 1, 59, 300, 301, 600, 1000, 120, 7};
+        for (int tick : ticks) {
+            Assertions.assertTrue(ghost.seek(tick * TICK));
+            Assertions.assertEquals(tick * 0.5f, ghost.getX(), 0.25f);
+            Assertions.assertEquals(40.0f + tick * 5.0f, ghost.getY(), 0.25f);
+            Assertions.assertEquals(tick * 0.1f, ghost.getRotation(), 0.125f);
+        }
+
+        // The ghost is gone once its samples run out
+        Assertions.assertFalse(ghost.seek(25.0f));
+        Assertions.assertTrue(ghost.seek(1.0f));
+    }
+
+    @Test
+    @DisplayName("A ghost turns the short way round past 0 degrees")
+    public void testWrappedRotation() throws IOException {
+        GhostTrack.Recorder recorder = new GhostTrack.Recorder();
+        // Turning left from 358 degrees, wrapping to 2 by the next sample, then back the other way
+        float[] rotations = {358.0f, 2.0f, 358.0f};
+        for (float rotation : rotations) {
+            for (int tick = 0; tick < GhostTrack.SAMPLE_TICKS; ++tick) {
+                recorder.tick(0.0f, 0.0f, rotation);
+            }
+        }
+
+        GhostTrack ghost = GhostTrack.open(recorder.encode(1000));
+        Assertions.assertTrue(ghost.seek(GhostTrack.SAMPLE_TICKS * 0.5f * TICK));
+        Assertions.assertEquals(360.0f, ghost.getRotation(), 0.125f);
+        Assertions.assertTrue(ghost.seek(GhostTrack.SAMPLE_TICKS * 1.5f * TICK));
+        Assertions.assertEquals(0.0f, ghost.getRotation(), 0.125f);
+    }
+
+    @Test
+    @DisplayName("A recorder starts again once reset")
+    public void testReset() throws IOException {
+        GhostTrack.Recorder recorder = record();
+        recorder.reset();
+        Assertions.assertEquals(0, recorder.getSampleCount());
+        recorder.tick(10.0f, 20.0f, 30.0f);
+        recorder.tick(11.0f, 21.0f, 31.0f);
+
+        GhostTrack ghost = GhostTrack.open(recorder.encode(1000));
+        Assertions.assertEquals(1, ghost.getSampleCount());
+        // A single sample is where the boat started, with nothing to move towards
+        Assertions.assertFalse(ghost.seek(0.0f));
+    }
+
+    @Test
+    @DisplayName("Corrupt ghosts fail to open")
+    public void testCorrupt() {
+        ByteBuffer payload = record().encode(20000);
+
+        ByteBuffer truncated = payload.duplicate();
+        truncated.limit(2);
+        Assertions.assertThrows(IOException.class, () -> GhostTrack.open(truncated));
+
+        // Claims more samples than there's room for
+        ByteBuffer empty = ByteBuffer.wrap(new byte[]{GhostTrack.SAMPLE_TICKS, 0, 100});
+        Assertions.assertThrows(IOException.class, () -> GhostTrack.open(empty));
+
+        ByteBuffer rate = payload.duplicate();
+        rate.put(0, (byte) (GhostTrack.SAMPLE_TICKS + 1));
+        Assertions.assertThrows(IOException.class, () -> GhostTrack.open(rate));
+    }
+}
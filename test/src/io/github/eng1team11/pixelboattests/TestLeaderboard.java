@@ -0,0 +1,120 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.teamonehundred.pixelboat.Difficulty;
+import com.teamonehundred.pixelboat.Leaderboard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@ExtendWith(TestMain.class)
+public class TestLeaderboard {
+
+    private static final Difficulty.DifficultyLevel EASY = Difficulty.DifficultyLevel.Easy;
+    private static final Difficulty.DifficultyLevel HARD = Difficulty.DifficultyLevel.Hard;
+
+    @Test
+    @DisplayName("Times are ranked on their own board")
+    public void testRanks() throws IOException {
+        Leaderboard leaderboard = Leaderboard.open(Files.createTempDirectory("pixelboat").resolve("leaderboard"));
+        leaderboard.add(EASY, 1, 1, 60000, 1L);
+        leaderboard.add(EASY, 1, 1, 55000, 2L);
+        leaderboard.add(EASY, 1, 1, 60000, 3L);
+        leaderboard.add(EASY, 1, 1, 70000, 4L);
+        leaderboard.add(EASY, 2, 1, 10000, 5L);
+        leaderboard.add(HARD, 1, 1, 10000, 6L);
+        leaderboard.add(EASY, 1, Leaderboard.WHOLE_GAME, 10000, 7L);
+
+        Assertions.assertEquals(4, leaderboard.getCount(EASY, 1, 1));
+        Assertions.assertEquals(7, leaderboard.getSize());
+
+        // Equal times are listed in the order they were set
+        List<Leaderboard.Entry> top = leaderboard.getTop(EASY, 1, 1, 3);
+        Assertions.assertEquals(3, top.size());
+        Assertions.assertEquals(55000, top.get(0).time);
+        Assertions.assertEquals(1L, top.get(1).timestamp);
+        Assertions.assertEquals(3L, top.get(2).timestamp);
+
+        Assertions.assertEquals(1, leaderboard.getRank(EASY, 1, 1, 50000));
+        Assertions.assertEquals(2, leaderboard.getRank(EASY, 1, 1, 60000));
+        Assertions.assertEquals(4, leaderboard.getRank(EASY, 1, 1, 65000));
+        Assertions.assertEquals(1, leaderboard.getRank(EASY, 3, 1, 65000));
+        Assertions.assertTrue(leaderboard.getTop(EASY, 1, 2, 10).isEmpty());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> leaderboard.add(EASY, 1, 1, -1, 0L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> leaderboard.getRank(EASY, 256, 1, 0));
+    }
+
+    @Test
+    @DisplayName("A large leaderboard is compacted and read back the same")
+    public void testLarge() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat").resolve("leaderboard");
+        Leaderboard leaderboard = Leaderboard.open(dir);
+        SplittableRandom random = new SplittableRandom(42L);
+        final int count = 200000;
+        int[] times = new int[count];
+        for (int i = 0; i < count; ++i) {
+            times[i] = 40000 + random.nextInt(60000);
+            leaderboard.add(HARD, 3, 2, times[i], i);
+        }
+        Assertions.assertTrue(leaderboard.flush());
+        Arrays.sort(times);
+
+        // Compacted into the index, leaving only the latest logs
+        Assertions.assertTrue(Files.exists(dir.resolve("index.dat")));
+        Assertions.assertTrue(listLogs(dir).size() < 4);
+
+        Leaderboard loaded = Leaderboard.open(dir);
+        Assertions.assertEquals(count, loaded.getCount(HARD, 3, 2));
+        List<Leaderboard.Entry> top = loaded.getTop(HARD, 3, 2, 10);
+        for (int i = 0; i < top.size(); ++i) {
+            Assertions.assertEquals(times[i], top.get(i).time);
+        }
+        for (int i = 0; i < count; i += 9973) {
+            int faster = 0;
+            while (times[faster] < times[i]) ++faster;
+            Assertions.assertEquals(faster + 1, loaded.getRank(HARD, 3, 2, times[i]));
+        }
+    }
+
+    @Test
+    @DisplayName("A broken record at the end of a log loses nothing before it")
+    public void testBrokenLog() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat").resolve("leaderboard");
+        Leaderboard leaderboard = Leaderboard.open(dir);
+        for (int i = 0; i < 10; ++i) {
+            leaderboard.add(EASY, 0, 3, 50000 + i, i);
+        }
+        Assertions.assertTrue(leaderboard.flush());
+
+        List<Path> logs = listLogs(dir);
+        Assertions.assertEquals(1, logs.size());
+        Files.write(logs.get(0), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20},
+                StandardOpenOption.APPEND);
+
+        Leaderboard loaded = Leaderboard.open(dir);
+        Assertions.assertEquals(10, loaded.getSize());
+        // Times added afterwards go to a new log, so aren't lost behind the broken record
+        loaded.add(EASY, 0, 3, 1000, 99L);
+        Assertions.assertTrue(loaded.flush());
+        Leaderboard reloaded = Leaderboard.open(dir);
+        Assertions.assertEquals(11, reloaded.getSize());
+        Assertions.assertEquals(1000, reloaded.getTop(EASY, 0, 3, 1).get(0).time);
+    }
+
+    private static List<Path> listLogs(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.teamonehundred.pixelboat.PlayerBoat;
+import com.teamonehundred.pixelboat.RaceReplay;
+import com.teamonehundred.pixelboat.ReplayPlayer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@ExtendWith(TestMain.class)
+public class TestRaceReplay {
+
+    // Rows forward the whole way, weaving left and right every few seconds
+    private static int weave(int tick) {
+        int controls = PlayerBoat.CONTROL_FORWARD;
+        if (tick % 300 < 20) controls |= PlayerBoat.CONTROL_LEFT;
+        else if (tick % 300 >= 150 && tick % 300 < 170) controls |= PlayerBoat.CONTROL_RIGHT;
+        return controls;
+    }
+
+    @Test
+    @DisplayName("A replay plays back the same as it was recorded")
+    public void testPlayback() throws IOException {
+        RaceReplay replay = ReplayPlayer.record(1234L, 0, 1, TestRaceReplay::weave);
+        Assertions.assertTrue(replay.getTicks() > 0);
+        // Runs of held controls take a couple of bytes each
+        Assertions.assertTrue(replay.getInputSize() < 1024);
+
+        Path path = Files.createTempDirectory("pixelboat").resolve("leg-1.replay");
+        replay.write(path);
+        Assertions.assertTrue(Files.size(path) < 4096);
+        RaceReplay loaded = RaceReplay.read(path);
+        Assertions.assertEquals(replay.getTicks(), loaded.getTicks());
+        Assertions.assertArrayEquals(replay.getFinishTimes(), loaded.getFinishTimes());
+
+        ReplayPlayer.Result result = ReplayPlayer.play(loaded, 0.0f);
+        Assertions.assertTrue(result.matches());
+        Assertions.assertEquals(replay.getTicks(), result.ticks);
+        Assertions.assertArrayEquals(replay.getFinishTimes(), result.finishTimes);
+    }
+
+    @Test
+    @DisplayName("Corrupt replays fail to load")
+    public void testCorrupt() {
+        RaceReplay replay = ReplayPlayer.record(99L, 0, 1, tick -> PlayerBoat.CONTROL_FORWARD);
+        ByteBuffer payload = replay.encode();
+
+        ByteBuffer truncated = payload.duplicate();
+        truncated.limit(truncated.limit() - 3);
+        Assertions.assertThrows(IOException.class, () -> RaceReplay.decode(truncated));
+
+        ByteBuffer extra = ByteBuffer.allocate(payload.remaining() + 1);
+        extra.put(payload.duplicate()).put((byte) 0).flip();
+        Assertions.assertThrows(IOException.class, () -> RaceReplay.decode(extra));
+    }
+}
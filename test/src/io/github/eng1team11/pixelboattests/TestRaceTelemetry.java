@@ -0,0 +1,61 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.teamonehundred.pixelboat.PlayerBoat;
+import com.teamonehundred.pixelboat.RaceReplay;
+import com.teamonehundred.pixelboat.RaceTelemetry;
+import com.teamonehundred.pixelboat.ReplayPlayer;
+import com.teamonehundred.pixelboat.TelemetryReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@ExtendWith(TestMain.class)
+public class TestRaceTelemetry {
+
+    @Test
+    @DisplayName("Telemetry has a row for every boat on every tick")
+    public void testRecording() throws IOException {
+        RaceReplay replay = ReplayPlayer.record(4321L, 0, 1, tick -> PlayerBoat.CONTROL_FORWARD);
+        Path path = Files.createTempDirectory("pixelboat").resolve("leg-1.telemetry");
+        ReplayPlayer.Result result = ReplayPlayer.play(replay, 0.0f, path);
+        Assertions.assertTrue(result.matches());
+
+        TelemetryReader reader = TelemetryReader.open(path);
+        Assertions.assertEquals(replay.getBoatCount(), reader.getBoatCount());
+        Assertions.assertEquals(replay.getDifficulty(), reader.getDifficulty());
+        Assertions.assertEquals((long) result.ticks * replay.getBoatCount(), reader.getRowCount());
+        Assertions.assertEquals(reader.getRowCount(),
+                reader.blocks().mapToLong(RaceTelemetry.Block::getRowCount).sum());
+
+        // The player rows forward the whole way, so gets going and tires
+        int player = replay.getPlayerIndex();
+        Assertions.assertEquals(result.ticks, reader.column(RaceTelemetry.Column.SPEED, player).count());
+        Assertions.assertTrue(reader.column(RaceTelemetry.Column.SPEED, player).max().orElse(0.0) > 0.0);
+        Assertions.assertTrue(reader.column(RaceTelemetry.Column.STAMINA, player).min().orElse(1.0) < 1.0);
+    }
+
+    @Test
+    @DisplayName("A file cut short keeps every whole block")
+    public void testTruncated() throws IOException {
+        RaceReplay replay = ReplayPlayer.record(8765L, 0, 1, tick -> PlayerBoat.CONTROL_FORWARD);
+        Path path = Files.createTempDirectory("pixelboat").resolve("leg-1.telemetry");
+        ReplayPlayer.play(replay, 0.0f, path);
+        int blocks = TelemetryReader.open(path).getBlockCount();
+        Assertions.assertTrue(blocks > 1);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        TelemetryReader reader = TelemetryReader.open(path);
+        Assertions.assertEquals(blocks - 1, reader.getBlockCount());
+        Assertions.assertEquals(reader.getRowCount(),
+                reader.blocks().mapToLong(RaceTelemetry.Block::getRowCount).sum());
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.teamonehundred.pixelboat.SaveManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@ExtendWith(TestMain.class)
+public class TestSaveManager {
+
+    private static SaveManager.SaveData makeData() {
+        SaveManager.SaveData sd = new SaveManager.SaveData();
+        sd.legNumber = 2;
+        sd.boatCount = 2;
+        sd.playerBoatSpec = 3;
+        sd.playerTimes = new ArrayList<>(Arrays.asList(61000, 58000));
+        sd.aiTimes.add(new ArrayList<>(Arrays.asList(62000, 57000)));
+        sd.aiTimes.add(new ArrayList<>(Arrays.asList(70000, 69000)));
+        return sd;
+    }
+
+    @Test
+    @DisplayName("Saves load back the same data")
+    public void testRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        Path path = dir.resolve("state.sav");
+        SaveManager.SaveData sd = makeData();
+        SaveManager.write(path, sd);
+
+        SaveManager.SaveData loaded = SaveManager.read(path);
+        Assertions.assertEquals(sd.legNumber, loaded.legNumber);
+        Assertions.assertEquals(sd.boatCount, loaded.boatCount);
+        Assertions.assertEquals(sd.playerBoatSpec, loaded.playerBoatSpec);
+        Assertions.assertEquals(sd.playerTimes, loaded.playerTimes);
+        Assertions.assertEquals(sd.aiTimes, loaded.aiTimes);
+        // The temporary file is moved over the save
+        Assertions.assertFalse(Files.exists(dir.resolve("state.sav.tmp")));
+    }
+
+    @Test
+    @DisplayName("Corrupt saves fail to load")
+    public void testCorrupt() throws IOException {
+        Path path = Files.createTempDirectory("pixelboat").resolve("state.sav");
+        SaveManager.write(path, makeData());
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[20] ^= 1;
+        Files.write(path, bytes);
+        Assertions.assertThrows(IOException.class, () -> SaveManager.read(path));
+
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 6));
+        Assertions.assertThrows(IOException.class, () -> SaveManager.read(path));
+    }
+
+    @Test
+    @DisplayName("Saves in the old format still load")
+    public void testVersion1() throws IOException {
+        SaveManager.SaveData sd = makeData();
+        // Header-less, one time per leg, then the old hash
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 10);
+        buffer.putInt(sd.legNumber).putInt(sd.boatCount).putInt(sd.playerBoatSpec);
+        for (int t : sd.playerTimes) buffer.putInt(t);
+        for (List<Integer> times : sd.aiTimes) {
+            for (int t : times) buffer.putInt(t);
+        }
+        buffer.putInt(Objects.hash(sd.legNumber, sd.boatCount, sd.playerTimes, sd.aiTimes));
+
+        Path path = Files.createTempDirectory("pixelboat").resolve("state.sav");
+        Files.write(path, buffer.array());
+
+        SaveManager.SaveData loaded = SaveManager.read(path);
+        Assertions.assertEquals(sd.legNumber, loaded.legNumber);
+        Assertions.assertEquals(sd.playerBoatSpec, loaded.playerBoatSpec);
+        Assertions.assertEquals(sd.playerTimes, loaded.playerTimes);
+        Assertions.assertEquals(sd.aiTimes, loaded.aiTimes);
+
+        // Saving again upgrades it to the current format
+        SaveManager.write(path, loaded);
+        Assertions.assertEquals(SaveManager.MAGIC, ByteBuffer.wrap(Files.readAllBytes(path)).getInt());
+    }
+
+    @Test
+    @DisplayName("The last intact journal record is the latest state")
+    public void testJournal() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        Path journal = dir.resolve("autosave.journal");
+        Path checkpoint = dir.resolve("autosave.sav");
+        SaveManager.SaveData sd = makeData();
+        SaveManager.appendJournal(journal, SaveManager.encode(sd));
+        sd.legNumber = 3;
+        sd.playerTimes.add(60000);
+        SaveManager.appendJournal(journal, SaveManager.encode(sd));
+
+        SaveManager.SaveData loaded = SaveManager.readAutosave(journal, checkpoint);
+        Assertions.assertEquals(3, loaded.legNumber);
+        Assertions.assertEquals(sd.playerTimes, loaded.playerTimes);
+
+        // A record cut short by a crash is ignored
+        byte[] torn = Arrays.copyOf(SaveManager.encode(makeData()).array(), 10);
+        Files.write(journal, torn, StandardOpenOption.APPEND);
+        Assertions.assertEquals(3, SaveManager.readAutosave(journal, checkpoint).legNumber);
+    }
+
+    @Test
+    @DisplayName("Compacting a journal keeps the latest state")
+    public void testCompactJournal() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        Path journal = dir.resolve("autosave.journal");
+        Path checkpoint = dir.resolve("autosave.sav");
+        Assertions.assertThrows(IOException.class, () -> SaveManager.readAutosave(journal, checkpoint));
+
+        SaveManager.SaveData sd = makeData();
+        SaveManager.appendJournal(journal, SaveManager.encode(sd));
+        SaveManager.compactJournal(journal, checkpoint, SaveManager.encode(sd));
+        Assertions.assertFalse(Files.exists(journal));
+
+        SaveManager.SaveData loaded = SaveManager.readAutosave(journal, checkpoint);
+        Assertions.assertEquals(sd.legNumber, loaded.legNumber);
+        Assertions.assertEquals(sd.aiTimes, loaded.aiTimes);
+    }
+}
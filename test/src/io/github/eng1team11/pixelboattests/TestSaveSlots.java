@@ -0,0 +1,129 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.teamonehundred.pixelboat.Difficulty;
+import com.teamonehundred.pixelboat.SaveManager;
+import com.teamonehundred.pixelboat.SaveSlots;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(TestMain.class)
+public class TestSaveSlots {
+
+    private static SaveManager.SaveData makeData(int legNumber) {
+        SaveManager.SaveData sd = new SaveManager.SaveData();
+        sd.legNumber = legNumber;
+        sd.boatCount = 1;
+        sd.playerBoatSpec = 2;
+        sd.playerTimes = new ArrayList<>(Arrays.asList(61000, 58000));
+        sd.aiTimes.add(new ArrayList<>(Arrays.asList(62000, 57000)));
+        return sd;
+    }
+
+    @Test
+    @DisplayName("Slots are listed from the index alone")
+    public void testIndex() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat").resolve("saves");
+        SaveSlots slots = SaveSlots.open(dir);
+        Assertions.assertTrue(slots.getSlots().isEmpty());
+
+        for (int leg = 1; leg <= 3; ++leg) {
+            SaveManager.SaveData sd = makeData(leg);
+            SaveSlots.Slot slot = slots.add(sd, Difficulty.DifficultyLevel.Hard, 1000L * leg);
+            SaveManager.write(slots.getSlotPath(slot.id), sd);
+        }
+        slots.writeIndex();
+
+        // Deleting a slot's file doesn't change the listing, since only the index is read
+        Files.delete(slots.getSlotPath(1));
+        List<SaveSlots.Slot> listed = SaveSlots.open(dir).getSlots();
+        Assertions.assertEquals(3, listed.size());
+        SaveSlots.Slot newest = listed.get(2);
+        Assertions.assertEquals(3, newest.legNumber);
+        Assertions.assertEquals(3000L, newest.timestamp);
+        Assertions.assertEquals(Difficulty.DifficultyLevel.Hard, newest.difficulty);
+        Assertions.assertEquals(2, newest.spec);
+        Assertions.assertEquals(119000, newest.totalTime);
+
+        // Each slot is found from its id
+        Assertions.assertEquals(3, SaveManager.read(slots.getSlotPath(newest.id)).legNumber);
+    }
+
+    @Test
+    @DisplayName("New slots never reuse an id")
+    public void testIds() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        SaveSlots slots = SaveSlots.open(dir);
+        int first = slots.add(makeData(1), Difficulty.DifficultyLevel.Easy, 0).id;
+        slots.writeIndex();
+
+        int second = SaveSlots.open(dir).add(makeData(2), Difficulty.DifficultyLevel.Easy, 0).id;
+        Assertions.assertTrue(second > first);
+        Assertions.assertNotEquals(slots.getSlotPath(first), slots.getSlotPath(second));
+    }
+
+    @Test
+    @DisplayName("A slot taken out isn't written to the index")
+    public void testRemove() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        SaveSlots slots = SaveSlots.open(dir);
+        SaveSlots.Slot kept = slots.add(makeData(1), Difficulty.DifficultyLevel.Easy, 0);
+        SaveSlots.Slot dropped = slots.add(makeData(2), Difficulty.DifficultyLevel.Easy, 0);
+        Assertions.assertTrue(slots.remove(dropped));
+        Assertions.assertFalse(slots.remove(dropped));
+        slots.writeIndex();
+
+        List<SaveSlots.Slot> listed = SaveSlots.open(dir).getSlots();
+        Assertions.assertEquals(1, listed.size());
+        Assertions.assertEquals(kept.id, listed.get(0).id);
+    }
+
+    @Test
+    @DisplayName("A corrupt index fails to load")
+    public void testCorrupt() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        SaveSlots slots = SaveSlots.open(dir);
+        slots.add(makeData(1), Difficulty.DifficultyLevel.Medium, 0);
+        slots.writeIndex();
+
+        byte[] bytes = Files.readAllBytes(slots.getIndexPath());
+        bytes[16] ^= 1;
+        Files.write(slots.getIndexPath(), bytes);
+        Assertions.assertThrows(IOException.class, () -> SaveSlots.readIndex(slots.getIndexPath()));
+        Assertions.assertTrue(SaveSlots.open(dir).getSlots().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Without a readable index, slots are listed from their files and never overwritten")
+    public void testRecover() throws IOException {
+        Path dir = Files.createTempDirectory("pixelboat");
+        SaveSlots slots = SaveSlots.open(dir);
+        for (int leg = 1; leg <= 3; ++leg) {
+            SaveManager.SaveData sd = makeData(leg);
+            SaveSlots.Slot slot = slots.add(sd, Difficulty.DifficultyLevel.Hard, 0);
+            SaveManager.write(slots.getSlotPath(slot.id), sd);
+        }
+        slots.writeIndex();
+        // The newest slot can't be read, but still mustn't be overwritten
+        Files.write(slots.getSlotPath(3), new byte[]{1, 2, 3});
+        Files.write(slots.getIndexPath(), new byte[]{0});
+
+        SaveSlots recovered = SaveSlots.open(dir);
+        List<SaveSlots.Slot> listed = recovered.getSlots();
+        Assertions.assertEquals(2, listed.size());
+        Assertions.assertEquals(1, listed.get(0).legNumber);
+        Assertions.assertEquals(2, listed.get(1).legNumber);
+        Assertions.assertEquals(119000, listed.get(1).totalTime);
+
+        int id = recovered.add(makeData(4), Difficulty.DifficultyLevel.Easy, 0).id;
+        Assertions.assertTrue(id > 3);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.eng1team11.pixelboattests;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.teamonehundred.pixelboat.util.TextureRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestMain.class)
+public class TestTextureRegistry {
+
+    private static final String PATH = "object_placeholder.png";
+
+    @Test
+    @DisplayName("Acquiring the same path twice shares one texture")
+    void testSharedTexture() {
+        TextureRegistry textures = TextureRegistry.getInstance();
+        int initialCount = textures.getReferenceCount(PATH);
+
+        Texture first = textures.acquire(PATH);
+        Texture second = textures.acquire(PATH);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(initialCount + 2, textures.getReferenceCount(PATH));
+
+        textures.release(PATH);
+        textures.release(PATH);
+    }
+
+    @Test
+    @DisplayName("Releasing a texture decrements its reference count")
+    void testRelease() {
+        TextureRegistry textures = TextureRegistry.getInstance();
+        int initialCount = textures.getReferenceCount(PATH);
+
+        textures.acquire(PATH);
+        Assertions.assertEquals(initialCount + 1, textures.getReferenceCount(PATH));
+
+        textures.release(PATH);
+        Assertions.assertEquals(initialCount, textures.getReferenceCount(PATH));
+    }
+
+    @Test
+    @DisplayName("Preloaded images load without being counted as used")
+    void testPreload() {
+        TextureRegistry textures = TextureRegistry.getInstance();
+        final String path = "ui/end/medal.png";
+        int initialCount = textures.getReferenceCount(path);
+
+        textures.preload(path);
+        for (int i = 0; i < 1000 && !textures.update(10); ++i) {
+            // Keep loading
+        }
+
+        Assertions.assertTrue(textures.isPreloaded(path));
+        Assertions.assertEquals(initialCount, textures.getReferenceCount(path));
+    }
+
+    @Test
+    @DisplayName("Atlas region names are asset paths without the extension")
+    void testRegionName() {
+        Assertions.assertEquals("obstacle_duck", TextureRegistry.getRegionName("obstacle_duck.png"));
+        Assertions.assertEquals("ui/results/save", TextureRegistry.getRegionName("ui/results/save.png"));
+        Assertions.assertEquals("ui/results/save", TextureRegistry.getRegionName("ui/results/save"));
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.eng1team11.pixelboattests.util;
+
+import com.teamonehundred.pixelboat.CollisionBounds;
+import com.teamonehundred.pixelboat.CollisionObject;
+import com.teamonehundred.pixelboat.util.BandIndex;
+import io.github.eng1team11.pixelboattests.TestMain;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestMain.class)
+public class TestBandIndex {
+
+    // Non-abstract version of CollisionObject
+    private static class TCollisionObject implements CollisionObject {
+
+        @Override
+        public void hasCollided(CollisionObject other) {
+
+        }
+
+        @Override
+        public CollisionBounds getBounds() {
+            return null;
+        }
+
+        @Override
+        public boolean isShown() {
+            return true;
+        }
+
+        @Override
+        public float getCollisionValue() {
+            return 0;
+        }
+    }
+
+    @Test
+    @DisplayName("Object is added to every band it overlaps")
+    void testAddAcrossBands() {
+        BandIndex index = new BandIndex(0.0f, BandIndex.BAND_HEIGHT * 4.0f);
+        TCollisionObject obj = new TCollisionObject();
+        index.add(BandIndex.BAND_HEIGHT * 0.5f, BandIndex.BAND_HEIGHT * 1.5f, obj);
+
+        Assertions.assertTrue(index.get(0).contains(obj));
+        Assertions.assertTrue(index.get(1).contains(obj));
+        Assertions.assertFalse(index.get(2).contains(obj));
+    }
+
+    @Test
+    @DisplayName("Heights outside the index are clamped to the end bands")
+    void testClampedBands() {
+        BandIndex index = new BandIndex(0.0f, BandIndex.BAND_HEIGHT * 4.0f);
+
+        Assertions.assertEquals(0, index.getBand(-1000.0f));
+        Assertions.assertEquals(index.getBandCount() - 1, index.getBand(BandIndex.BAND_HEIGHT * 100.0f));
+    }
+
+    @Test
+    @DisplayName("Removed object is in no band")
+    void testRemove() {
+        BandIndex index = new BandIndex(0.0f, BandIndex.BAND_HEIGHT * 4.0f);
+        TCollisionObject obj = new TCollisionObject();
+        index.add(0.0f, BandIndex.BAND_HEIGHT * 3.0f, obj);
+        index.remove(obj);
+
+        for (int band = 0; band < index.getBandCount(); ++band) {
+            Assertions.assertFalse(index.get(band).contains(obj));
+        }
+    }
+}
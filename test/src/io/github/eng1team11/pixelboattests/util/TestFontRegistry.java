@@ -0,0 +1,31 @@
+package io.github.eng1team11.pixelboattests.util;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.teamonehundred.pixelboat.util.FontRegistry;
+import io.github.eng1team11.pixelboattests.TestMain;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestMain.class)
+public class TestFontRegistry {
+
+    @Test
+    @DisplayName("Fonts with the same face and scale are shared")
+    void testSharedFont() {
+        BitmapFont first = FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, 0.3f);
+        BitmapFont second = FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, 0.3f);
+
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Fonts with different scales are separate")
+    void testSeparateScales() {
+        BitmapFont small = FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, 0.2f);
+        BitmapFont large = FontRegistry.getInstance().get(FontRegistry.DEFAULT_FACE, 1.0f);
+
+        Assertions.assertNotSame(small, large);
+    }
+}
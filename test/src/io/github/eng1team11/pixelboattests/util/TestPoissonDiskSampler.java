@@ -0,0 +1,97 @@
+package io.github.eng1team11.pixelboattests.util;
+
+import com.teamonehundred.pixelboat.util.PoissonDiskSampler;
+import io.github.eng1team11.pixelboattests.TestMain;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.SplittableRandom;
+
+@ExtendWith(TestMain.class)
+public class TestPoissonDiskSampler {
+
+    @Test
+    @DisplayName("Sampled points keep the larger of their spacings apart")
+    public void testSpacing() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(0, 0, 2000, 20000, 30, 60);
+        SplittableRandom random = new SplittableRandom(42);
+        float[] spacings = new float[3000];
+        for (int i = 0; i < spacings.length; ++i) {
+            float spacing = i % 2 == 0 ? 30 : 60;
+            int index = sampler.sample(random, 0, 0, 2000, 20000, spacing);
+            if (index != -1) spacings[index] = spacing;
+        }
+
+        Assertions.assertTrue(sampler.size() > 2000);
+        for (int a = 0; a < sampler.size(); ++a) {
+            for (int b = a + 1; b < sampler.size(); ++b) {
+                float dx = sampler.getX(a) - sampler.getX(b);
+                float dy = sampler.getY(a) - sampler.getY(b);
+                float required = Math.max(spacings[a], spacings[b]);
+                Assertions.assertTrue(dx * dx + dy * dy >= required * required);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Points too close to another point aren't added")
+    public void testAddTooClose() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(0, 0, 1000, 1000, 10, 100);
+
+        Assertions.assertEquals(0, sampler.add(500, 500, 100));
+        // Further than its own spacing, but not the other point's
+        Assertions.assertEquals(-1, sampler.add(550, 500, 10));
+        Assertions.assertEquals(1, sampler.add(600, 500, 10));
+        Assertions.assertEquals(2, sampler.size());
+    }
+
+    @Test
+    @DisplayName("Points are only sampled inside the given rectangle")
+    public void testSampleRectangle() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(0, 0, 1000, 1000, 20, 20);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100; ++i) {
+            int index = sampler.sample(random, 200, 300, 400, 700, 20);
+            if (index == -1) continue;
+            Assertions.assertTrue(sampler.getX(index) >= 200 && sampler.getX(index) <= 400);
+            Assertions.assertTrue(sampler.getY(index) >= 300 && sampler.getY(index) <= 700);
+        }
+    }
+
+    @Test
+    @DisplayName("Weighted sampling places points more densely in heavier columns, and never in empty ones")
+    public void testSampleWeighted() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(0, 0, 300, 10000, 10, 10);
+        SplittableRandom random = new SplittableRandom(11);
+        float[] weights = {0.0f, 1.0f, 3.0f};
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < 1000; ++i) {
+            int index = sampler.sample(random, 0, 0, 300, 10000, 10, weights);
+            if (index != -1) ++counts[Math.min(2, (int) (sampler.getX(index) / 100))];
+        }
+
+        Assertions.assertEquals(0, counts[0]);
+        Assertions.assertTrue(counts[2] > counts[1] * 2);
+    }
+
+    @Test
+    @DisplayName("The same seed samples the same points")
+    public void testDeterministic() {
+        PoissonDiskSampler first = new PoissonDiskSampler(0, 0, 1000, 1000, 25, 50);
+        PoissonDiskSampler second = new PoissonDiskSampler(0, 0, 1000, 1000, 25, 50);
+        SplittableRandom firstRandom = new SplittableRandom(123);
+        SplittableRandom secondRandom = new SplittableRandom(123);
+        for (int i = 0; i < 200; ++i) {
+            first.sample(firstRandom, 0, 0, 1000, 1000, 25);
+            second.sample(secondRandom, 0, 0, 1000, 1000, 25);
+        }
+
+        Assertions.assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); ++i) {
+            Assertions.assertEquals(first.getX(i), second.getX(i));
+            Assertions.assertEquals(first.getY(i), second.getY(i));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.eng1team11.pixelboattests.util;
+
+import com.teamonehundred.pixelboat.util.TextFormat;
+import io.github.eng1team11.pixelboattests.TestMain;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestMain.class)
+public class TestTextFormat {
+
+    @Test
+    @DisplayName("Fixed point numbers match String.format")
+    void testFixed() {
+        float[] values = {0.0f, 0.04f, 1.25f, 399.96f, 123.456f, -7.5f};
+        for (float value : values) {
+            StringBuilder builder = new StringBuilder();
+            TextFormat.appendFixed(builder, TextFormat.toFixed(value, 1), 1);
+            Assertions.assertEquals(String.format("%.1f", value), builder.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Whole numbers are padded with zeros")
+    void testPadded() {
+        Assertions.assertEquals("07", TextFormat.appendPadded(new StringBuilder(), 7, 2).toString());
+        Assertions.assertEquals("42", TextFormat.appendPadded(new StringBuilder(), 42, 2).toString());
+        Assertions.assertEquals("123", TextFormat.appendPadded(new StringBuilder(), 123, 2).toString());
+    }
+
+    @Test
+    @DisplayName("Times are shown as minutes and seconds")
+    void testMinutesSeconds() {
+        long time = 125999;
+        Assertions.assertEquals(String.format("%02d:%02d", time / 60000, time / 1000 % 60),
+                TextFormat.appendMinutesSeconds(new StringBuilder(), time).toString());
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.eng1team11.pixelboattests.util;
+
+import com.teamonehundred.pixelboat.util.VarInts;
+import io.github.eng1team11.pixelboattests.TestMain;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.ByteBuffer;
+
+@ExtendWith(TestMain.class)
+public class TestVarInts {
+
+    @Test
+    @DisplayName("Numbers read back as they were written")
+    public void testRoundTrip() {
+        long[] values = {0, 1, -1, 63, -64, 64, 127, 128, 300, -300, 65000, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 20);
+        for (long value : values) {
+            VarInts.putSigned(buffer, value);
+            if (value >= 0) VarInts.putUnsigned(buffer, value);
+        }
+        buffer.flip();
+
+        for (long value : values) {
+            Assertions.assertEquals(value, VarInts.getSigned(buffer));
+            if (value >= 0) Assertions.assertEquals(value, VarInts.getUnsigned(buffer));
+        }
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Small numbers take few bytes")
+    public void testSize() {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        VarInts.putUnsigned(buffer, 127);
+        Assertions.assertEquals(1, buffer.position());
+        VarInts.putSigned(buffer, -64);
+        Assertions.assertEquals(2, buffer.position());
+        VarInts.putUnsigned(buffer, 128);
+        Assertions.assertEquals(4, buffer.position());
+    }
+
+    @Test
+    @DisplayName("Counts larger than allowed are rejected")
+    public void testCount() {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        VarInts.putUnsigned(buffer, 5000);
+        VarInts.putUnsigned(buffer, 5000);
+        buffer.flip();
+
+        Assertions.assertEquals(5000, VarInts.getCount(buffer, 5000));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VarInts.getCount(buffer, 4999));
+    }
+}